@@ -0,0 +1,112 @@
+package dk.ralu.examples.jool;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * An {@link AdaptivePredicate} of {@link IntPredicate}s, so the tested values are never boxed.
+ */
+public final class AdaptiveIntPredicate implements IntPredicate {
+
+    private final IntPredicate[] predicates;
+    private final boolean decisiveOutcome;
+    private final int sampleEvery;
+    private final ChainStatistics statistics;
+    private volatile Plan plan;
+
+    private AdaptiveIntPredicate(IntPredicate[] predicates, boolean decisiveOutcome, int sampleEvery, int reorderAfterSamples) {
+        if (predicates.length == 0) {
+            throw new IllegalArgumentException("At least one predicate is required");
+        }
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("Sample every must be positive, but was: " + sampleEvery);
+        }
+        this.predicates = predicates.clone();
+        this.decisiveOutcome = decisiveOutcome;
+        this.sampleEvery = sampleEvery;
+        this.statistics = new ChainStatistics(predicates.length, reorderAfterSamples);
+        this.plan = new Plan(this.predicates, IntStream.range(0, predicates.length).toArray());
+    }
+
+    public static AdaptiveIntPredicate and(IntPredicate... predicates) {
+        return and(AdaptivePredicate.DEFAULT_SAMPLE_EVERY, AdaptivePredicate.DEFAULT_REORDER_AFTER_SAMPLES, predicates);
+    }
+
+    /**
+     * @param sampleEvery         on average, one in this many evaluations is sampled
+     * @param reorderAfterSamples the number of samples between reorderings
+     */
+    public static AdaptiveIntPredicate and(int sampleEvery, int reorderAfterSamples, IntPredicate... predicates) {
+        return new AdaptiveIntPredicate(predicates, false, sampleEvery, reorderAfterSamples);
+    }
+
+    public static AdaptiveIntPredicate or(IntPredicate... predicates) {
+        return or(AdaptivePredicate.DEFAULT_SAMPLE_EVERY, AdaptivePredicate.DEFAULT_REORDER_AFTER_SAMPLES, predicates);
+    }
+
+    /**
+     * @param sampleEvery         on average, one in this many evaluations is sampled
+     * @param reorderAfterSamples the number of samples between reorderings
+     */
+    public static AdaptiveIntPredicate or(int sampleEvery, int reorderAfterSamples, IntPredicate... predicates) {
+        return new AdaptiveIntPredicate(predicates, true, sampleEvery, reorderAfterSamples);
+    }
+
+    @Override
+    public boolean test(int value) {
+        if (sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0) {
+            return sampledTest(value);
+        }
+        for (IntPredicate predicate : plan.ordered) {
+            if (predicate.test(value) == decisiveOutcome) {
+                return decisiveOutcome;
+            }
+        }
+        return !decisiveOutcome;
+    }
+
+    private boolean sampledTest(int value) {
+        Plan current = plan;
+        long[] nanos = new long[current.ordered.length];
+        boolean result = !decisiveOutcome;
+        int ran = 0;
+        while (ran < nanos.length && result != decisiveOutcome) {
+            long start = System.nanoTime();
+            result = current.ordered[ran].test(value);
+            nanos[ran++] = System.nanoTime() - start;
+        }
+        int[] order = statistics.record(current.order, ran, nanos, result == decisiveOutcome);
+        if (order != null) {
+            plan = new Plan(predicates, order);
+        }
+        return result;
+    }
+
+    /**
+     * The current order of the predicates, as indexes into the predicates given when created.
+     */
+    public int[] order() {
+        return plan.order.clone();
+    }
+
+    @Override
+    public String toString() {
+        return (decisiveOutcome ? "or" : "and") + Arrays.toString(plan.order);
+    }
+
+    private static final class Plan {
+
+        private final int[] order;
+        private final IntPredicate[] ordered;
+
+        Plan(IntPredicate[] predicates, int[] order) {
+            this.order = order;
+            this.ordered = new IntPredicate[order.length];
+            for (int i = 0; i < order.length; i++) {
+                ordered[i] = predicates[order[i]];
+            }
+        }
+    }
+}
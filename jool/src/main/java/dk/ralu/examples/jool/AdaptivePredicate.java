@@ -0,0 +1,141 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import org.jooq.lambda.function.Functions;
+
+/**
+ * An AND or OR chain of predicates, that measures the cost and selectivity of each predicate at runtime, and reorders the chain so
+ * the predicates most likely to decide the result cheaply run first.
+ * <p>
+ * Every evaluation short-circuits like {@link Functions#and(Predicate[])} and {@link Functions#or(Predicate[])}, in the current order.
+ * A random sample of the evaluations (1 in 64 by default) also times the predicates that run, and the chain is reordered after a
+ * number of samples. The current order is published through a volatile field, so evaluation takes no locks. As the order changes, the
+ * predicates must be free of side effects and must not rely on each other, e.g. a null check must be in the same predicate as the
+ * test it guards.
+ */
+public final class AdaptivePredicate<T> implements Predicate<T> {
+
+    static final int DEFAULT_SAMPLE_EVERY = 64;
+    static final int DEFAULT_REORDER_AFTER_SAMPLES = 256;
+
+    private final List<Predicate<? super T>> predicates;
+    private final boolean decisiveOutcome;
+    private final int sampleEvery;
+    private final ChainStatistics statistics;
+    private volatile Plan<T> plan;
+
+    private AdaptivePredicate(List<? extends Predicate<? super T>> predicates, boolean decisiveOutcome, int sampleEvery,
+            int reorderAfterSamples) {
+        if (predicates.isEmpty()) {
+            throw new IllegalArgumentException("At least one predicate is required");
+        }
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("Sample every must be positive, but was: " + sampleEvery);
+        }
+        this.predicates = new ArrayList<Predicate<? super T>>(predicates);
+        this.decisiveOutcome = decisiveOutcome;
+        this.sampleEvery = sampleEvery;
+        this.statistics = new ChainStatistics(predicates.size(), reorderAfterSamples);
+        this.plan = new Plan<>(this.predicates, IntStream.range(0, predicates.size()).toArray());
+    }
+
+    @SafeVarargs
+    public static <T> AdaptivePredicate<T> and(Predicate<? super T>... predicates) {
+        return AdaptivePredicate.<T>and(Arrays.asList(predicates), DEFAULT_SAMPLE_EVERY, DEFAULT_REORDER_AFTER_SAMPLES);
+    }
+
+    /**
+     * @param sampleEvery         on average, one in this many evaluations is sampled
+     * @param reorderAfterSamples the number of samples between reorderings
+     */
+    public static <T> AdaptivePredicate<T> and(List<? extends Predicate<? super T>> predicates, int sampleEvery,
+            int reorderAfterSamples) {
+        return new AdaptivePredicate<>(predicates, false, sampleEvery, reorderAfterSamples);
+    }
+
+    @SafeVarargs
+    public static <T> AdaptivePredicate<T> or(Predicate<? super T>... predicates) {
+        return AdaptivePredicate.<T>or(Arrays.asList(predicates), DEFAULT_SAMPLE_EVERY, DEFAULT_REORDER_AFTER_SAMPLES);
+    }
+
+    /**
+     * @param sampleEvery         on average, one in this many evaluations is sampled
+     * @param reorderAfterSamples the number of samples between reorderings
+     */
+    public static <T> AdaptivePredicate<T> or(List<? extends Predicate<? super T>> predicates, int sampleEvery,
+            int reorderAfterSamples) {
+        return new AdaptivePredicate<>(predicates, true, sampleEvery, reorderAfterSamples);
+    }
+
+    @Override
+    public boolean test(T t) {
+        if (sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0) {
+            return sampledTest(t);
+        }
+        for (Predicate<? super T> predicate : plan.ordered) {
+            if (predicate.test(t) == decisiveOutcome) {
+                return decisiveOutcome;
+            }
+        }
+        return !decisiveOutcome;
+    }
+
+    private boolean sampledTest(T t) {
+        Plan<T> current = plan;
+        long[] nanos = new long[current.ordered.length];
+        boolean result = !decisiveOutcome;
+        int ran = 0;
+        while (ran < nanos.length && result != decisiveOutcome) {
+            long start = System.nanoTime();
+            result = current.ordered[ran].test(t);
+            nanos[ran++] = System.nanoTime() - start;
+        }
+        int[] order = statistics.record(current.order, ran, nanos, result == decisiveOutcome);
+        if (order != null) {
+            plan = new Plan<>(predicates, order);
+        }
+        return result;
+    }
+
+    /**
+     * The current order of the predicates, as indexes into the predicates given when created.
+     */
+    public int[] order() {
+        return plan.order.clone();
+    }
+
+    /**
+     * The predicates in their current order, combined with {@link Functions#and(Predicate[])} or {@link Functions#or(Predicate[])}, e.g.
+     * to freeze an order learned in a warm-up.
+     */
+    @SuppressWarnings("unchecked")
+    public Predicate<T> toStaticPredicate() {
+        Predicate<T>[] ordered = (Predicate<T>[]) plan.ordered.clone();
+        return decisiveOutcome ? Functions.or(ordered) : Functions.and(ordered);
+    }
+
+    @Override
+    public String toString() {
+        return (decisiveOutcome ? "or" : "and") + Arrays.toString(plan.order);
+    }
+
+    private static final class Plan<T> {
+
+        private final int[] order;
+        private final Predicate<? super T>[] ordered;
+
+        @SuppressWarnings("unchecked")
+        Plan(List<Predicate<? super T>> predicates, int[] order) {
+            this.order = order;
+            this.ordered = new Predicate[order.length];
+            for (int i = 0; i < order.length; i++) {
+                ordered[i] = predicates.get(order[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dk.ralu.examples.jool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes values of some type to a {@link ByteBuffer} and reads them back, in a compact binary format.
+ * <p>
+ * Codecs write and read at the position of the buffer, and advance it past the value. The buffer is reused by the caller, so codecs do
+ * not allocate when encoding. See {@link BinaryCodecs} for codecs for single values, and {@link TupleCodec} for tuples.
+ */
+public interface BinaryCodec<T> {
+
+    void encode(T value, ByteBuffer buffer);
+
+    T decode(ByteBuffer buffer);
+
+    /**
+     * Advances the position of the buffer past a value, without decoding it.
+     */
+    default void skip(ByteBuffer buffer) {
+        decode(buffer);
+    }
+}
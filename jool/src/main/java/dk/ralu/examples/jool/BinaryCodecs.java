@@ -0,0 +1,298 @@
+package dk.ralu.examples.jool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.jooq.lambda.tuple.Range;
+
+/**
+ * Codecs for single values. The codecs for primitive wrappers do not accept null values - wrap them with {@link #nullable(BinaryCodec)}
+ * if a field can be null.
+ */
+public final class BinaryCodecs {
+
+    public static final BinaryCodec<Integer> INT = new FixedSizeCodec<Integer>("INT", Integer.BYTES) {
+        @Override
+        public void encode(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    public static final BinaryCodec<Long> LONG = new FixedSizeCodec<Long>("LONG", Long.BYTES) {
+        @Override
+        public void encode(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    public static final BinaryCodec<Double> DOUBLE = new FixedSizeCodec<Double>("DOUBLE", Double.BYTES) {
+        @Override
+        public void encode(Double value, ByteBuffer buffer) {
+            buffer.putDouble(value);
+        }
+
+        @Override
+        public Double decode(ByteBuffer buffer) {
+            return buffer.getDouble();
+        }
+    };
+
+    public static final BinaryCodec<Boolean> BOOLEAN = new FixedSizeCodec<Boolean>("BOOLEAN", 1) {
+        @Override
+        public void encode(Boolean value, ByteBuffer buffer) {
+            buffer.put(value ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public Boolean decode(ByteBuffer buffer) {
+            return buffer.get() != 0;
+        }
+    };
+
+    public static final BinaryCodec<Character> CHAR = new FixedSizeCodec<Character>("CHAR", Character.BYTES) {
+        @Override
+        public void encode(Character value, ByteBuffer buffer) {
+            buffer.putChar(value);
+        }
+
+        @Override
+        public Character decode(ByteBuffer buffer) {
+            return buffer.getChar();
+        }
+    };
+
+    /**
+     * Strings as the number of bytes followed by the bytes of the string in UTF-8. The string is encoded directly into the buffer,
+     * without going through a byte array, and like {@link String#getBytes(java.nio.charset.Charset)}, unpaired surrogates are encoded
+     * as '?'.
+     */
+    public static final BinaryCodec<String> STRING = new BinaryCodec<String>() {
+        @Override
+        public void encode(String value, ByteBuffer buffer) {
+            buffer.putInt(utf8Length(value));
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer.put((byte) c);
+                } else if (c < 0x800) {
+                    buffer.put((byte) (0xC0 | (c >> 6)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                } else if (isSurrogatePair(value, i)) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    buffer.put((byte) '?');
+                } else {
+                    buffer.put((byte) (0xE0 | (c >> 12)));
+                    buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            String value;
+            if (buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return value;
+        }
+
+        @Override
+        public void skip(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + length);
+        }
+
+        @Override
+        public String toString() {
+            return "STRING";
+        }
+    };
+
+    private BinaryCodecs() {
+    }
+
+    /**
+     * Allows null values, by writing a byte telling whether the value is present before the value itself.
+     */
+    public static <T> BinaryCodec<T> nullable(BinaryCodec<T> codec) {
+        return codec instanceof Nullable ? codec : new Nullable<>(codec);
+    }
+
+    /**
+     * Ranges as their two bounds. The bounds are not nullable.
+     */
+    public static <T extends Comparable<T>> BinaryCodec<Range<T>> range(BinaryCodec<T> bounds) {
+        return new RangeCodec<>(bounds);
+    }
+
+    /**
+     * Whether the codec is one of the constants of this class, or made from them by {@link #nullable} and {@link #range}.
+     */
+    static boolean isBuiltIn(BinaryCodec<?> codec) {
+        if (codec instanceof Nullable) {
+            return isBuiltIn(((Nullable<?>) codec).codec);
+        }
+        if (codec instanceof RangeCodec) {
+            return isBuiltIn(((RangeCodec<?>) codec).bounds);
+        }
+        return codec == INT || codec == LONG || codec == DOUBLE || codec == BOOLEAN || codec == CHAR || codec == STRING;
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index))
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (isSurrogatePair(value, i)) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private abstract static class FixedSizeCodec<T> implements BinaryCodec<T> {
+
+        private final String name;
+        private final int size;
+
+        FixedSizeCodec(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        @Override
+        public void skip(ByteBuffer buffer) {
+            buffer.position(buffer.position() + size);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final class Nullable<T> implements BinaryCodec<T> {
+
+        private final BinaryCodec<T> codec;
+
+        Nullable(BinaryCodec<T> codec) {
+            this.codec = Objects.requireNonNull(codec, "codec");
+        }
+
+        @Override
+        public void encode(T value, ByteBuffer buffer) {
+            if (value == null) {
+                buffer.put((byte) 0);
+            } else {
+                buffer.put((byte) 1);
+                codec.encode(value, buffer);
+            }
+        }
+
+        @Override
+        public T decode(ByteBuffer buffer) {
+            return buffer.get() == 0 ? null : codec.decode(buffer);
+        }
+
+        @Override
+        public void skip(ByteBuffer buffer) {
+            if (buffer.get() != 0) {
+                codec.skip(buffer);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Nullable && codec.equals(((Nullable<?>) o).codec);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * codec.hashCode() + 1;
+        }
+
+        @Override
+        public String toString() {
+            return "nullable(" + codec + ")";
+        }
+    }
+
+    private static final class RangeCodec<T extends Comparable<T>> implements BinaryCodec<Range<T>> {
+
+        private final BinaryCodec<T> bounds;
+
+        RangeCodec(BinaryCodec<T> bounds) {
+            this.bounds = Objects.requireNonNull(bounds, "bounds");
+        }
+
+        @Override
+        public void encode(Range<T> value, ByteBuffer buffer) {
+            bounds.encode(value.v1, buffer);
+            bounds.encode(value.v2, buffer);
+        }
+
+        @Override
+        public Range<T> decode(ByteBuffer buffer) {
+            return new Range<>(bounds.decode(buffer), bounds.decode(buffer));
+        }
+
+        @Override
+        public void skip(ByteBuffer buffer) {
+            bounds.skip(buffer);
+            bounds.skip(buffer);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RangeCodec && bounds.equals(((RangeCodec<?>) o).bounds);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * bounds.hashCode() + 2;
+        }
+
+        @Override
+        public String toString() {
+            return "range(" + bounds + ")";
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package dk.ralu.examples.jool;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * The sampled cost and outcome of each predicate in an AND or OR chain, used by {@link AdaptivePredicate} and
+ * {@link AdaptiveIntPredicate} to decide the order of the chain.
+ * <p>
+ * The chain is ordered by expected cost per decisive outcome: the average time of a predicate divided by the probability that it
+ * ends the evaluation, i.e. returns false in an AND chain or true in an OR chain. As the evaluations short-circuit, only the predicates
+ * that ran are counted, so the probability is conditional on the predicates before it in the order not having decided the result. A
+ * predicate that has not run in any sample is moved first at the next reordering, so it gets measured. After each reordering the
+ * statistics are halved, so the order follows changes in the data.
+ */
+final class ChainStatistics {
+
+    private final int reorderAfterSamples;
+    private final long[] nanos;
+    private final long[] calls;
+    private final long[] decisive;
+    private int samples;
+
+    ChainStatistics(int predicates, int reorderAfterSamples) {
+        if (reorderAfterSamples < 1) {
+            throw new IllegalArgumentException("Reorder after samples must be positive, but was: " + reorderAfterSamples);
+        }
+        this.reorderAfterSamples = reorderAfterSamples;
+        this.nanos = new long[predicates];
+        this.calls = new long[predicates];
+        this.decisive = new long[predicates];
+    }
+
+    /**
+     * Records a sample, with the times of the predicates that ran before the evaluation short-circuited.
+     *
+     * @param order       the order the predicates ran in
+     * @param ran         the number of predicates that ran, the first ones of the order
+     * @param sampleNanos the time of each predicate that ran, in the order they ran
+     * @param decided     whether the last predicate that ran had the decisive outcome
+     * @return the new order of the predicates, or null if it is not time to reorder
+     */
+    synchronized int[] record(int[] order, int ran, long[] sampleNanos, boolean decided) {
+        for (int i = 0; i < ran; i++) {
+            nanos[order[i]] += sampleNanos[i];
+            calls[order[i]]++;
+        }
+        if (decided) {
+            decisive[order[ran - 1]]++;
+        }
+        if (++samples < reorderAfterSamples) {
+            return null;
+        }
+        double[] ranks = new double[nanos.length];
+        for (int i = 0; i < nanos.length; i++) {
+            if (calls[i] == 0) {
+                continue; // Rank 0, so it runs first
+            }
+            double averageNanos = Math.max(1, nanos[i]) / (double) calls[i];
+            double probabilityOfDecisive = (decisive[i] + 1) / (double) (calls[i] + 2);
+            ranks[i] = averageNanos / probabilityOfDecisive;
+            nanos[i] /= 2;
+            calls[i] = (calls[i] + 1) / 2;
+            decisive[i] /= 2;
+        }
+        samples = 0;
+        return IntStream.range(0, ranks.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> ranks[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ChainStatistics{nanos=" + Arrays.toString(nanos) + ", calls=" + Arrays.toString(calls)
+                + ", decisive=" + Arrays.toString(decisive) + "}";
+    }
+}
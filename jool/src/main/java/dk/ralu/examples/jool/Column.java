@@ -0,0 +1,47 @@
+package dk.ralu.examples.jool;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A column of a {@link ColumnarBatch3}, where the values of one field of all rows are stored together.
+ *
+ * @param <T> the type of the values, when read one at a time
+ */
+public interface Column<T> {
+
+    int size();
+
+    /**
+     * The value in the given row - boxed if the column stores primitives, and null if the row has no value.
+     */
+    T get(int row);
+
+    boolean isNull(int row);
+
+    /**
+     * The rows of the selection, whose value matches the predicate. Rows without a value never match.
+     */
+    Selection filter(Predicate<? super T> predicate, Selection selection);
+
+    /**
+     * The rows of the selection grouped by their value, with the rows of each group in ascending order. Rows without a value are left
+     * out (like {@link java.util.stream.Collectors#groupingBy(java.util.function.Function)}, null keys are not supported).
+     */
+    Map<T, Selection> groupBy(Selection selection);
+
+    /**
+     * A new column with only the rows of the selection, in selection order.
+     */
+    Column<T> gather(Selection selection);
+
+    /**
+     * Collects values for a new column.
+     */
+    interface Builder<T> {
+
+        void add(T value);
+
+        Column<T> build();
+    }
+}
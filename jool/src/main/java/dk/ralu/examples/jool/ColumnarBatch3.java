@@ -0,0 +1,93 @@
+package dk.ralu.examples.jool;
+
+import java.util.Objects;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple3;
+
+/**
+ * Rows of 3 fields stored column by column (struct of arrays), instead of as one {@link Tuple3} object per row.
+ * <p>
+ * Choosing a primitive column (e.g. {@link IntColumn}) or a dictionary encoded column ({@link DictionaryColumn}) for each field keeps
+ * the data compact, and makes scans of a field run over a single array. Operators work a column at a time on {@link Selection}s:
+ * <pre>
+ * ColumnarBatch3&lt;Integer, String, Integer&gt; orderLines =
+ *         ColumnarBatch3.of(rows, IntColumn.builder(), DictionaryColumn.builder(), IntColumn.builder());
+ * Selection pencils = orderLines.column2().filter("Pencil"::equals, orderLines.all());
+ * long pencilsOrdered = IntColumn.of(orderLines.column3()).sum(pencils);
+ * </pre>
+ * Rows can also be read as {@link Tuple3}s, which are then created when requested. Immutable.
+ */
+public final class ColumnarBatch3<T1, T2, T3> {
+
+    private final Column<T1> column1;
+    private final Column<T2> column2;
+    private final Column<T3> column3;
+    private final int size;
+
+    public ColumnarBatch3(Column<T1> column1, Column<T2> column2, Column<T3> column3) {
+        this.column1 = Objects.requireNonNull(column1, "column1");
+        this.column2 = Objects.requireNonNull(column2, "column2");
+        this.column3 = Objects.requireNonNull(column3, "column3");
+        this.size = column1.size();
+        if (column2.size() != size || column3.size() != size) {
+            throw new IllegalArgumentException(
+                    "Columns must have the same size, but had: " + size + ", " + column2.size() + " and " + column3.size());
+        }
+    }
+
+    /**
+     * Stores the rows in columns made by the given builders.
+     */
+    public static <T1, T2, T3> ColumnarBatch3<T1, T2, T3> of(
+            Iterable<? extends Tuple3<? extends T1, ? extends T2, ? extends T3>> rows,
+            Column.Builder<T1> builder1, Column.Builder<T2> builder2, Column.Builder<T3> builder3) {
+        for (Tuple3<? extends T1, ? extends T2, ? extends T3> row : rows) {
+            builder1.add(row.v1());
+            builder2.add(row.v2());
+            builder3.add(row.v3());
+        }
+        return new ColumnarBatch3<>(builder1.build(), builder2.build(), builder3.build());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Column<T1> column1() {
+        return column1;
+    }
+
+    public Column<T2> column2() {
+        return column2;
+    }
+
+    public Column<T3> column3() {
+        return column3;
+    }
+
+    /**
+     * A selection of all rows, to start filtering from.
+     */
+    public Selection all() {
+        return Selection.all(size);
+    }
+
+    public Tuple3<T1, T2, T3> row(int row) {
+        return new Tuple3<>(column1.get(row), column2.get(row), column3.get(row));
+    }
+
+    public Seq<Tuple3<T1, T2, T3>> rows() {
+        return Seq.range(0, size).map(this::row);
+    }
+
+    public Seq<Tuple3<T1, T2, T3>> rows(Selection selection) {
+        return Seq.range(0, selection.size()).map(i -> row(selection.row(i)));
+    }
+
+    /**
+     * A new batch with only the rows of the selection.
+     */
+    public ColumnarBatch3<T1, T2, T3> gather(Selection selection) {
+        return new ColumnarBatch3<>(column1.gather(selection), column2.gather(selection), column3.gather(selection));
+    }
+}
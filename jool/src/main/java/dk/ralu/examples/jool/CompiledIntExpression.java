@@ -0,0 +1,148 @@
+package dk.ralu.examples.jool;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntSupplier;
+import org.jooq.lambda.function.Function0;
+
+/**
+ * An {@link IntExpression} compiled into a flat program: an array of instructions, each computing one distinct subexpression into a
+ * register from registers computed before it. Evaluation is a single loop over the instructions, with the predefined operators
+ * evaluated inline, so there is no recursion, no boxing, and a shared subexpression is computed once per evaluation.
+ * <p>
+ * Thread safe - {@link #getAsInt()} evaluates in registers kept per thread and reused by its later evaluations, or in new registers if
+ * an input evaluates the same expression, and {@link #getAsInt(int[])} in the registers given by the caller.
+ */
+public final class CompiledIntExpression implements Function0<Integer>, IntSupplier {
+
+    private static final int CONSTANT = -2;
+    private static final int INPUT = -1;
+    // The opcodes of the operators are the ones of IntExpression.Operator
+    private static final int CUSTOM = 0;
+    private static final int SUM = 1;
+    private static final int DIFFERENCE = 2;
+    private static final int PRODUCT = 3;
+    private static final int MAX = 4;
+    private static final int MIN = 5;
+
+    private final IntExpression expression;
+    private final int[] opcodes;
+    private final int[] left;
+    private final int[] right;
+    private final IntSupplier[] inputs;
+    private final IntBinaryOperator[] operators;
+    private final ThreadLocal<int[]> registers; // Null while an evaluation on the thread uses them
+
+    CompiledIntExpression(IntExpression expression) {
+        this.expression = expression;
+        List<IntExpression> nodes = IntExpression.postOrder(expression);
+        int count = nodes.size();
+        this.opcodes = new int[count];
+        this.left = new int[count];
+        this.right = new int[count];
+        this.inputs = new IntSupplier[count];
+        this.operators = new IntBinaryOperator[count];
+        this.registers = ThreadLocal.withInitial(() -> new int[count]);
+
+        Map<IntExpression, Integer> registers = new IdentityHashMap<>();
+        for (int i = 0; i < count; i++) {
+            IntExpression node = nodes.get(i);
+            registers.put(node, i);
+            if (node instanceof IntExpression.Constant) {
+                opcodes[i] = CONSTANT;
+                left[i] = ((IntExpression.Constant) node).value;
+            } else if (node instanceof IntExpression.Input) {
+                opcodes[i] = INPUT;
+                inputs[i] = ((IntExpression.Input) node).input;
+            } else {
+                IntExpression.Binary binary = (IntExpression.Binary) node;
+                opcodes[i] = binary.operator.opcode();
+                left[i] = registers.get(binary.left);
+                right[i] = registers.get(binary.right);
+                if (opcodes[i] == CUSTOM) {
+                    operators[i] = binary.operator::apply;
+                }
+            }
+        }
+    }
+
+    /**
+     * The optimized expression that was compiled.
+     */
+    public IntExpression expression() {
+        return expression;
+    }
+
+    public int instructionCount() {
+        return opcodes.length;
+    }
+
+    @Override
+    public int getAsInt() {
+        int[] threadRegisters = registers.get();
+        if (threadRegisters == null) {
+            return getAsInt(new int[opcodes.length]); // Evaluated by an input of this expression
+        }
+        registers.set(null);
+        try {
+            return getAsInt(threadRegisters);
+        } finally {
+            registers.set(threadRegisters);
+        }
+    }
+
+    /**
+     * Evaluates the expression in the given registers, which must hold at least {@link #instructionCount()} values, so a caller that
+     * evaluates it in a loop can reuse them. The registers must not be used by another evaluation at the same time.
+     */
+    public int getAsInt(int[] registers) {
+        int[] opcodes = this.opcodes;
+        int[] left = this.left;
+        int[] right = this.right;
+        if (registers.length < opcodes.length) {
+            throw new IllegalArgumentException("Expected at least " + opcodes.length + " registers, but got: " + registers.length);
+        }
+        for (int i = 0; i < opcodes.length; i++) {
+            int value;
+            switch (opcodes[i]) {
+                case CONSTANT:
+                    value = left[i];
+                    break;
+                case INPUT:
+                    value = inputs[i].getAsInt();
+                    break;
+                case SUM:
+                    value = registers[left[i]] + registers[right[i]];
+                    break;
+                case DIFFERENCE:
+                    value = registers[left[i]] - registers[right[i]];
+                    break;
+                case PRODUCT:
+                    value = registers[left[i]] * registers[right[i]];
+                    break;
+                case MAX:
+                    value = Math.max(registers[left[i]], registers[right[i]]);
+                    break;
+                case MIN:
+                    value = Math.min(registers[left[i]], registers[right[i]]);
+                    break;
+                default:
+                    value = operators[i].applyAsInt(registers[left[i]], registers[right[i]]);
+            }
+            registers[i] = value;
+        }
+        return registers[opcodes.length - 1];
+    }
+
+    @Override
+    public Integer get() {
+        return getAsInt();
+    }
+
+    @Override
+    public String toString() {
+        return expression.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package dk.ralu.examples.jool;
+
+import java.util.Arrays;
+import java.util.stream.Collector;
+
+/**
+ * Approximate counts of how often each value occurs, in a fixed amount of memory.
+ * <p>
+ * The sketch is a table of {@code depth} rows of {@code width} counters. Adding a value increments one counter in each row, chosen by
+ * a hash of the value, and the estimate is the smallest of those counters. Other values may share a counter, so estimates are never
+ * too low, but may be too high: with {@link #withError(double, double)}, an estimate exceeds the true count by at most
+ * {@code epsilon} times the total count, with the given probability.
+ * <p>
+ * Sketches of the same dimensions can be merged, e.g. the sketches of the chunks of a parallel stream, and give the same estimates as
+ * a single sketch of all values. Values are hashed as described in {@link Hashing}. Not thread safe.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private long totalCount;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1 || (long) width * depth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid dimensions: " + width + " x " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * A sketch where an estimate exceeds the true count by at most {@code epsilon} times the total count, with the given probability.
+     */
+    public static CountMinSketch withError(double epsilon, double confidence) {
+        checkError(epsilon, confidence);
+        return new CountMinSketch((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / (1 - confidence))));
+    }
+
+    static void checkError(double epsilon, double confidence) {
+        if (!(epsilon > 0 && epsilon < 1) || !(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Epsilon and confidence must be between 0 and 1, but were: " + epsilon + ", " + confidence);
+        }
+    }
+
+    /**
+     * Collects the elements of a stream into a sketch, e.g. {@code seq.collect(CountMinSketch.toCountMinSketch(0.001, 0.99))}.
+     */
+    public static <T> Collector<T, CountMinSketch, CountMinSketch> toCountMinSketch(double epsilon, double confidence) {
+        checkError(epsilon, confidence);
+        return Collector.of(() -> withError(epsilon, confidence), CountMinSketch::add, CountMinSketch::merge,
+                Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    public void add(Object value) {
+        add(value, 1);
+    }
+
+    public void add(Object value, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative, but was: " + count);
+        }
+        long hash = Hashing.hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(hash1, hash2, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    /**
+     * The estimated number of times the value was added, which is at least the true number.
+     */
+    public long estimate(Object value) {
+        long hash = Hashing.hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + column(hash1, hash2, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * The counter of the value in a row, from combining two hashes as suggested by Kirsch and Mitzenmacher, rather than hashing the
+     * value once for each row.
+     */
+    private int column(int hash1, int hash2, int row) {
+        return ((hash1 + row * hash2) & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * Adds the counts of the other sketch to this sketch.
+     *
+     * @return this sketch
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException(
+                    "Cannot merge a " + other.width + " x " + other.depth + " sketch into a " + width + " x " + depth + " sketch");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        totalCount += other.totalCount;
+        return this;
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CountMinSketch)) {
+            return false;
+        }
+        CountMinSketch that = (CountMinSketch) o;
+        return width == that.width && depth == that.depth && Arrays.equals(counters, that.counters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counters);
+    }
+
+    @Override
+    public String toString() {
+        return "CountMinSketch(" + width + " x " + depth + ", totalCount=" + totalCount + ")";
+    }
+}
@@ -0,0 +1,152 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A dictionary encoded {@link Column}: each distinct value is stored once in a dictionary, and each row only stores the int code of
+ * its value in the dictionary. Suits columns with few distinct values, like names of products or locations.
+ * <p>
+ * Filters and group by work on the codes: a filter tests each distinct value once, and then only compares codes.
+ *
+ * @param <T> the type of the values
+ */
+public final class DictionaryColumn<T> implements Column<T> {
+
+    private static final int NULL_CODE = -1;
+
+    private final List<T> dictionary;
+    private final int[] codes;
+    private final int size;
+
+    private DictionaryColumn(List<T> dictionary, int[] codes, int size) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+        this.size = size;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T get(int row) {
+        int code = code(row);
+        return code == NULL_CODE ? null : dictionary.get(code);
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return code(row) == NULL_CODE;
+    }
+
+    /**
+     * The position of the row's value in the dictionary, or -1 if the row has no value.
+     */
+    public int code(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return codes[row];
+    }
+
+    public int dictionarySize() {
+        return dictionary.size();
+    }
+
+    public T dictionaryValue(int code) {
+        return dictionary.get(code);
+    }
+
+    @Override
+    public Selection filter(Predicate<? super T> predicate, Selection selection) {
+        boolean[] matchingCodes = new boolean[dictionary.size()];
+        for (int code = 0; code < matchingCodes.length; code++) {
+            matchingCodes[code] = predicate.test(dictionary.get(code));
+        }
+        Selection.Builder result = new Selection.Builder(selection.size());
+        for (int i = 0; i < selection.size(); i++) {
+            int row = selection.row(i);
+            int code = codes[row];
+            if (code != NULL_CODE && matchingCodes[code]) {
+                result.add(row);
+            }
+        }
+        return result.build();
+    }
+
+    @Override
+    public Map<T, Selection> groupBy(Selection selection) {
+        Selection.Builder[] builders = new Selection.Builder[dictionary.size()];
+        for (int i = 0; i < selection.size(); i++) {
+            int row = selection.row(i);
+            int code = codes[row];
+            if (code != NULL_CODE) {
+                if (builders[code] == null) {
+                    builders[code] = new Selection.Builder(4);
+                }
+                builders[code].add(row);
+            }
+        }
+        Map<T, Selection> groups = new LinkedHashMap<>();
+        for (int code = 0; code < builders.length; code++) {
+            if (builders[code] != null) {
+                groups.put(dictionary.get(code), builders[code].build());
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * A new column with the rows of the selection, sharing this column's dictionary.
+     */
+    @Override
+    public DictionaryColumn<T> gather(Selection selection) {
+        int[] gathered = new int[selection.size()];
+        for (int i = 0; i < gathered.length; i++) {
+            gathered[i] = codes[selection.row(i)];
+        }
+        return new DictionaryColumn<>(dictionary, gathered, gathered.length);
+    }
+
+    public static final class Builder<T> implements Column.Builder<T> {
+
+        private final Map<T, Integer> codesByValue = new HashMap<>();
+        private final List<T> dictionary = new ArrayList<>();
+        private int[] codes = new int[16];
+        private int size;
+
+        private Builder() {
+        }
+
+        @Override
+        public void add(T value) {
+            int code = NULL_CODE;
+            if (value != null) {
+                code = codesByValue.computeIfAbsent(value, newValue -> {
+                    dictionary.add(newValue);
+                    return dictionary.size() - 1;
+                });
+            }
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+            }
+            codes[size++] = code;
+        }
+
+        @Override
+        public DictionaryColumn<T> build() {
+            return new DictionaryColumn<>(new ArrayList<>(dictionary), Arrays.copyOf(codes, size), size);
+        }
+    }
+}
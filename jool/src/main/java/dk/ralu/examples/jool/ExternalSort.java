@@ -0,0 +1,231 @@
+package dk.ralu.examples.jool;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.jooq.lambda.Seq;
+
+/**
+ * Sorting of sequences that do not fit in memory, by an external merge sort.
+ * <p>
+ * The input is read in runs of at most {@code maxRowsInMemory} rows. Each run is sorted with {@link Arrays#parallelSort}, so all cores
+ * take part, and written to a temporary file with a {@link BinaryCodec}. The runs are then merged lazily, by keeping the next row of
+ * each run in a heap. If there are more than 64 runs, groups of runs are first merged into longer runs, so only a bounded number of
+ * files are read at a time. An input that fits in a single run is sorted in memory, without any files.
+ * <p>
+ * Nothing is read before the result is consumed, and then the whole input is read before the first row is returned. The sort is
+ * stable. The temporary files are deleted when the result has been consumed or is closed, and the input is closed with the result.
+ */
+public final class ExternalSort {
+
+    static final int MAX_MERGE_WIDTH = 64;
+
+    private ExternalSort() {
+    }
+
+    public static <T> Seq<T> sorted(Seq<T> seq, Comparator<? super T> comparator, BinaryCodec<T> codec, int maxRowsInMemory) {
+        return sorted(seq, comparator, codec, maxRowsInMemory, null);
+    }
+
+    /**
+     * Sorts with temporary files in the given directory, or in the default temporary-file directory if it is null.
+     */
+    public static <T> Seq<T> sorted(Seq<T> seq, Comparator<? super T> comparator, BinaryCodec<T> codec, int maxRowsInMemory,
+            Path directory) {
+        return sorted(seq, comparator, codec, maxRowsInMemory, directory, MAX_MERGE_WIDTH);
+    }
+
+    static <T> Seq<T> sorted(Seq<T> seq, Comparator<? super T> comparator, BinaryCodec<T> codec, int maxRowsInMemory, Path directory,
+            int maxMergeWidth) {
+        Objects.requireNonNull(seq, "seq");
+        Objects.requireNonNull(comparator, "comparator");
+        Objects.requireNonNull(codec, "codec");
+        if (maxRowsInMemory < 1) {
+            throw new IllegalArgumentException("Max rows in memory must be positive, but was: " + maxRowsInMemory);
+        }
+        if (maxMergeWidth < 2) {
+            throw new IllegalArgumentException("Max merge width must be at least 2, but was: " + maxMergeWidth);
+        }
+        SortIterator<T> iterator = new SortIterator<>(seq, comparator, codec, maxRowsInMemory, directory, maxMergeWidth);
+        return Seq.seq(iterator).onClose(() -> {
+            try {
+                iterator.closeRuns();
+            } finally {
+                seq.close();
+            }
+        });
+    }
+
+    private static final class SortIterator<T> implements Iterator<T> {
+
+        private final Seq<T> seq;
+        private final Comparator<? super T> comparator;
+        private final BinaryCodec<T> codec;
+        private final int maxRowsInMemory;
+        private final Path directory;
+        private final int maxMergeWidth;
+
+        private final List<SpillFile<T>> runs = new ArrayList<>();
+        private Iterator<T> sorted;
+
+        SortIterator(Seq<T> seq, Comparator<? super T> comparator, BinaryCodec<T> codec, int maxRowsInMemory, Path directory,
+                int maxMergeWidth) {
+            this.seq = seq;
+            this.comparator = comparator;
+            this.codec = codec;
+            this.maxRowsInMemory = maxRowsInMemory;
+            this.directory = directory;
+            this.maxMergeWidth = maxMergeWidth;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (sorted == null) {
+                sorted = sort();
+            }
+            if (sorted.hasNext()) {
+                return true;
+            }
+            closeRuns();
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return sorted.next();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Iterator<T> sort() {
+            Iterator<T> rows = seq.iterator();
+            Object[] run = new Object[Math.min(maxRowsInMemory, 1024)];
+            while (true) {
+                int size = 0;
+                while (size < maxRowsInMemory && rows.hasNext()) {
+                    if (size == run.length) {
+                        run = Arrays.copyOf(run, (int) Math.min(maxRowsInMemory, 2L * run.length));
+                    }
+                    run[size++] = rows.next();
+                }
+                Arrays.parallelSort((T[]) run, 0, size, comparator);
+                if (runs.isEmpty() && !rows.hasNext()) {
+                    return Arrays.asList((T[]) run).subList(0, size).iterator(); // Everything fits in memory
+                }
+                SpillFile<T> file = newRun();
+                for (int i = 0; i < size; i++) {
+                    file.append((T) run[i]);
+                    run[i] = null;
+                }
+                if (!rows.hasNext()) {
+                    break;
+                }
+            }
+            while (runs.size() > maxMergeWidth) {
+                mergePass();
+            }
+            return merge(runs);
+        }
+
+        /**
+         * Merges each group of adjacent runs into one run, so the runs stay in input order, and the merge stays stable.
+         */
+        private void mergePass() {
+            List<SpillFile<T>> inputs = new ArrayList<>(runs);
+            runs.clear();
+            for (int start = 0; start < inputs.size(); start += maxMergeWidth) {
+                List<SpillFile<T>> group = inputs.subList(start, Math.min(start + maxMergeWidth, inputs.size()));
+                if (group.size() == 1) {
+                    runs.add(group.get(0));
+                    continue;
+                }
+                SpillFile<T> merged = newRun();
+                try {
+                    merge(group).forEachRemaining(merged::append);
+                } catch (RuntimeException e) {
+                    inputs.forEach(SpillFile::close);
+                    throw e;
+                }
+                group.forEach(SpillFile::close);
+            }
+        }
+
+        private SpillFile<T> newRun() {
+            SpillFile<T> file = new SpillFile<>(codec, directory);
+            runs.add(file);
+            return file;
+        }
+
+        private Iterator<T> merge(List<SpillFile<T>> files) {
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>(files.size(), (a, b) -> {
+                int result = comparator.compare(a.row, b.row);
+                return result != 0 ? result : Integer.compare(a.run, b.run);
+            });
+            for (int i = 0; i < files.size(); i++) {
+                Head<T> head = new Head<>(i, files.get(i).iterator());
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+            return new Iterator<T>() {
+
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public T next() {
+                    Head<T> head = heads.poll();
+                    if (head == null) {
+                        throw new NoSuchElementException();
+                    }
+                    T row = head.row;
+                    if (head.advance()) {
+                        heads.add(head);
+                    }
+                    return row;
+                }
+            };
+        }
+
+        void closeRuns() {
+            try {
+                runs.forEach(SpillFile::close);
+            } finally {
+                runs.clear();
+            }
+        }
+    }
+
+    /**
+     * The next row of a run being merged.
+     */
+    private static final class Head<T> {
+
+        private final int run;
+        private final Iterator<T> rows;
+        private T row;
+
+        Head(int run, Iterator<T> rows) {
+            this.run = run;
+            this.rows = rows;
+        }
+
+        boolean advance() {
+            if (!rows.hasNext()) {
+                return false;
+            }
+            row = rows.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.fi.util.function.CheckedFunction;
+
+/**
+ * A side channel for the failures of a pipeline stage, so a bad element is recorded and skipped instead of ending the stream.
+ * <p>
+ * {@link #map(Seq, CheckedFunction)} applies a function to each element, and streams the results of the elements it succeeds for.
+ * When it throws, the channel counts the failure by exception type, and keeps the first failures, with their inputs, as samples. The
+ * number of samples is bounded, so a stream with millions of bad elements does not fill the heap.
+ * <p>
+ * The channel is thread safe, so it also works for parallel streams with {@link #map(Stream, CheckedFunction)}. Successes are passed on
+ * as they are, so the stage does not allocate for them. Errors are not caught, and an {@link InterruptedException} ends the stream, as
+ * a {@link StacklessUncheckedException}, after restoring the interrupt flag, rather than being recorded as a bad element.
+ */
+public final class FailureChannel<T> {
+
+    private static final Object FAILED = new Object();
+
+    private final AtomicReferenceArray<Failure<T>> samples;
+    private final AtomicInteger sampled = new AtomicInteger();
+    private final LongAdder count = new LongAdder();
+    private final ConcurrentMap<Class<? extends Throwable>, LongAdder> countsByType = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSamples the number of failures to keep
+     */
+    public FailureChannel(int maxSamples) {
+        if (maxSamples < 0) {
+            throw new IllegalArgumentException("Max samples must not be negative, but was: " + maxSamples);
+        }
+        this.samples = new AtomicReferenceArray<>(maxSamples);
+    }
+
+    /**
+     * Applies the function to each element, and records the elements it throws for in this channel instead of passing them on.
+     */
+    public <R> Seq<R> map(Seq<T> seq, CheckedFunction<? super T, ? extends R> function) {
+        return Seq.seq(map((Stream<T>) seq, function));
+    }
+
+    /**
+     * Like {@link #map(Seq, CheckedFunction)}, for any stream, including parallel streams.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Stream<R> map(Stream<T> stream, CheckedFunction<? super T, ? extends R> function) {
+        Objects.requireNonNull(function, "function");
+        return stream
+                .map(element -> {
+                    try {
+                        return (Object) function.apply(element);
+                    } catch (Error e) {
+                        throw e;
+                    } catch (InterruptedException e) {
+                        throw Stackless.unchecked(e); // Restores the interrupt flag
+                    } catch (Throwable e) {
+                        record(element, e);
+                        return FAILED;
+                    }
+                })
+                .filter(result -> result != FAILED)
+                .map(result -> (R) result);
+    }
+
+    public void record(T input, Throwable failure) {
+        count.increment();
+        countsByType.computeIfAbsent(failure.getClass(), type -> new LongAdder()).increment();
+        if (sampled.get() < samples.length()) {
+            int index = sampled.getAndIncrement();
+            if (index < samples.length()) {
+                samples.set(index, new Failure<>(input, failure));
+            }
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public Map<Class<? extends Throwable>, Long> countsByType() {
+        Map<Class<? extends Throwable>, Long> counts = new HashMap<>();
+        countsByType.forEach((type, typeCount) -> counts.put(type, typeCount.sum()));
+        return counts;
+    }
+
+    /**
+     * The first failures, at most the max samples given when created.
+     */
+    public List<Failure<T>> samples() {
+        List<Failure<T>> result = new ArrayList<>();
+        int size = Math.min(sampled.get(), samples.length());
+        for (int i = 0; i < size; i++) {
+            Failure<T> failure = samples.get(i);
+            if (failure != null) { // Null if the slot has been claimed, but not yet set
+                result.add(failure);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The inputs of the sampled failures.
+     */
+    public List<T> failedInputs() {
+        return Seq.seq(samples()).map(Failure::input).toUnmodifiableList();
+    }
+
+    @Override
+    public String toString() {
+        return "FailureChannel{count=" + count() + ", countsByType=" + countsByType() + "}";
+    }
+
+    /**
+     * A failed input, and what the function threw for it.
+     */
+    public static final class Failure<T> {
+
+        private final T input;
+        private final Throwable exception;
+
+        Failure(T input, Throwable exception) {
+            this.input = input;
+            this.exception = exception;
+        }
+
+        public T input() {
+            return input;
+        }
+
+        public Throwable exception() {
+            return exception;
+        }
+
+        @Override
+        public String toString() {
+            return "Failure{input=" + input + ", exception=" + exception + "}";
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package dk.ralu.examples.jool;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+
+/**
+ * Splits one pass over a sequence into several sequences, the branches, that are consumed independently, with a bounded buffer per
+ * branch.
+ * <p>
+ * {@link Seq#duplicate()}, {@link Seq#partition(Predicate)} and {@link Seq#unzip(java.util.stream.Stream)} buffer every row that one
+ * side has read, and the other has not, without limit. Here a branch that needs a row reads it from the input, and hands it to the
+ * branches it is routed to, each of which buffers at most {@code bufferSize} rows. When a branch lags so far behind that its buffer is
+ * full, the {@link Overflow} policy decides what happens.
+ * <p>
+ * The branches can be consumed on different threads. Closing a branch, e.g. one that is not needed after all, drops its rows, so it
+ * does not hold back the others, and the input is closed when all branches are closed.
+ */
+public final class FanOut<T> {
+
+    /**
+     * What happens when a row is routed to a branch with a full buffer.
+     */
+    public enum Overflow {
+
+        /**
+         * Wait until the branch has read a row. Branches must be consumed on different threads, as a branch that waits for another
+         * branch on the same thread waits forever.
+         */
+        BLOCK,
+
+        /**
+         * Write the row, and the following rows of the branch, to a temporary file, until the branch has caught up.
+         */
+        SPILL,
+
+        /**
+         * Throw an {@link IllegalStateException}, for inputs where the branches are expected to be consumed in step.
+         */
+        FAIL
+    }
+
+    private static final int ALL_BRANCHES = -1;
+
+    private final int bufferSize;
+    private final Overflow overflow;
+    private final BinaryCodec<T> codec;
+    private final Path spillDirectory;
+
+    private FanOut(int bufferSize, Overflow overflow, BinaryCodec<T> codec, Path spillDirectory) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive, but was: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.codec = codec;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public static <T> FanOut<T> blocking(int bufferSize) {
+        return new FanOut<>(bufferSize, Overflow.BLOCK, null, null);
+    }
+
+    public static <T> FanOut<T> failing(int bufferSize) {
+        return new FanOut<>(bufferSize, Overflow.FAIL, null, null);
+    }
+
+    public static <T> FanOut<T> spilling(int bufferSize, BinaryCodec<T> codec) {
+        return spilling(bufferSize, codec, null);
+    }
+
+    /**
+     * Spills to temporary files in the given directory, or in the default temporary-file directory if it is null.
+     */
+    public static <T> FanOut<T> spilling(int bufferSize, BinaryCodec<T> codec, Path directory) {
+        return new FanOut<>(bufferSize, Overflow.SPILL, Objects.requireNonNull(codec, "codec"), directory);
+    }
+
+    public Overflow overflow() {
+        return overflow;
+    }
+
+    /**
+     * Two branches with all the rows, like {@link Seq#duplicate()}.
+     */
+    public Tuple2<Seq<T>, Seq<T>> duplicate(Seq<T> seq) {
+        List<Seq<T>> branches = split(seq, 2, row -> ALL_BRANCHES);
+        return Tuple.tuple(branches.get(0), branches.get(1));
+    }
+
+    /**
+     * The rows matching the predicate, and the other rows, like {@link Seq#partition(Predicate)}.
+     */
+    public Tuple2<Seq<T>, Seq<T>> partition(Seq<T> seq, Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        List<Seq<T>> branches = split(seq, 2, row -> predicate.test(row) ? 0 : 1);
+        return Tuple.tuple(branches.get(0), branches.get(1));
+    }
+
+    /**
+     * Two columns of the rows, like {@link Seq#unzip(java.util.stream.Stream, Function)}. The buffers, and the spill files, hold the
+     * rows before the functions are applied.
+     */
+    public <A, B> Tuple2<Seq<A>, Seq<B>> unzip(
+            Seq<T> seq, Function<? super T, ? extends A> column1, Function<? super T, ? extends B> column2) {
+        List<Seq<T>> branches = split(seq, 2, row -> ALL_BRANCHES);
+        return Tuple.tuple(branches.get(0).map(column1), branches.get(1).map(column2));
+    }
+
+    /**
+     * Three columns of the rows, e.g. the fields of a sequence of {@link Tuple3}s.
+     */
+    public <A, B, C> Tuple3<Seq<A>, Seq<B>, Seq<C>> unzip(
+            Seq<T> seq, Function<? super T, ? extends A> column1, Function<? super T, ? extends B> column2,
+            Function<? super T, ? extends C> column3) {
+        List<Seq<T>> branches = split(seq, 3, row -> ALL_BRANCHES);
+        return Tuple.tuple(branches.get(0).map(column1), branches.get(1).map(column2), branches.get(2).map(column3));
+    }
+
+    /**
+     * Routes each row to the branch with the index returned by the router.
+     */
+    public List<Seq<T>> split(Seq<T> seq, int branches, ToIntFunction<? super T> router) {
+        Objects.requireNonNull(seq, "seq");
+        Objects.requireNonNull(router, "router");
+        if (branches < 1) {
+            throw new IllegalArgumentException("There must be at least one branch, but was: " + branches);
+        }
+        Splitter<T> splitter = new Splitter<>(this, seq, branches, router);
+        List<Seq<T>> result = new ArrayList<>(branches);
+        for (int i = 0; i < branches; i++) {
+            Branch<T> branch = splitter.branches.get(i);
+            result.add(Seq.seq(branch).onClose(branch::close));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The state shared by the branches of one split. All fields are guarded by the lock.
+     */
+    private static final class Splitter<T> {
+
+        private final FanOut<T> config;
+        private final Seq<T> seq;
+        private final Iterator<T> rows;
+        private final ToIntFunction<? super T> router;
+        private final List<Branch<T>> branches = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private boolean reading; // A branch is reading a row from the input, and routing it
+        private boolean exhausted;
+        private RuntimeException failure;
+        private int openBranches;
+
+        Splitter(FanOut<T> config, Seq<T> seq, int branchCount, ToIntFunction<? super T> router) {
+            this.config = config;
+            this.seq = seq;
+            this.rows = seq.iterator();
+            this.router = router;
+            for (int i = 0; i < branchCount; i++) {
+                branches.add(new Branch<>(this, i));
+            }
+            this.openBranches = branchCount;
+        }
+
+        /**
+         * Reads rows from the input, until the branch has a row or the input is exhausted. Called with the lock held.
+         */
+        void fill(Branch<T> branch) {
+            while (!branch.hasBuffered()) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (exhausted) {
+                    return;
+                }
+                if (reading) {
+                    changed.awaitUninterruptibly(); // Another branch is routing a row, which may be for this branch
+                    continue;
+                }
+                reading = true;
+                try {
+                    readAndRoute();
+                } catch (RuntimeException | Error e) {
+                    failure = e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+                    throw e;
+                } finally {
+                    reading = false;
+                    changed.signalAll();
+                }
+            }
+        }
+
+        private void readAndRoute() {
+            T row;
+            lock.unlock(); // Reading the input may be slow, and other branches can read their buffers meanwhile
+            try {
+                if (!rows.hasNext()) {
+                    row = null;
+                    exhausted = true;
+                } else {
+                    row = rows.next();
+                }
+            } finally {
+                lock.lock();
+            }
+            if (exhausted) {
+                return;
+            }
+            int target = router.applyAsInt(row);
+            if (target == ALL_BRANCHES) {
+                for (Branch<T> branch : branches) {
+                    offer(branch, row);
+                }
+            } else {
+                if (target < 0 || target >= branches.size()) {
+                    throw new IllegalStateException("Row routed to branch " + target + " of " + branches.size() + ": " + row);
+                }
+                offer(branches.get(target), row);
+            }
+        }
+
+        private void offer(Branch<T> branch, T row) {
+            while (!branch.closed && branch.isFull()) {
+                switch (config.overflow) {
+                    case BLOCK:
+                        changed.awaitUninterruptibly();
+                        break;
+                    case SPILL:
+                        branch.spill(row);
+                        return;
+                    default:
+                        throw new IllegalStateException(
+                                "Branch " + branch.index + " is more than " + config.bufferSize + " rows behind");
+                }
+            }
+            if (!branch.closed) {
+                branch.buffer.add(row);
+                changed.signalAll();
+            }
+        }
+
+        void close(Branch<T> branch) {
+            boolean closeInput;
+            lock.lock();
+            try {
+                if (branch.closed) {
+                    return;
+                }
+                branch.closed = true;
+                branch.clear();
+                openBranches--;
+                closeInput = openBranches == 0;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (closeInput) {
+                seq.close();
+            }
+        }
+    }
+
+    /**
+     * The buffered rows of one branch: first the rows in memory, then, if the branch has spilled, the rows in the spill files. While
+     * there are spilled rows, new rows are also spilled, so the rows stay in order.
+     */
+    private static final class Branch<T> implements Iterator<T> {
+
+        private final Splitter<T> splitter;
+        private final int index;
+        private final ArrayDeque<T> buffer = new ArrayDeque<>();
+        private final ArrayDeque<SpillFile<T>> spills = new ArrayDeque<>(); // The last one is appended to
+        private SpillFile<T> readingSpill;
+        private Iterator<T> spilledRows;
+        private boolean closed;
+
+        Branch(Splitter<T> splitter, int index) {
+            this.splitter = splitter;
+            this.index = index;
+        }
+
+        boolean isFull() {
+            return buffer.size() >= splitter.config.bufferSize || hasSpilled();
+        }
+
+        private boolean hasSpilled() {
+            return !spills.isEmpty() || spilledRows != null;
+        }
+
+        boolean hasBuffered() {
+            return !buffer.isEmpty() || hasSpilled();
+        }
+
+        void spill(T row) {
+            if (spills.isEmpty()) {
+                spills.add(new SpillFile<>(splitter.config.codec, splitter.config.spillDirectory));
+            }
+            spills.getLast().append(row);
+        }
+
+        @Override
+        public boolean hasNext() {
+            splitter.lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                splitter.fill(this);
+                return hasBuffered();
+            } finally {
+                splitter.lock.unlock();
+            }
+        }
+
+        @Override
+        public T next() {
+            splitter.lock.lock();
+            try {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (!buffer.isEmpty()) {
+                    T row = buffer.poll();
+                    splitter.changed.signalAll();
+                    return row;
+                }
+                return nextSpilled();
+            } finally {
+                splitter.lock.unlock();
+            }
+        }
+
+        private T nextSpilled() {
+            if (spilledRows == null) {
+                readingSpill = spills.poll(); // New rows are spilled to a new file, while this one is read
+                spilledRows = readingSpill.iterator();
+            }
+            T row = spilledRows.next();
+            if (!spilledRows.hasNext()) {
+                readingSpill.close();
+                readingSpill = null;
+                spilledRows = null;
+            }
+            return row;
+        }
+
+        void clear() {
+            buffer.clear();
+            if (readingSpill != null) {
+                readingSpill.close();
+                readingSpill = null;
+                spilledRows = null;
+            }
+            spills.forEach(SpillFile::close);
+            spills.clear();
+        }
+
+        void close() {
+            splitter.close(this);
+        }
+    }
+}
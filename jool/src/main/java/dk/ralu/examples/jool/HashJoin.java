@@ -0,0 +1,206 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+
+/**
+ * Equi-joins of two sequences, where rows are matched by keys extracted from each side.
+ * <p>
+ * The joins of {@link Seq}, e.g. {@link Seq#innerJoin(Iterable, java.util.function.BiPredicate)}, test a predicate for every
+ * combination of left and right row, which is quadratic. Here the rows of one side are put into a hash table, and the other side is
+ * streamed through it, which is linear in the size of the inputs:
+ * <ul>
+ * <li>If both sides are {@link Collection}s, the smaller one is hashed (the right one if they have the same size)
+ * <li>If only one side is a {@link Collection}, that one is hashed
+ * <li>Otherwise the right side is hashed
+ * </ul>
+ * Keys match if they are equal according to {@link Objects#equals(Object, Object)}, so the result contains the same tuples as a
+ * join with the predicate {@code (left, right) -> Objects.equals(leftKey(left), rightKey(right))} - including the nulls for
+ * unmatched rows in outer joins.
+ * <p>
+ * The result is in the order of the streamed side, with the matching rows of the hashed side in their original order. Unmatched rows
+ * of the hashed side (outer joins only) come last, grouped by key. The hash table is built when the first result is requested.
+ */
+public final class HashJoin {
+
+    private HashJoin() {
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> innerJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return join(left, right, leftKey, rightKey, false, false);
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> leftOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return join(left, right, leftKey, rightKey, true, false);
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> rightOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return join(left, right, leftKey, rightKey, false, true);
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> fullOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return join(left, right, leftKey, rightKey, true, true);
+    }
+
+    private static <L, R, K> Seq<Tuple2<L, R>> join(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            boolean keepUnmatchedLeft, boolean keepUnmatchedRight) {
+
+        Objects.requireNonNull(leftKey, "leftKey");
+        Objects.requireNonNull(rightKey, "rightKey");
+
+        if (shouldHashLeft(left, right)) {
+            return Seq.seq(new ProbeIterator<R, L, K, Tuple2<L, R>>(
+                    right.iterator(), left, rightKey, leftKey, keepUnmatchedRight, keepUnmatchedLeft,
+                    (rightRow, leftRow) -> new Tuple2<>(leftRow, rightRow)));
+        }
+        return Seq.seq(new ProbeIterator<L, R, K, Tuple2<L, R>>(
+                left.iterator(), right, leftKey, rightKey, keepUnmatchedLeft, keepUnmatchedRight,
+                Tuple2::new));
+    }
+
+    private static boolean shouldHashLeft(Iterable<?> left, Iterable<?> right) {
+        if (left instanceof Collection && right instanceof Collection) {
+            return ((Collection<?>) left).size() < ((Collection<?>) right).size();
+        }
+        return left instanceof Collection;
+    }
+
+    /**
+     * Rows of the hashed side sharing the same key.
+     */
+    private static final class Bucket<B> {
+
+        private final List<B> rows = new ArrayList<>(1);
+        private boolean matched;
+    }
+
+    /**
+     * Streams the probe side (P) through a hash table of the build side (B), producing output rows (O).
+     */
+    private static final class ProbeIterator<P, B, K, O> implements Iterator<O> {
+
+        private final Iterator<? extends P> probeRows;
+        private final Iterable<? extends B> buildRows;
+        private final Function<? super P, ? extends K> probeKey;
+        private final Function<? super B, ? extends K> buildKey;
+        private final boolean keepUnmatchedProbeRows;
+        private final boolean keepUnmatchedBuildRows;
+        private final BiFunction<P, B, O> combiner;
+
+        private Map<K, Bucket<B>> table;
+        private Iterator<Bucket<B>> unmatchedBuckets;
+
+        private P probeRow;
+        private Bucket<B> bucket;
+        private int bucketIndex;
+
+        private O next;
+        private boolean nextReady;
+
+        ProbeIterator(
+                Iterator<? extends P> probeRows, Iterable<? extends B> buildRows,
+                Function<? super P, ? extends K> probeKey, Function<? super B, ? extends K> buildKey,
+                boolean keepUnmatchedProbeRows, boolean keepUnmatchedBuildRows,
+                BiFunction<P, B, O> combiner) {
+            this.probeRows = probeRows;
+            this.buildRows = buildRows;
+            this.probeKey = probeKey;
+            this.buildKey = buildKey;
+            this.keepUnmatchedProbeRows = keepUnmatchedProbeRows;
+            this.keepUnmatchedBuildRows = keepUnmatchedBuildRows;
+            this.combiner = combiner;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!nextReady) {
+                nextReady = advance();
+            }
+            return nextReady;
+        }
+
+        @Override
+        public O next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            nextReady = false;
+            O result = next;
+            next = null;
+            return result;
+        }
+
+        private boolean advance() {
+            if (table == null) {
+                table = buildTable();
+            }
+            while (true) {
+                if (bucket != null && bucketIndex < bucket.rows.size()) {
+                    next = combiner.apply(probeRow, bucket.rows.get(bucketIndex++));
+                    return true;
+                }
+                bucket = null;
+                if (unmatchedBuckets == null && probeRows.hasNext()) {
+                    probeRow = probeRows.next();
+                    Bucket<B> match = table.get(probeKey.apply(probeRow));
+                    if (match != null) {
+                        match.matched = true;
+                        bucket = match;
+                        bucketIndex = 0;
+                    } else if (keepUnmatchedProbeRows) {
+                        next = combiner.apply(probeRow, null);
+                        return true;
+                    }
+                    continue;
+                }
+                if (!keepUnmatchedBuildRows) {
+                    return false;
+                }
+                if (unmatchedBuckets == null) {
+                    probeRow = null;
+                    unmatchedBuckets = table.values().iterator();
+                }
+                while (bucket == null && unmatchedBuckets.hasNext()) {
+                    Bucket<B> candidate = unmatchedBuckets.next();
+                    if (!candidate.matched) {
+                        bucket = candidate;
+                        bucketIndex = 0;
+                    }
+                }
+                if (bucket == null) {
+                    return false;
+                }
+            }
+        }
+
+        private Map<K, Bucket<B>> buildTable() {
+            Map<K, Bucket<B>> result = buildRows instanceof Collection
+                    ? new LinkedHashMap<>(Math.max(16, (int) (((Collection<?>) buildRows).size() / 0.75f) + 1))
+                    : new LinkedHashMap<>();
+            for (B row : buildRows) {
+                result.computeIfAbsent(buildKey.apply(row), key -> new Bucket<>()).rows.add(row);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package dk.ralu.examples.jool;
+
+/**
+ * 64 bit hashes for the sketches, {@link HyperLogLog} and {@link CountMinSketch}, which need hash bits that are spread evenly, as
+ * opposed to {@link Object#hashCode()}, which is only 32 bits, and is the value itself for integers.
+ * <p>
+ * Numbers are hashed by value, so an {@link Integer} and a {@link Long} with the same value have the same hash, and strings are hashed
+ * from all of their characters. Other objects are hashed from their {@link Object#hashCode()}.
+ */
+final class Hashing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    static long hash(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(((Number) value).longValue());
+        }
+        if (value instanceof CharSequence) {
+            CharSequence chars = (CharSequence) value;
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < chars.length(); i++) {
+                hash = (hash ^ chars.charAt(i)) * FNV_PRIME;
+            }
+            return mix(hash);
+        }
+        return mix(value == null ? 0 : value.hashCode());
+    }
+
+    /**
+     * The SplitMix64 finalizer, which changes about half of the bits of the result for each bit changed in the value.
+     */
+    static long mix(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,188 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+
+/**
+ * A tree (or forest) of rows, where each row has an id and refers to its parent by the parent's id - e.g. locations as
+ * {@code Tuple3<id, parentId, name>}.
+ * <p>
+ * Instead of resolving parents with a self join, which compares every row with every other row, the rows are indexed by id and by
+ * parent id once, so each step up or down the tree is a hash lookup. Ids are matched like {@link Objects#equals(Object, Object)}.
+ * <p>
+ * Ids are expected to be unique, but duplicates are tolerated: all rows with a given id are the parents of rows referring to that id,
+ * like in a self join. Ancestor chains follow the first of them (in input order).
+ *
+ * @param <T> the type of the rows
+ * @param <I> the type of the ids
+ */
+public final class Hierarchy<T, I> {
+
+    private final List<T> rows;
+    private final Function<? super T, ? extends I> id;
+    private final Function<? super T, ? extends I> parentId;
+    private final Map<I, List<T>> rowsById;
+    private final Map<I, List<T>> rowsByParentId;
+
+    private Hierarchy(List<T> rows, Function<? super T, ? extends I> id, Function<? super T, ? extends I> parentId) {
+        this.rows = rows;
+        this.id = id;
+        this.parentId = parentId;
+        this.rowsById = new HashMap<>(capacityFor(rows.size()));
+        this.rowsByParentId = new HashMap<>(capacityFor(rows.size()));
+        for (T row : rows) {
+            rowsById.computeIfAbsent(id.apply(row), key -> new ArrayList<>(1)).add(row);
+            rowsByParentId.computeIfAbsent(parentId.apply(row), key -> new ArrayList<>(1)).add(row);
+        }
+    }
+
+    public static <T, I> Hierarchy<T, I> of(
+            Iterable<? extends T> rows, Function<? super T, ? extends I> id, Function<? super T, ? extends I> parentId) {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(parentId, "parentId");
+        List<T> rowList = new ArrayList<>();
+        rows.forEach(rowList::add);
+        return new Hierarchy<>(Collections.unmodifiableList(rowList), id, parentId);
+    }
+
+    /**
+     * A hierarchy of rows with the fields: id, parent id, and anything else.
+     */
+    public static <I, V> Hierarchy<Tuple3<I, I, V>, I> ofTuples(Iterable<? extends Tuple3<I, I, V>> rows) {
+        return of(rows, Tuple3::v1, Tuple3::v2);
+    }
+
+    public List<T> rows() {
+        return rows;
+    }
+
+    public Optional<T> row(I id) {
+        List<T> matches = rowsById.get(id);
+        return matches == null ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    public Optional<T> parent(T row) {
+        return row(parentId.apply(row));
+    }
+
+    public Seq<T> children(T row) {
+        return Seq.seq(rowsByParentId.getOrDefault(id.apply(row), Collections.emptyList()));
+    }
+
+    public Seq<T> roots() {
+        return Seq.seq(rows).filter(row -> !rowsById.containsKey(parentId.apply(row)));
+    }
+
+    /**
+     * The parent, grandparent etc. of the given row, nearest first.
+     *
+     * @throws IllegalStateException when consumed, if the parent references form a cycle
+     */
+    public Seq<T> ancestors(T row) {
+        return Seq.seq(new AncestorIterator(row));
+    }
+
+    /**
+     * All rows below the given row, depth first, with each row before its children (pre-order).
+     *
+     * @throws IllegalStateException when consumed, if the parent references form a cycle
+     */
+    public Seq<T> descendants(T row) {
+        return Seq.seq(new DescendantIterator(row));
+    }
+
+    /**
+     * All (child, parent) pairs - the same tuples in the same order as a self join on {@code Objects.equals(parentId(child),
+     * id(parent))}.
+     */
+    public Seq<Tuple2<T, T>> childParentPairs() {
+        return Seq.seq(rows).flatMap(child -> Seq.seq(rowsById.getOrDefault(parentId.apply(child), Collections.emptyList()))
+                .map(parent -> new Tuple2<>(child, parent)));
+    }
+
+    private static int capacityFor(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+
+    private final class AncestorIterator implements Iterator<T> {
+
+        private T current;
+        private Optional<T> next;
+        private int hops;
+
+        AncestorIterator(T row) {
+            this.current = row;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = parent(current);
+            }
+            return next.isPresent();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (++hops > rows.size()) {
+                throw new IllegalStateException("Cycle in the ancestors of row with id: " + id.apply(current));
+            }
+            current = next.get();
+            next = null;
+            return current;
+        }
+    }
+
+    private final class DescendantIterator implements Iterator<T> {
+
+        private final Deque<Iterator<T>> stack = new ArrayDeque<>();
+
+        DescendantIterator(T row) {
+            pushChildren(row);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!stack.isEmpty() && !stack.peek().hasNext()) {
+                stack.pop();
+            }
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T row = stack.peek().next();
+            if (stack.size() > rows.size()) {
+                throw new IllegalStateException("Cycle below row with id: " + id.apply(row));
+            }
+            pushChildren(row);
+            return row;
+        }
+
+        private void pushChildren(T row) {
+            List<T> children = rowsByParentId.get(id.apply(row));
+            if (children != null) {
+                stack.push(children.iterator());
+            }
+        }
+    }
+}
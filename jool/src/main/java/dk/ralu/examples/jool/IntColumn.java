@@ -0,0 +1,183 @@
+package dk.ralu.examples.jool;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Column} of ints, stored in an int array, with a bitmap marking the rows without a value.
+ * <p>
+ * {@link #filterInt(IntPredicate, Selection)} and {@link #sum(Selection)} work on the primitive values directly.
+ */
+public final class IntColumn implements Column<Integer> {
+
+    private final int[] values;
+    private final long[] nulls; // null if no row is null
+    private final int size;
+
+    private IntColumn(int[] values, long[] nulls, int size) {
+        this.values = values;
+        this.nulls = nulls;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static IntColumn of(int... values) {
+        return new IntColumn(values.clone(), null, values.length);
+    }
+
+    /**
+     * The column as an {@link IntColumn} - the column itself if it is one, and otherwise a copy.
+     */
+    public static IntColumn of(Column<Integer> column) {
+        if (column instanceof IntColumn) {
+            return (IntColumn) column;
+        }
+        Builder builder = builder();
+        for (int row = 0; row < column.size(); row++) {
+            builder.add(column.get(row));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Integer get(int row) {
+        return isNull(row) ? null : getInt(row);
+    }
+
+    /**
+     * The value in the given row, or 0 if the row has no value.
+     */
+    public int getInt(int row) {
+        checkRow(row);
+        return values[row];
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        checkRow(row);
+        return nulls != null && (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public Selection filterInt(IntPredicate predicate, Selection selection) {
+        Selection.Builder result = new Selection.Builder(selection.size());
+        for (int i = 0; i < selection.size(); i++) {
+            int row = selection.row(i);
+            if (!isNull(row) && predicate.test(values[row])) {
+                result.add(row);
+            }
+        }
+        return result.build();
+    }
+
+    @Override
+    public Selection filter(Predicate<? super Integer> predicate, Selection selection) {
+        return filterInt(predicate::test, selection);
+    }
+
+    /**
+     * The sum of the values in the rows of the selection, skipping rows without a value.
+     */
+    public long sum(Selection selection) {
+        long sum = 0;
+        for (int i = 0; i < selection.size(); i++) {
+            int row = selection.row(i);
+            if (!isNull(row)) {
+                sum += values[row];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public Map<Integer, Selection> groupBy(Selection selection) {
+        Map<Integer, Selection.Builder> builders = new HashMap<>();
+        for (int i = 0; i < selection.size(); i++) {
+            int row = selection.row(i);
+            if (!isNull(row)) {
+                builders.computeIfAbsent(values[row], value -> new Selection.Builder(4)).add(row);
+            }
+        }
+        Map<Integer, Selection> groups = new HashMap<>(Math.max(16, (int) (builders.size() / 0.75f) + 1));
+        builders.forEach((value, builder) -> groups.put(value, builder.build()));
+        return groups;
+    }
+
+    @Override
+    public IntColumn gather(Selection selection) {
+        Builder builder = new Builder(selection.size());
+        for (int i = 0; i < selection.size(); i++) {
+            int row = selection.row(i);
+            if (isNull(row)) {
+                builder.add(null);
+            } else {
+                builder.addInt(values[row]);
+            }
+        }
+        return builder.build();
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    public static final class Builder implements Column.Builder<Integer> {
+
+        private int[] values;
+        private long[] nulls;
+        private int size;
+
+        private Builder() {
+            this(16);
+        }
+
+        private Builder(int expectedSize) {
+            values = new int[Math.max(expectedSize, 4)];
+        }
+
+        public void addInt(int value) {
+            ensureCapacity();
+            values[size++] = value;
+        }
+
+        @Override
+        public void add(Integer value) {
+            if (value != null) {
+                addInt(value);
+                return;
+            }
+            ensureCapacity();
+            if (nulls == null) {
+                nulls = new long[(values.length >>> 6) + 1];
+            }
+            nulls[size >>> 6] |= 1L << size;
+            size++;
+        }
+
+        @Override
+        public IntColumn build() {
+            return new IntColumn(Arrays.copyOf(values, size), nulls == null ? null : Arrays.copyOf(nulls, (size >>> 6) + 1), size);
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (nulls != null && (size >>> 6) >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, nulls.length * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntSupplier;
+import org.jooq.lambda.function.Function0;
+import org.jooq.lambda.function.Function2;
+
+/**
+ * An int valued expression, captured as a tree instead of as nested lambdas.
+ * <p>
+ * Composing {@link Function0}s like in {@code Functions.applyPartial()} gives a chain of lambdas, and evaluating it means a
+ * megamorphic call and boxing at every node. An expression is built the same way - {@link #operator(Operator)} gives the
+ * {@link Function2} to partially apply - but it can be inspected, {@link #optimize() optimized} and {@link #compile() compiled}.
+ * <p>
+ * Leaves are constants or {@link #input(IntSupplier) inputs}, which are read on every evaluation and thereby never folded.
+ */
+public abstract class IntExpression {
+
+    /**
+     * An int binary operator with a name. The predefined operators are evaluated inline by compiled expressions, other operators
+     * through {@link IntBinaryOperator#applyAsInt(int, int)}.
+     */
+    public static final class Operator {
+
+        public static final Operator SUM = new Operator("+", Integer::sum, 1);
+        public static final Operator DIFFERENCE = new Operator("-", (a, b) -> a - b, 2);
+        public static final Operator PRODUCT = new Operator("*", (a, b) -> a * b, 3);
+        public static final Operator MAX = new Operator("max", Math::max, 4);
+        public static final Operator MIN = new Operator("min", Math::min, 5);
+
+        private static final int CUSTOM = 0;
+
+        private final String name;
+        private final IntBinaryOperator function;
+        private final int opcode;
+
+        private Operator(String name, IntBinaryOperator function, int opcode) {
+            this.name = name;
+            this.function = function;
+            this.opcode = opcode;
+        }
+
+        public static Operator of(String name, IntBinaryOperator function) {
+            return new Operator(Objects.requireNonNull(name, "name"), Objects.requireNonNull(function, "function"), CUSTOM);
+        }
+
+        public int apply(int left, int right) {
+            return function.applyAsInt(left, right);
+        }
+
+        int opcode() {
+            return opcode;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final long size;
+    private final int hash;
+
+    private IntExpression(long size, int hash) {
+        this.size = size;
+        this.hash = hash;
+    }
+
+    public static IntExpression constant(int value) {
+        return new Constant(value);
+    }
+
+    public static IntExpression input(IntSupplier input) {
+        return new Input(Objects.requireNonNull(input, "input"));
+    }
+
+    public static IntExpression binary(Operator operator, IntExpression left, IntExpression right) {
+        return new Binary(Objects.requireNonNull(operator, "operator"), Objects.requireNonNull(left, "left"),
+                Objects.requireNonNull(right, "right"));
+    }
+
+    public static IntExpression sum(IntExpression left, IntExpression right) {
+        return binary(Operator.SUM, left, right);
+    }
+
+    public static IntExpression max(IntExpression left, IntExpression right) {
+        return binary(Operator.MAX, left, right);
+    }
+
+    public static IntExpression min(IntExpression left, IntExpression right) {
+        return binary(Operator.MIN, left, right);
+    }
+
+    /**
+     * The operator as a function building expressions, e.g. to partially apply like the functions in {@code Functions.applyPartial()}.
+     */
+    public static Function2<IntExpression, IntExpression, IntExpression> operator(Operator operator) {
+        return (left, right) -> binary(operator, left, right);
+    }
+
+    /**
+     * The number of nodes in the tree, where a subexpression used in several places is counted each time.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Evaluates the tree recursively, like the nested lambdas would.
+     */
+    public abstract int evaluate();
+
+    public Function0<Integer> toFunction0() {
+        return this::evaluate;
+    }
+
+    /**
+     * Folds subexpressions without inputs into constants, and replaces equal subexpressions with a single instance, so the result is a
+     * directed acyclic graph where each distinct subexpression appears once. Inputs are equal only if they are the same supplier.
+     */
+    public IntExpression optimize() {
+        Map<IntExpression, IntExpression> optimized = new IdentityHashMap<>();
+        Map<Object, IntExpression> canonical = new HashMap<>();
+        for (IntExpression node : postOrder(this)) {
+            IntExpression result;
+            if (node instanceof Binary) {
+                Binary binary = (Binary) node;
+                IntExpression left = optimized.get(binary.left);
+                IntExpression right = optimized.get(binary.right);
+                if (left instanceof Constant && right instanceof Constant) {
+                    result = new Constant(binary.operator.apply(((Constant) left).value, ((Constant) right).value));
+                } else if (left == binary.left && right == binary.right) {
+                    result = binary;
+                } else {
+                    result = new Binary(binary.operator, left, right);
+                }
+            } else {
+                result = node;
+            }
+            optimized.put(node, canonical.computeIfAbsent(result.canonicalKey(), key -> result));
+        }
+        return optimized.get(this);
+    }
+
+    /**
+     * Optimizes the expression and compiles it into a flat program, with one instruction per distinct subexpression.
+     */
+    public CompiledIntExpression compile() {
+        return new CompiledIntExpression(optimize());
+    }
+
+    /**
+     * Identifies the node among nodes whose children are already canonical, so children are compared by identity.
+     */
+    abstract Object canonicalKey();
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * The distinct nodes of the expression, with children before their parents. Iterative, so deep expressions are fine.
+     */
+    static List<IntExpression> postOrder(IntExpression root) {
+        List<IntExpression> result = new ArrayList<>();
+        Map<IntExpression, Boolean> visited = new IdentityHashMap<>();
+        Deque<IntExpression> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            IntExpression node = stack.peek();
+            if (visited.containsKey(node)) {
+                stack.pop();
+                if (!visited.get(node)) {
+                    visited.put(node, true);
+                    result.add(node);
+                }
+                continue;
+            }
+            visited.put(node, false);
+            if (node instanceof Binary) {
+                Binary binary = (Binary) node;
+                if (!visited.containsKey(binary.right)) {
+                    stack.push(binary.right);
+                }
+                if (!visited.containsKey(binary.left)) {
+                    stack.push(binary.left);
+                }
+            }
+        }
+        return result;
+    }
+
+    static final class Constant extends IntExpression {
+
+        final int value;
+
+        Constant(int value) {
+            super(1, Integer.hashCode(value));
+            this.value = value;
+        }
+
+        @Override
+        public int evaluate() {
+            return value;
+        }
+
+        @Override
+        Object canonicalKey() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Constant && ((Constant) o).value == value;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(value);
+        }
+    }
+
+    static final class Input extends IntExpression {
+
+        final IntSupplier input;
+
+        Input(IntSupplier input) {
+            super(1, System.identityHashCode(input));
+            this.input = input;
+        }
+
+        @Override
+        public int evaluate() {
+            return input.getAsInt();
+        }
+
+        @Override
+        Object canonicalKey() {
+            return input;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Input && ((Input) o).input == input;
+        }
+
+        @Override
+        public String toString() {
+            return "input";
+        }
+    }
+
+    static final class Binary extends IntExpression {
+
+        final Operator operator;
+        final IntExpression left;
+        final IntExpression right;
+
+        Binary(Operator operator, IntExpression left, IntExpression right) {
+            super(1 + left.size + right.size, 31 * (31 * operator.hashCode() + left.hashCode()) + right.hashCode());
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public int evaluate() {
+            return operator.apply(left.evaluate(), right.evaluate());
+        }
+
+        @Override
+        Object canonicalKey() {
+            return new BinaryKey(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Binary) || o.hashCode() != hashCode()) {
+                return false;
+            }
+            Binary that = (Binary) o;
+            return operator == that.operator && left.equals(that.left) && right.equals(that.right);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+    }
+
+    private static final class BinaryKey {
+
+        private final Binary binary;
+
+        BinaryKey(Binary binary) {
+            this.binary = binary;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BinaryKey)) {
+                return false;
+            }
+            Binary that = ((BinaryKey) o).binary;
+            return binary.operator == that.operator && binary.left == that.left && binary.right == that.right;
+        }
+
+        @Override
+        public int hashCode() {
+            return binary.hashCode();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dk.ralu.examples.jool;
+
+/**
+ * A function of two ints, the primitive specialisation of a {@code Function2<Integer, Integer, R>}.
+ */
+@FunctionalInterface
+public interface IntIntFunction<R> {
+
+    R apply(int v1, int v2);
+}
@@ -0,0 +1,94 @@
+package dk.ralu.examples.jool;
+
+import java.io.Serializable;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
+import org.jooq.lambda.tuple.Tuple1;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.jooq.lambda.tuple.Tuple4;
+
+/**
+ * A {@link Tuple2} of an int and a long, that stores both values unboxed.
+ * <p>
+ * Has the same semantics as the jOOλ tuple it corresponds to, i.e. {@link #equals(Object)}, {@link #hashCode()}, {@link #toString()}
+ * and {@link #compareTo(IntLongTuple2)} give the same results as for {@link #toTuple()}.
+ * It is however never equal to a jOOλ tuple - convert with {@link #toTuple()} and {@link #from(Tuple2)} at the boundaries.
+ */
+public final class IntLongTuple2 implements Comparable<IntLongTuple2>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int v1;
+    private final long v2;
+
+    public IntLongTuple2(int v1, long v2) {
+        this.v1 = v1;
+        this.v2 = v2;
+    }
+
+    public static IntLongTuple2 from(Tuple2<? extends Integer, ? extends Long> tuple) {
+        return new IntLongTuple2(tuple.v1(), tuple.v2());
+    }
+
+    public int v1() {
+        return v1;
+    }
+
+    public long v2() {
+        return v2;
+    }
+
+    public int degree() {
+        return 2;
+    }
+
+    public IntLongTuple2 map1(IntUnaryOperator function) {
+        return new IntLongTuple2(function.applyAsInt(v1), v2);
+    }
+
+    public IntLongTuple2 map2(LongUnaryOperator function) {
+        return new IntLongTuple2(v1, function.applyAsLong(v2));
+    }
+
+    public <T3> Tuple3<Integer, Long, T3> concat(Tuple1<T3> tuple) {
+        return new Tuple3<>(v1, v2, tuple.v1());
+    }
+
+    public <T3, T4> Tuple4<Integer, Long, T3, T4> concat(Tuple2<T3, T4> tuple) {
+        return new Tuple4<>(v1, v2, tuple.v1(), tuple.v2());
+    }
+
+    public Tuple2<Integer, Long> toTuple() {
+        return new Tuple2<>(v1, v2);
+    }
+
+    @Override
+    public int compareTo(IntLongTuple2 other) {
+        int result = Integer.compare(v1, other.v1);
+        return result != 0 ? result : Long.compare(v2, other.v2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntLongTuple2)) {
+            return false;
+        }
+        IntLongTuple2 that = (IntLongTuple2) o;
+        return v1 == that.v1 && v2 == that.v2;
+    }
+
+    @Override
+    public int hashCode() {
+        // Same as Tuple2.hashCode() for the boxed values
+        return 31 * (31 + Integer.hashCode(v1)) + Long.hashCode(v2);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + v1 + ", " + v2 + ")";
+    }
+}
@@ -0,0 +1,20 @@
+package dk.ralu.examples.jool;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * An operation on three ints giving an int, the primitive specialisation of a {@code Function3<Integer, Integer, Integer, Integer>}.
+ */
+@FunctionalInterface
+public interface IntTernaryOperator {
+
+    int applyAsInt(int v1, int v2, int v3);
+
+    /**
+     * Binds the first argument. Unlike {@code Function3.applyPartially}, the result takes and returns unboxed ints, so it can be bound
+     * once and called without allocating.
+     */
+    default IntBinaryOperator applyPartially(int v1) {
+        return new Partial.BoundIntTernaryOperator(this, v1);
+    }
+}
@@ -0,0 +1,248 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.jooq.lambda.tuple.Range;
+
+/**
+ * An index of {@link Range}s, that finds the ranges overlapping a point or another range in O(min(n, k log n)) time, where k is the
+ * number of ranges found - instead of testing {@link Range#overlaps(org.jooq.lambda.tuple.Tuple2)} on every range.
+ * <p>
+ * The ranges are kept in a balanced (AVL) binary search tree ordered by start and end, where each node also knows the largest end in
+ * its subtree. Subtrees ending before a query starts, and nodes starting after it ends, can thus be skipped. Inserts and deletes take
+ * O(log n) time.
+ * <p>
+ * Like {@link Range}, bounds are inclusive: a range overlaps a query if it starts no later than the query ends and ends no earlier than
+ * the query starts. The same range may be inserted several times. Results are ordered by start, then end.
+ * <p>
+ * Not thread safe. See {@link LongIntervalIndex} for ranges of ints or longs without boxing.
+ */
+public final class IntervalIndex<T extends Comparable<T>> {
+
+    private Node<T> root;
+    private int size;
+    private boolean removed;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insert(Range<T> range) {
+        Objects.requireNonNull(range, "range");
+        root = insert(root, range);
+        size++;
+    }
+
+    /**
+     * Deletes one occurrence of the range.
+     *
+     * @return whether the range was in the index
+     */
+    public boolean delete(Range<T> range) {
+        removed = false;
+        root = delete(root, range);
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * The ranges containing the point.
+     */
+    public List<Range<T>> stab(T point) {
+        List<Range<T>> result = new ArrayList<>();
+        forEachOverlapping(point, point, result::add);
+        return result;
+    }
+
+    /**
+     * The ranges overlapping the given range.
+     */
+    public List<Range<T>> overlapping(Range<T> range) {
+        List<Range<T>> result = new ArrayList<>();
+        forEachOverlapping(range.v1(), range.v2(), result::add);
+        return result;
+    }
+
+    /**
+     * The intersections of the given range with each of the ranges overlapping it.
+     */
+    public List<Range<T>> intersections(Range<T> range) {
+        List<Range<T>> result = new ArrayList<>();
+        forEachOverlapping(range.v1(), range.v2(), overlapping -> result.add(new Range<>(
+                max(overlapping.v1(), range.v1()),
+                min(overlapping.v2(), range.v2()))));
+        return result;
+    }
+
+    /**
+     * Calls the action for each range overlapping the range from {@code start} to {@code end} (both inclusive), without collecting
+     * the ranges. Like for {@link Range}, a start after the end is flipped.
+     */
+    public void forEachOverlapping(T start, T end, Consumer<? super Range<T>> action) {
+        if (start.compareTo(end) > 0) {
+            visitOverlapping(root, end, start, action);
+        } else {
+            visitOverlapping(root, start, end, action);
+        }
+    }
+
+    private static <T extends Comparable<T>> void visitOverlapping(Node<T> node, T start, T end, Consumer<? super Range<T>> action) {
+        while (node != null && node.maxEnd.compareTo(start) >= 0) {
+            visitOverlapping(node.left, start, end, action);
+            if (node.range.v1().compareTo(end) > 0) {
+                return; // This node, and all nodes to its right, start after the query
+            }
+            if (node.range.v2().compareTo(start) >= 0) {
+                for (int i = 0; i < node.count; i++) {
+                    action.accept(node.range);
+                }
+            }
+            node = node.right;
+        }
+    }
+
+    private Node<T> insert(Node<T> node, Range<T> range) {
+        if (node == null) {
+            return new Node<>(range);
+        }
+        int comparison = compare(range, node.range);
+        if (comparison == 0) {
+            node.count++;
+            return node;
+        }
+        if (comparison < 0) {
+            node.left = insert(node.left, range);
+        } else {
+            node.right = insert(node.right, range);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> delete(Node<T> node, Range<T> range) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(range, node.range);
+        if (comparison < 0) {
+            node.left = delete(node.left, range);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, range);
+        } else {
+            removed = true;
+            if (node.count > 1) {
+                node.count--;
+                return node;
+            }
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.range = successor.range;
+            node.count = successor.count;
+            node.right = deleteMin(node.right);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> deleteMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        T maxEnd = node.range.v2();
+        if (node.left != null) {
+            maxEnd = max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <T extends Comparable<T>> int compare(Range<T> range1, Range<T> range2) {
+        int result = range1.v1().compareTo(range2.v1());
+        return result != 0 ? result : range1.v2().compareTo(range2.v2());
+    }
+
+    private static <T extends Comparable<T>> T max(T t1, T t2) {
+        return t1.compareTo(t2) >= 0 ? t1 : t2;
+    }
+
+    private static <T extends Comparable<T>> T min(T t1, T t2) {
+        return t1.compareTo(t2) <= 0 ? t1 : t2;
+    }
+
+    private static final class Node<T extends Comparable<T>> {
+
+        private Range<T> range;
+        private int count = 1;
+        private int height = 1;
+        private T maxEnd;
+        private Node<T> left;
+        private Node<T> right;
+
+        Node(Range<T> range) {
+            this.range = range;
+            this.maxEnd = range.v2();
+        }
+    }
+}
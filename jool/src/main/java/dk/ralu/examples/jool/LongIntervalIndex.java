@@ -0,0 +1,241 @@
+package dk.ralu.examples.jool;
+
+/**
+ * An {@link IntervalIndex} of ranges of longs (or ints), that stores the bounds unboxed and reports matches through a primitive callback,
+ * so neither indexing nor querying boxes any values.
+ * <p>
+ * Bounds are inclusive, like for {@link org.jooq.lambda.tuple.Range}, and a range given with its start after its end is flipped, also
+ * like {@link org.jooq.lambda.tuple.Range}. Not thread safe.
+ */
+public final class LongIntervalIndex {
+
+    /**
+     * Receives the ranges found by a query.
+     */
+    @FunctionalInterface
+    public interface RangeConsumer {
+
+        void accept(long start, long end);
+    }
+
+    private Node root;
+    private int size;
+    private boolean removed;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insert(long start, long end) {
+        root = insert(root, Math.min(start, end), Math.max(start, end));
+        size++;
+    }
+
+    /**
+     * Deletes one occurrence of the range.
+     *
+     * @return whether the range was in the index
+     */
+    public boolean delete(long start, long end) {
+        removed = false;
+        root = delete(root, Math.min(start, end), Math.max(start, end));
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Calls the consumer for each range containing the point.
+     */
+    public void stab(long point, RangeConsumer consumer) {
+        visitOverlapping(root, point, point, consumer);
+    }
+
+    /**
+     * Calls the consumer for each range overlapping the range from {@code start} to {@code end}.
+     */
+    public void forEachOverlapping(long start, long end, RangeConsumer consumer) {
+        visitOverlapping(root, Math.min(start, end), Math.max(start, end), consumer);
+    }
+
+    /**
+     * Calls the consumer with the intersection of the range from {@code start} to {@code end} with each range overlapping it.
+     */
+    public void forEachIntersection(long start, long end, RangeConsumer consumer) {
+        long from = Math.min(start, end);
+        long to = Math.max(start, end);
+        visitOverlapping(root, from, to, (overlappingStart, overlappingEnd) ->
+                consumer.accept(Math.max(overlappingStart, from), Math.min(overlappingEnd, to)));
+    }
+
+    public int countOverlapping(long start, long end) {
+        return countOverlapping(root, Math.min(start, end), Math.max(start, end));
+    }
+
+    private static void visitOverlapping(Node node, long start, long end, RangeConsumer consumer) {
+        while (node != null && node.maxEnd >= start) {
+            visitOverlapping(node.left, start, end, consumer);
+            if (node.start > end) {
+                return; // This node, and all nodes to its right, start after the query
+            }
+            if (node.end >= start) {
+                for (int i = 0; i < node.count; i++) {
+                    consumer.accept(node.start, node.end);
+                }
+            }
+            node = node.right;
+        }
+    }
+
+    private static int countOverlapping(Node node, long start, long end) {
+        int count = 0;
+        while (node != null && node.maxEnd >= start) {
+            count += countOverlapping(node.left, start, end);
+            if (node.start > end) {
+                return count;
+            }
+            if (node.end >= start) {
+                count += node.count;
+            }
+            node = node.right;
+        }
+        return count;
+    }
+
+    private Node insert(Node node, long start, long end) {
+        if (node == null) {
+            return new Node(start, end);
+        }
+        int comparison = compare(start, end, node);
+        if (comparison == 0) {
+            node.count++;
+            return node;
+        }
+        if (comparison < 0) {
+            node.left = insert(node.left, start, end);
+        } else {
+            node.right = insert(node.right, start, end);
+        }
+        return rebalance(node);
+    }
+
+    private Node delete(Node node, long start, long end) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(start, end, node);
+        if (comparison < 0) {
+            node.left = delete(node.left, start, end);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, start, end);
+        } else {
+            removed = true;
+            if (node.count > 1) {
+                node.count--;
+                return node;
+            }
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.start = successor.start;
+            node.end = successor.end;
+            node.count = successor.count;
+            node.right = deleteMin(node.right);
+        }
+        return rebalance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return rebalance(node);
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int compare(long start, long end, Node node) {
+        int result = Long.compare(start, node.start);
+        return result != 0 ? result : Long.compare(end, node.end);
+    }
+
+    private static final class Node {
+
+        private long start;
+        private long end;
+        private int count = 1;
+        private int height = 1;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package dk.ralu.examples.jool;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+import org.jooq.lambda.tuple.Tuple1;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.jooq.lambda.tuple.Tuple4;
+
+/**
+ * A {@link Tuple2} of a long and an object, that stores its primitive value unboxed.
+ * <p>
+ * Has the same semantics as the jOOλ tuple it corresponds to, i.e. {@link #equals(Object)}, {@link #hashCode()}, {@link #toString()}
+ * and {@link #compareTo(LongObjTuple2)} give the same results as for {@link #toTuple()} (the object is compared with nulls last).
+ * It is however never equal to a jOOλ tuple - convert with {@link #toTuple()} and {@link #from(Tuple2)} at the boundaries.
+ *
+ * @param <T2> the type of the second value
+ */
+public final class LongObjTuple2<T2> implements Comparable<LongObjTuple2<T2>>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long v1;
+    private final T2 v2;
+
+    public LongObjTuple2(long v1, T2 v2) {
+        this.v1 = v1;
+        this.v2 = v2;
+    }
+
+    public static <T2> LongObjTuple2<T2> from(Tuple2<? extends Long, ? extends T2> tuple) {
+        return new LongObjTuple2<>(tuple.v1(), tuple.v2());
+    }
+
+    public long v1() {
+        return v1;
+    }
+
+    public T2 v2() {
+        return v2;
+    }
+
+    public int degree() {
+        return 2;
+    }
+
+    public LongObjTuple2<T2> map1(LongUnaryOperator function) {
+        return new LongObjTuple2<>(function.applyAsLong(v1), v2);
+    }
+
+    public <U2> LongObjTuple2<U2> map2(Function<? super T2, ? extends U2> function) {
+        return new LongObjTuple2<>(v1, function.apply(v2));
+    }
+
+    public <T3> Tuple3<Long, T2, T3> concat(Tuple1<T3> tuple) {
+        return new Tuple3<>(v1, v2, tuple.v1());
+    }
+
+    public <T3, T4> Tuple4<Long, T2, T3, T4> concat(Tuple2<T3, T4> tuple) {
+        return new Tuple4<>(v1, v2, tuple.v1(), tuple.v2());
+    }
+
+    public Tuple2<Long, T2> toTuple() {
+        return new Tuple2<>(v1, v2);
+    }
+
+    @Override
+    public int compareTo(LongObjTuple2<T2> other) {
+        int result = Long.compare(v1, other.v1);
+        return result != 0 ? result : compareNullsLast(v2, other.v2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LongObjTuple2)) {
+            return false;
+        }
+        LongObjTuple2<?> that = (LongObjTuple2<?>) o;
+        return v1 == that.v1 && Objects.equals(v2, that.v2);
+    }
+
+    @Override
+    public int hashCode() {
+        // Same as Tuple2.hashCode() for the boxed values
+        return 31 * (31 + Long.hashCode(v1)) + ((v2 == null) ? 0 : v2.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "(" + v1 + ", " + v2 + ")";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int compareNullsLast(T t1, T t2) {
+        if (t1 == null || t2 == null) {
+            return t1 == null ? (t2 == null ? 0 : 1) : -1;
+        }
+        return ((Comparable<T>) t1).compareTo(t2);
+    }
+}
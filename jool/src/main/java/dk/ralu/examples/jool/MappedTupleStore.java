@@ -0,0 +1,275 @@
+package dk.ralu.examples.jool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.stream.LongStream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+
+/**
+ * A file of fixed size records, each holding the values of a tuple, that is read through memory mapping.
+ * <p>
+ * Reading does not copy the file onto the heap: {@link #records()} streams lightweight {@link Record} views, and a field is only
+ * decoded when it is accessed. The operating system pages the file in and out as needed, so files much larger than the heap can be
+ * processed, and a restarted job can start reading right away, without loading anything.
+ * <p>
+ * Files are written with a {@link Writer}. The file starts with a header holding the schema fingerprint and the number of records,
+ * which is updated when the writer is flushed or closed. Records written after the last flush, e.g. before a crash, are ignored.
+ * <p>
+ * Mapped memory is released when the store is garbage collected, not when it is closed.
+ */
+public final class MappedTupleStore implements Closeable {
+
+    private static final int MAGIC = 0x4A54_5331; // "JTS1"
+    private static final int HEADER_SIZE = 32;
+    private static final int COUNT_OFFSET = 12;
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+    private final TupleSchema schema;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int recordsPerSegment;
+    private final long size;
+
+    private MappedTupleStore(TupleSchema schema, FileChannel channel, MappedByteBuffer[] segments, int recordsPerSegment, long size) {
+        this.schema = schema;
+        this.channel = channel;
+        this.segments = segments;
+        this.recordsPerSegment = recordsPerSegment;
+        this.size = size;
+    }
+
+    public static MappedTupleStore open(Path file, TupleSchema schema) throws IOException {
+        return open(file, schema, MAX_SEGMENT_BYTES);
+    }
+
+    static MappedTupleStore open(Path file, TupleSchema schema, long maxSegmentBytes) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = readRecordCount(channel, schema);
+            int recordsPerSegment = (int) Math.min(Integer.MAX_VALUE, maxSegmentBytes / schema.recordSize());
+            int segmentCount = (int) ((size + recordsPerSegment - 1) / recordsPerSegment);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long firstRecord = (long) i * recordsPerSegment;
+                long records = Math.min(recordsPerSegment, size - firstRecord);
+                segments[i] = channel.map(
+                        FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstRecord * schema.recordSize(), records * schema.recordSize());
+            }
+            return new MappedTupleStore(schema, channel, segments, recordsPerSegment, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public TupleSchema schema() {
+        return schema;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public Record record(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Record " + index + " out of bounds for size " + size);
+        }
+        return new Record(segments[(int) (index / recordsPerSegment)], (int) (index % recordsPerSegment) * schema.recordSize());
+    }
+
+    /**
+     * All records, in the order they were written.
+     */
+    public Seq<Record> records() {
+        return Seq.seq(LongStream.range(0, size).mapToObj(this::record));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long readRecordCount(FileChannel channel, TupleSchema schema) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a tuple store file");
+        }
+        if (header.getInt(4) != schema.fingerprint() || header.getInt(8) != schema.recordSize()) {
+            throw new IOException("The file was written with another schema than " + schema);
+        }
+        long writtenRecords = (channel.size() - HEADER_SIZE) / schema.recordSize();
+        return Math.min(header.getLong(COUNT_OFFSET), writtenRecords);
+    }
+
+    /**
+     * A view of one record in the mapped file. Fields are decoded when accessed, and the getters for primitive fields return 0 for null
+     * fields.
+     */
+    public final class Record {
+
+        private final ByteBuffer segment;
+        private final int offset;
+
+        private Record(ByteBuffer segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public boolean isNull(int field) {
+            return schema.isNull(segment, offset, field);
+        }
+
+        public int getInt(int field) {
+            return isNull(field) ? 0 : segment.getInt(offset + schema.offset(checkType(field, TupleSchema.FieldType.INT)));
+        }
+
+        public long getLong(int field) {
+            return isNull(field) ? 0 : segment.getLong(offset + schema.offset(checkType(field, TupleSchema.FieldType.LONG)));
+        }
+
+        public double getDouble(int field) {
+            return isNull(field) ? 0 : segment.getDouble(offset + schema.offset(checkType(field, TupleSchema.FieldType.DOUBLE)));
+        }
+
+        public String getString(int field) {
+            if (!schema.fields().get(field).isString()) {
+                throw new IllegalArgumentException("Field " + field + " is not a string but: " + schema.fields().get(field));
+            }
+            return isNull(field) ? null : TupleSchema.readString(segment, offset + schema.offset(field));
+        }
+
+        /**
+         * The value of the field, boxed - Integer, Long, Double or String depending on the field type.
+         */
+        public Object get(int field) {
+            return schema.read(segment, offset, field);
+        }
+
+        public Object[] toArray() {
+            Object[] values = new Object[schema.degree()];
+            for (int field = 0; field < values.length; field++) {
+                values[field] = get(field);
+            }
+            return values;
+        }
+
+        private int checkType(int field, TupleSchema.FieldType expected) {
+            if (schema.fields().get(field) != expected) {
+                throw new IllegalArgumentException("Field " + field + " is not " + expected + " but: " + schema.fields().get(field));
+            }
+            return field;
+        }
+
+        @Override
+        public String toString() {
+            return Seq.of(toArray()).toString(", ", "(", ")");
+        }
+    }
+
+    /**
+     * Appends tuples to a tuple store file.
+     */
+    public static final class Writer implements Closeable {
+
+        private static final int BUFFERED_RECORDS = 1024;
+
+        private final TupleSchema schema;
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long count;
+
+        private Writer(TupleSchema schema, FileChannel channel, long count) {
+            this.schema = schema;
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(schema.recordSize() * BUFFERED_RECORDS);
+            this.count = count;
+        }
+
+        /**
+         * Creates a new, empty file, replacing the file if it exists.
+         */
+        public static Writer create(Path file, TupleSchema schema) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Writer writer = new Writer(schema, channel, 0);
+            writer.writeHeader();
+            return writer;
+        }
+
+        /**
+         * Continues writing after the records already in the file.
+         */
+        public static Writer append(Path file, TupleSchema schema) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                return new Writer(schema, channel, readRecordCount(channel, schema));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public void write(Tuple tuple) throws IOException {
+            write(tuple.toArray());
+        }
+
+        public void write(Object... values) throws IOException {
+            Objects.requireNonNull(values, "values");
+            if (!buffer.hasRemaining()) {
+                writeBuffer();
+            }
+            schema.write(values, buffer);
+            count++;
+        }
+
+        /**
+         * Writes the buffered records, and makes them (and all earlier records) visible to readers opened afterwards.
+         */
+        public void flush() throws IOException {
+            writeBuffer();
+            writeHeader();
+            channel.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            long bufferedRecords = buffer.remaining() / schema.recordSize();
+            long position = HEADER_SIZE + (count - bufferedRecords) * schema.recordSize();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        private void writeHeader() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(0, MAGIC);
+            header.putInt(4, schema.fingerprint());
+            header.putInt(8, schema.recordSize());
+            header.putLong(COUNT_OFFSET, count);
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        }
+    }
+}
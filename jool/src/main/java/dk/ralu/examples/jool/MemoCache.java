@@ -0,0 +1,301 @@
+package dk.ralu.examples.jool;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A thread safe cache of computed values, used by {@link Memoize}.
+ * <p>
+ * The cache is split in stripes by the hash of the key, each with its own lock, so threads looking up keys in different stripes do not
+ * contend. The lock is only held to look up or store an entry, not while computing a missing value: a placeholder is stored for the
+ * key, and other threads looking up the key wait for its value, so a value is never computed twice concurrently, and a computation
+ * can look up other keys, e.g. in a recursive function, without blocking the rest of the stripe or deadlocking.
+ * <p>
+ * Entries can be evicted by size and by age. With a maximum size, each stripe keeps its share of the entries, and evicts the least
+ * recently used entries when full. Placeholders are not evicted, so a stripe can hold more entries while values are computed, and
+ * there are no more stripes than the maximum size, so each stripe holds at least one entry. With an expiry, entries older than the expiry are computed again on the next lookup. Null keys and
+ * values are allowed, and exceptions thrown by the computation are not cached.
+ */
+public final class MemoCache<K, V> {
+
+    private final Stripe<K, V>[] stripes;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private MemoCache(Builder builder) {
+        int stripeCount = Integer.highestOneBit(builder.stripes * 2 - 1); // Round up to a power of two
+        stripeCount = (int) Math.min(stripeCount, Long.highestOneBit(builder.maximumSize));
+        int maximumPerStripe = builder.maximumSize == Long.MAX_VALUE
+                ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, Math.max(1, (builder.maximumSize + stripeCount - 1) / stripeCount));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(maximumPerStripe, evictions);
+        }
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.ticker = builder.ticker;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the cached value of the key, computing and caching it first if it is missing or expired.
+     * <p>
+     * The value is computed by the calling thread without holding any lock, while other threads looking up the same key wait for it.
+     * If the computation throws, those threads get the same exception, and the key is computed again on the next lookup. A computation
+     * that looks up its own key fails with an {@link IllegalStateException}, rather than waiting for itself.
+     */
+    public V get(K key, Function<? super K, ? extends V> compute) {
+        Stripe<K, V> stripe = stripe(key);
+        CachedValue<V> cached;
+        CachedValue<V> placeholder = null;
+        synchronized (stripe) {
+            cached = stripe.get(key);
+            if (cached != null && cached.isDone() && isExpired(cached)) {
+                stripe.remove(key);
+                evictions.increment();
+                cached = null;
+            }
+            if (cached == null) {
+                placeholder = new CachedValue<>(Thread.currentThread());
+                stripe.put(key, placeholder);
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+        }
+        if (placeholder == null) {
+            return cached.await();
+        }
+        V value;
+        try {
+            value = compute.apply(key);
+        } catch (Throwable e) {
+            synchronized (stripe) {
+                stripe.remove(key, placeholder);
+            }
+            placeholder.future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (stripe) {
+            if (stripe.get(key) == placeholder) { // Not evicted or invalidated while computing
+                stripe.put(key, new CachedValue<>(value, expireAfterWriteNanos == Long.MAX_VALUE ? 0 : ticker.getAsLong()));
+            }
+        }
+        placeholder.future.complete(value);
+        return value;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public void invalidateAll() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Stripe<K, V> stripe(K key) {
+        int hash = Objects.hashCode(key);
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    private boolean isExpired(CachedValue<V> cached) {
+        return expireAfterWriteNanos != Long.MAX_VALUE && ticker.getAsLong() - cached.writtenAt >= expireAfterWriteNanos;
+    }
+
+    /**
+     * Configures a {@link MemoCache}. By default, the cache is unbounded, entries never expire, and it has 16 stripes.
+     */
+    public static final class Builder {
+
+        private long maximumSize = Long.MAX_VALUE;
+        private long expireAfterWriteNanos = Long.MAX_VALUE;
+        private int stripes = 16;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {
+        }
+
+        public Builder maximumSize(long maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("Maximum size must be positive, but was: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder expireAfterWrite(Duration expiry) {
+            if (expiry.isNegative() || expiry.isZero()) {
+                throw new IllegalArgumentException("Expiry must be positive, but was: " + expiry);
+            }
+            this.expireAfterWriteNanos = expiry.toNanos();
+            return this;
+        }
+
+        /**
+         * The number of stripes, rounded up to a power of two, but no more than the maximum size.
+         */
+        public Builder stripes(int stripes) {
+            if (stripes < 1 || stripes > 1 << 16) {
+                throw new IllegalArgumentException("Stripes must be 1 to 65536, but was: " + stripes);
+            }
+            this.stripes = stripes;
+            return this;
+        }
+
+        /**
+         * The source of time, in nanoseconds, used for expiry. Defaults to {@link System#nanoTime()}.
+         */
+        public Builder ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker");
+            return this;
+        }
+
+        public <K, V> MemoCache<K, V> build() {
+            return new MemoCache<>(this);
+        }
+    }
+
+    /**
+     * The number of lookups that found a cached value, that computed the value, and the number of entries evicted because the cache was
+     * full or the entry had expired.
+     */
+    public static final class Stats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long hitCount() {
+            return hitCount;
+        }
+
+        public long missCount() {
+            return missCount;
+        }
+
+        public long evictionCount() {
+            return evictionCount;
+        }
+
+        public double hitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "}";
+        }
+    }
+
+    /**
+     * A computed value, or a placeholder for a value being computed by the owner thread, which other threads wait for.
+     */
+    private static final class CachedValue<V> {
+
+        private final CompletableFuture<V> future;
+        private final Thread owner;
+        private final long writtenAt;
+
+        CachedValue(Thread owner) {
+            this.future = new CompletableFuture<>();
+            this.owner = owner;
+            this.writtenAt = 0;
+        }
+
+        CachedValue(V value, long writtenAt) {
+            this.future = CompletableFuture.completedFuture(value);
+            this.owner = null;
+            this.writtenAt = writtenAt;
+        }
+
+        boolean isDone() {
+            return owner == null;
+        }
+
+        V await() {
+            if (owner == Thread.currentThread()) {
+                throw new IllegalStateException("Recursive computation of the same key");
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A map in access order, so the eldest entry is the least recently used.
+     */
+    private static final class Stripe<K, V> extends LinkedHashMap<K, CachedValue<V>> {
+
+        private final int maximumSize;
+        private final LongAdder evictions;
+
+        Stripe(int maximumSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Removes the least recently used computed values, until the stripe is within its maximum size. Placeholders are skipped, as
+         * removing one would let another thread compute the same value concurrently.
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+            Iterator<CachedValue<V>> values = values().iterator();
+            while (size() > maximumSize && values.hasNext()) {
+                if (values.next().isDone()) {
+                    values.remove();
+                    evictions.increment();
+                }
+            }
+            return false;
+        }
+    }
+}
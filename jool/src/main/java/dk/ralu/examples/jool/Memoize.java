@@ -0,0 +1,87 @@
+package dk.ralu.examples.jool;
+
+import java.util.Objects;
+import org.jooq.lambda.function.Function0;
+import org.jooq.lambda.function.Function1;
+import org.jooq.lambda.function.Function2;
+import org.jooq.lambda.function.Function3;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+
+/**
+ * Memoizing wrappers for jOOλ functions.
+ * <p>
+ * A {@link Function0} is memoized by computing its value on the first call only, which also makes an expression tree built with
+ * {@link Function3#applyPartially(Object)} and friends evaluate once. Functions with arguments are memoized with a {@link MemoCache},
+ * keyed on the argument, or on a tuple of the arguments - pass a cache built with a maximum size or an expiry to bound it, and keep a
+ * reference to it to read its {@link MemoCache#stats()}.
+ */
+public final class Memoize {
+
+    private Memoize() {
+    }
+
+    /**
+     * A function returning the value of the given function, which is computed on the first call. If the computation throws, the
+     * exception is thrown to the caller, and the next call tries again.
+     */
+    public static <R> Function0<R> function0(Function0<R> function) {
+        Objects.requireNonNull(function, "function");
+        return new Function0<R>() {
+
+            private volatile boolean computed;
+            private R value;
+
+            @Override
+            public R get() {
+                if (!computed) {
+                    synchronized (this) {
+                        if (!computed) {
+                            value = function.apply();
+                            computed = true;
+                        }
+                    }
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Memoizes with an unbounded cache.
+     */
+    public static <T1, R> Function1<T1, R> function1(Function1<T1, R> function) {
+        return function1(function, MemoCache.builder().build());
+    }
+
+    public static <T1, R> Function1<T1, R> function1(Function1<T1, R> function, MemoCache<T1, R> cache) {
+        Objects.requireNonNull(function, "function");
+        return v1 -> cache.get(v1, function);
+    }
+
+    /**
+     * Memoizes with an unbounded cache.
+     */
+    public static <T1, T2, R> Function2<T1, T2, R> function2(Function2<T1, T2, R> function) {
+        return function2(function, MemoCache.builder().build());
+    }
+
+    public static <T1, T2, R> Function2<T1, T2, R> function2(Function2<T1, T2, R> function, MemoCache<Tuple2<T1, T2>, R> cache) {
+        Objects.requireNonNull(function, "function");
+        return (v1, v2) -> cache.get(Tuple.tuple(v1, v2), function::apply);
+    }
+
+    /**
+     * Memoizes with an unbounded cache.
+     */
+    public static <T1, T2, T3, R> Function3<T1, T2, T3, R> function3(Function3<T1, T2, T3, R> function) {
+        return function3(function, MemoCache.builder().build());
+    }
+
+    public static <T1, T2, T3, R> Function3<T1, T2, T3, R> function3(
+            Function3<T1, T2, T3, R> function, MemoCache<Tuple3<T1, T2, T3>, R> cache) {
+        Objects.requireNonNull(function, "function");
+        return (v1, v2, v3) -> cache.get(Tuple.tuple(v1, v2, v3), function::apply);
+    }
+}
@@ -0,0 +1,294 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+
+/**
+ * Equi-joins of two sequences, that are both sorted by their join key.
+ * <p>
+ * The two inputs are advanced together, like in the merge step of a merge sort, so the joins are linear and lazy, and only the right
+ * rows sharing the current key are kept in memory (they are needed, if several left rows have that key). This makes it possible to
+ * join inputs that are far bigger than the heap, and even infinite ones.
+ * <p>
+ * Rows are matched, when the comparator finds their keys equal. The keys of each input must be in ascending order according to the
+ * comparator - an {@link IllegalStateException} is thrown, as soon as a key is found to be out of order. The overloads without a
+ * comparator use the natural order of the keys, with nulls last (like jOOλ's tuples).
+ * <p>
+ * The result contains the same tuples as the corresponding {@link HashJoin}, and is in key order. Within a key, the matches are in
+ * left order, and for each left row, in right order.
+ */
+public final class MergeJoin {
+
+    private MergeJoin() {
+    }
+
+    public static <L, R, K extends Comparable<? super K>> Seq<Tuple2<L, R>> innerJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return innerJoin(left, right, leftKey, rightKey, naturalOrderNullsLast());
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> innerJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            Comparator<? super K> keyComparator) {
+        return join(left, right, leftKey, rightKey, keyComparator, false, false);
+    }
+
+    public static <L, R, K extends Comparable<? super K>> Seq<Tuple2<L, R>> leftOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return leftOuterJoin(left, right, leftKey, rightKey, naturalOrderNullsLast());
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> leftOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            Comparator<? super K> keyComparator) {
+        return join(left, right, leftKey, rightKey, keyComparator, true, false);
+    }
+
+    public static <L, R, K extends Comparable<? super K>> Seq<Tuple2<L, R>> rightOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return rightOuterJoin(left, right, leftKey, rightKey, naturalOrderNullsLast());
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> rightOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            Comparator<? super K> keyComparator) {
+        return join(left, right, leftKey, rightKey, keyComparator, false, true);
+    }
+
+    public static <L, R, K extends Comparable<? super K>> Seq<Tuple2<L, R>> fullOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return fullOuterJoin(left, right, leftKey, rightKey, naturalOrderNullsLast());
+    }
+
+    public static <L, R, K> Seq<Tuple2<L, R>> fullOuterJoin(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            Comparator<? super K> keyComparator) {
+        return join(left, right, leftKey, rightKey, keyComparator, true, true);
+    }
+
+    private static <K extends Comparable<? super K>> Comparator<K> naturalOrderNullsLast() {
+        return Comparator.nullsLast(Comparator.<K>naturalOrder());
+    }
+
+    private static <L, R, K> Seq<Tuple2<L, R>> join(
+            Iterable<? extends L> left, Iterable<? extends R> right,
+            Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            Comparator<? super K> keyComparator,
+            boolean keepUnmatchedLeft, boolean keepUnmatchedRight) {
+
+        Objects.requireNonNull(leftKey, "leftKey");
+        Objects.requireNonNull(rightKey, "rightKey");
+        Objects.requireNonNull(keyComparator, "keyComparator");
+
+        return Seq.seq(new MergeIterator<L, R, K>(
+                left.iterator(), right.iterator(), leftKey, rightKey, keyComparator, keepUnmatchedLeft, keepUnmatchedRight));
+    }
+
+    private static final class MergeIterator<L, R, K> implements Iterator<Tuple2<L, R>> {
+
+        private final Iterator<? extends L> leftRows;
+        private final Iterator<? extends R> rightRows;
+        private final Function<? super L, ? extends K> leftKey;
+        private final Function<? super R, ? extends K> rightKey;
+        private final Comparator<? super K> keyComparator;
+        private final boolean keepUnmatchedLeft;
+        private final boolean keepUnmatchedRight;
+
+        // The left row currently being joined
+        private L leftRow;
+        private K leftRowKey;
+        private boolean hasLeftRow;
+        private boolean hasPreviousLeftKey;
+
+        // The next right row, that has not yet been put in a group
+        private R rightHead;
+        private K rightHeadKey;
+        private boolean hasRightHead;
+        private boolean rightStarted;
+
+        // The right rows sharing the key of the current left row (or of the previous left rows)
+        private final List<R> group = new ArrayList<>();
+        private K groupKey;
+        private boolean hasGroup;
+        private boolean groupMatched;
+        private int groupIndex;
+        private boolean emittingMatches;
+        private boolean emittingUnmatchedGroup;
+
+        private Tuple2<L, R> next;
+
+        MergeIterator(
+                Iterator<? extends L> leftRows, Iterator<? extends R> rightRows,
+                Function<? super L, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+                Comparator<? super K> keyComparator,
+                boolean keepUnmatchedLeft, boolean keepUnmatchedRight) {
+            this.leftRows = leftRows;
+            this.rightRows = rightRows;
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
+            this.keyComparator = keyComparator;
+            this.keepUnmatchedLeft = keepUnmatchedLeft;
+            this.keepUnmatchedRight = keepUnmatchedRight;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Tuple2<L, R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Tuple2<L, R> result = next;
+            next = null;
+            return result;
+        }
+
+        private Tuple2<L, R> advance() {
+            if (!rightStarted) {
+                rightStarted = true;
+                fetchRightHead();
+            }
+            while (true) {
+                if (emittingMatches) {
+                    if (groupIndex < group.size()) {
+                        return new Tuple2<>(leftRow, group.get(groupIndex++));
+                    }
+                    emittingMatches = false;
+                    hasLeftRow = false;
+                    leftRow = null;
+                }
+                if (emittingUnmatchedGroup) {
+                    if (groupIndex < group.size()) {
+                        return new Tuple2<>(null, group.get(groupIndex++));
+                    }
+                    emittingUnmatchedGroup = false;
+                    clearGroup();
+                }
+                if (!hasLeftRow) {
+                    if (!leftRows.hasNext()) {
+                        return drainRight();
+                    }
+                    fetchLeftRow();
+                }
+                if (hasGroup) {
+                    if (keyComparator.compare(groupKey, leftRowKey) == 0) {
+                        groupMatched = true;
+                        emittingMatches = true;
+                        groupIndex = 0;
+                        continue;
+                    }
+                    if (keepUnmatchedRight && !groupMatched) {
+                        emittingUnmatchedGroup = true;
+                        groupIndex = 0;
+                        continue;
+                    }
+                    clearGroup();
+                }
+                if (hasRightHead) {
+                    int comparison = keyComparator.compare(rightHeadKey, leftRowKey);
+                    if (comparison < 0) {
+                        R skippedRow = takeRightHead();
+                        if (keepUnmatchedRight) {
+                            return new Tuple2<>(null, skippedRow);
+                        }
+                        continue;
+                    }
+                    if (comparison == 0) {
+                        fillGroup();
+                        continue;
+                    }
+                }
+                L unmatchedRow = leftRow;
+                hasLeftRow = false;
+                leftRow = null;
+                if (keepUnmatchedLeft) {
+                    return new Tuple2<>(unmatchedRow, null);
+                }
+            }
+        }
+
+        private Tuple2<L, R> drainRight() {
+            if (!keepUnmatchedRight) {
+                return null;
+            }
+            if (hasGroup && !groupMatched && groupIndex < group.size()) {
+                return new Tuple2<>(null, group.get(groupIndex++));
+            }
+            clearGroup();
+            return hasRightHead ? new Tuple2<>(null, takeRightHead()) : null;
+        }
+
+        private void fetchLeftRow() {
+            L row = leftRows.next();
+            K key = leftKey.apply(row);
+            if (hasPreviousLeftKey && keyComparator.compare(leftRowKey, key) > 0) {
+                throw new IllegalStateException("Left input is not sorted by key: " + key + " comes after " + leftRowKey);
+            }
+            leftRow = row;
+            leftRowKey = key;
+            hasLeftRow = true;
+            hasPreviousLeftKey = true;
+        }
+
+        private void fillGroup() {
+            groupKey = rightHeadKey;
+            hasGroup = true;
+            groupMatched = false;
+            groupIndex = 0;
+            while (hasRightHead && keyComparator.compare(rightHeadKey, groupKey) == 0) {
+                group.add(takeRightHead());
+            }
+        }
+
+        private void clearGroup() {
+            group.clear();
+            groupKey = null;
+            hasGroup = false;
+            groupMatched = false;
+            groupIndex = 0;
+        }
+
+        private R takeRightHead() {
+            R row = rightHead;
+            fetchRightHead();
+            return row;
+        }
+
+        private void fetchRightHead() {
+            if (!rightRows.hasNext()) {
+                rightHead = null;
+                hasRightHead = false;
+                return;
+            }
+            R row = rightRows.next();
+            K key = rightKey.apply(row);
+            if (hasRightHead && keyComparator.compare(rightHeadKey, key) > 0) {
+                throw new IllegalStateException("Right input is not sorted by key: " + key + " comes after " + rightHeadKey);
+            }
+            rightHead = row;
+            rightHeadKey = key;
+            hasRightHead = true;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dk.ralu.examples.jool;
+
+/**
+ * A function of an object and two ints, the primitive specialisation of a {@code Function3<T1, Integer, Integer, R>}.
+ */
+@FunctionalInterface
+public interface ObjIntIntFunction<T1, R> {
+
+    R apply(T1 v1, int v2, int v3);
+
+    /**
+     * Binds the first argument, giving a function of the two ints that can be bound once and called without boxing them.
+     */
+    default IntIntFunction<R> applyPartially(T1 v1) {
+        return new Partial.BoundObjIntIntFunction<>(this, v1);
+    }
+}
@@ -0,0 +1,173 @@
+package dk.ralu.examples.jool;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Group by on a fork/join pool.
+ * <p>
+ * The rows are split into chunks, and each worker groups its chunk into a map of its own, so the workers never touch shared state. The
+ * partial maps are then merged pairwise as the forked tasks are joined. The counterpart of {@link org.jooq.lambda.Seq#groupBy(Function)},
+ * which groups everything on a single thread.
+ * <p>
+ * Besides grouping into lists, the rows of each group can be reduced by a {@link Collector}, e.g. to count or sum them without
+ * keeping the rows of the groups in memory ({@link #countBy(List, Function, ForkJoinPool)} and
+ * {@link #sumBy(List, Function, ToLongFunction, ForkJoinPool)} do so without boxing each step).
+ * <p>
+ * The rows must be in a {@link List}, preferably a random access one, so it can be split cheaply. Like
+ * {@link Collectors#groupingBy(Function)}, null keys are not allowed, and the rows of each group are in the order of the input. The
+ * methods without a pool use the {@link ForkJoinPool#commonPool() common pool}.
+ */
+public final class ParallelGroupBy {
+
+    private static final int MIN_CHUNK_SIZE = 4096;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private ParallelGroupBy() {
+    }
+
+    public static <T, K> Map<K, List<T>> groupBy(List<? extends T> rows, Function<? super T, ? extends K> classifier) {
+        return groupBy(rows, classifier, ForkJoinPool.commonPool());
+    }
+
+    public static <T, K> Map<K, List<T>> groupBy(List<? extends T> rows, Function<? super T, ? extends K> classifier, ForkJoinPool pool) {
+        return groupBy(rows, classifier, Collectors.toList(), pool);
+    }
+
+    public static <T, K> Map<K, Long> countBy(List<? extends T> rows, Function<? super T, ? extends K> classifier) {
+        return countBy(rows, classifier, ForkJoinPool.commonPool());
+    }
+
+    public static <T, K> Map<K, Long> countBy(List<? extends T> rows, Function<? super T, ? extends K> classifier, ForkJoinPool pool) {
+        return groupBy(rows, classifier, summingLong(row -> 1L), pool);
+    }
+
+    public static <T, K> Map<K, Long> sumBy(
+            List<? extends T> rows, Function<? super T, ? extends K> classifier, ToLongFunction<? super T> value) {
+        return sumBy(rows, classifier, value, ForkJoinPool.commonPool());
+    }
+
+    public static <T, K> Map<K, Long> sumBy(
+            List<? extends T> rows, Function<? super T, ? extends K> classifier, ToLongFunction<? super T> value, ForkJoinPool pool) {
+        return groupBy(rows, classifier, summingLong(value), pool);
+    }
+
+    public static <T, K, A, D> Map<K, D> groupBy(
+            List<? extends T> rows, Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+        return groupBy(rows, classifier, downstream, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Groups the rows, and reduces the rows of each group with the downstream collector.
+     */
+    public static <T, K, A, D> Map<K, D> groupBy(
+            List<? extends T> rows, Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream,
+            ForkJoinPool pool) {
+
+        Objects.requireNonNull(classifier, "classifier");
+        Objects.requireNonNull(downstream, "downstream");
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, rows.size() / (pool.getParallelism() * CHUNKS_PER_WORKER) + 1);
+        Map<K, A> accumulated = pool.invoke(new GroupTask<>(rows, 0, rows.size(), chunkSize, classifier, downstream));
+        return finish(accumulated, downstream);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, A, D> Map<K, D> finish(Map<K, A> accumulated, Collector<?, A, D> downstream) {
+        if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+            return (Map<K, D>) accumulated;
+        }
+        Function<A, D> finisher = downstream.finisher();
+        Map<K, Object> result = (Map<K, Object>) accumulated;
+        result.replaceAll((key, container) -> finisher.apply((A) container));
+        return (Map<K, D>) result;
+    }
+
+    /**
+     * Like {@link Collectors#summingLong(ToLongFunction)}, but accumulates into a primitive long.
+     */
+    private static <T> Collector<T, long[], Long> summingLong(ToLongFunction<? super T> value) {
+        return Collector.of(
+                () -> new long[1],
+                (sum, row) -> sum[0] += value.applyAsLong(row),
+                (sum1, sum2) -> {
+                    sum1[0] += sum2[0];
+                    return sum1;
+                },
+                sum -> sum[0]);
+    }
+
+    private static final class GroupTask<T, K, A> extends RecursiveTask<Map<K, A>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends T> rows;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Function<? super T, ? extends K> classifier;
+        private final Collector<? super T, A, ?> downstream;
+
+        GroupTask(
+                List<? extends T> rows, int from, int to, int chunkSize,
+                Function<? super T, ? extends K> classifier, Collector<? super T, A, ?> downstream) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.classifier = classifier;
+            this.downstream = downstream;
+        }
+
+        @Override
+        protected Map<K, A> compute() {
+            if (to - from <= chunkSize) {
+                return groupChunk();
+            }
+            int middle = (from + to) >>> 1;
+            GroupTask<T, K, A> leftTask = new GroupTask<>(rows, from, middle, chunkSize, classifier, downstream);
+            GroupTask<T, K, A> rightTask = new GroupTask<>(rows, middle, to, chunkSize, classifier, downstream);
+            leftTask.fork();
+            Map<K, A> right = rightTask.compute();
+            Map<K, A> left = leftTask.join();
+            return merge(left, right);
+        }
+
+        private Map<K, A> groupChunk() {
+            Supplier<A> supplier = downstream.supplier();
+            BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+            Map<K, A> groups = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                T row = rows.get(i);
+                K key = Objects.requireNonNull(classifier.apply(row), "element cannot be mapped to a null key");
+                A container = groups.get(key);
+                if (container == null) {
+                    container = supplier.get();
+                    groups.put(key, container);
+                }
+                accumulator.accept(container, row);
+            }
+            return groups;
+        }
+
+        /**
+         * Merges the right partial result into the left one, so the rows of each group stay in input order.
+         */
+        private Map<K, A> merge(Map<K, A> left, Map<K, A> right) {
+            BinaryOperator<A> combiner = downstream.combiner();
+            right.forEach((key, rightContainer) -> left.merge(key, rightContainer, combiner));
+            return left;
+        }
+    }
+}
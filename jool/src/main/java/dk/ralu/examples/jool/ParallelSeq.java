@@ -0,0 +1,241 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+
+/**
+ * A parallel counterpart of {@link Seq}, for pipelines where the work per row, not the reading of the rows, is the bottleneck.
+ * <p>
+ * {@link Seq} is always sequential. Here the operations are run by a parallel {@link Stream}, which splits the rows with the
+ * spliterator of the source collection, and processes the splits on a fork/join pool. The terminal operations are run as a task in the
+ * chosen pool, so the stream uses the workers of that pool instead of the common pool (a fork/join task that runs a parallel stream
+ * forks its subtasks in its own pool).
+ * <p>
+ * The mode decides whether the order of the rows matters:
+ * <ul>
+ * <li>In ordered mode, the default, the results are the same, and in the same order, as with the corresponding {@link Seq} operations
+ * <li>In unordered mode, rows may come out in any order, which saves the buffering and merging needed to restore the order, e.g. in
+ * {@link #limit(long)} and {@link #distinct()}, and lets {@link #groupBy(Function)} fill a single concurrent map
+ * </ul>
+ * Like a {@link Stream}, an instance can only be consumed once, and nothing is run before a terminal operation is called.
+ */
+public final class ParallelSeq<T> {
+
+    private final Stream<T> stream;
+    private final ForkJoinPool pool;
+    private final boolean ordered;
+    private final List<HashTable<?, ?>> hashTables; // Of the joins, built before the stream is run
+
+    private ParallelSeq(Stream<T> stream, ForkJoinPool pool, boolean ordered, List<HashTable<?, ?>> hashTables) {
+        this.stream = stream;
+        this.pool = pool;
+        this.ordered = ordered;
+        this.hashTables = hashTables;
+    }
+
+    public static <T> ParallelSeq<T> of(Collection<? extends T> rows) {
+        return of(rows, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * The rows of the collection, which should split well, like an {@link ArrayList} or an array backed list.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ParallelSeq<T> of(Collection<? extends T> rows, ForkJoinPool pool) {
+        return new ParallelSeq<>((Stream<T>) rows.parallelStream(), Objects.requireNonNull(pool, "pool"), true, Collections.emptyList());
+    }
+
+    /**
+     * Lets the rows come out in any order.
+     */
+    public ParallelSeq<T> unordered() {
+        return new ParallelSeq<>(stream.unordered(), pool, false, hashTables);
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Runs the terminal operation in the given pool instead.
+     */
+    public ParallelSeq<T> on(ForkJoinPool pool) {
+        return new ParallelSeq<>(stream, Objects.requireNonNull(pool, "pool"), ordered, hashTables);
+    }
+
+    public ParallelSeq<T> filter(Predicate<? super T> predicate) {
+        return new ParallelSeq<>(stream.filter(predicate), pool, ordered, hashTables);
+    }
+
+    public <R> ParallelSeq<R> map(Function<? super T, ? extends R> mapper) {
+        return new ParallelSeq<>(stream.map(mapper), pool, ordered, hashTables);
+    }
+
+    public <R> ParallelSeq<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper) {
+        return new ParallelSeq<>(stream.flatMap(mapper), pool, ordered, hashTables);
+    }
+
+    public ParallelSeq<T> distinct() {
+        return new ParallelSeq<>(stream.distinct(), pool, ordered, hashTables);
+    }
+
+    public ParallelSeq<T> limit(long maxSize) {
+        return new ParallelSeq<>(stream.limit(maxSize), pool, ordered, hashTables);
+    }
+
+    public ParallelSeq<T> append(Collection<? extends T> other) {
+        return append(of(other, pool));
+    }
+
+    public ParallelSeq<T> append(ParallelSeq<? extends T> other) {
+        Stream<T> appended = Stream.concat(stream, other.stream);
+        List<HashTable<?, ?>> tables = new ArrayList<>(hashTables);
+        tables.addAll(other.hashTables);
+        return new ParallelSeq<>(ordered && other.ordered ? appended : appended.unordered(), pool, ordered && other.ordered, tables);
+    }
+
+    /**
+     * Joins each row with the rows of the right side with an equal key, like {@link HashJoin#innerJoin}, where the right side is hashed.
+     * The hash table is built, in parallel, when the terminal operation is called, before the rows are joined.
+     */
+    public <R, K> ParallelSeq<Tuple2<T, R>> innerJoin(
+            Collection<? extends R> right, Function<? super T, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return join(right, leftKey, rightKey, false);
+    }
+
+    /**
+     * Like {@link #innerJoin(Collection, Function, Function)}, but keeps the rows without a match, paired with null.
+     */
+    public <R, K> ParallelSeq<Tuple2<T, R>> leftOuterJoin(
+            Collection<? extends R> right, Function<? super T, ? extends K> leftKey, Function<? super R, ? extends K> rightKey) {
+        return join(right, leftKey, rightKey, true);
+    }
+
+    private <R, K> ParallelSeq<Tuple2<T, R>> join(
+            Collection<? extends R> right, Function<? super T, ? extends K> leftKey, Function<? super R, ? extends K> rightKey,
+            boolean keepUnmatchedLeft) {
+
+        Objects.requireNonNull(leftKey, "leftKey");
+        Objects.requireNonNull(rightKey, "rightKey");
+
+        HashTable<K, R> table = new HashTable<>(right, rightKey);
+        List<HashTable<?, ?>> tables = new ArrayList<>(hashTables);
+        tables.add(table);
+        return new ParallelSeq<>(stream.flatMap(leftRow -> {
+            List<R> matches = table.get().getOrDefault(leftKey.apply(leftRow), Collections.emptyList());
+            if (matches.isEmpty()) {
+                return keepUnmatchedLeft ? Stream.of(new Tuple2<>(leftRow, null)) : Stream.empty();
+            }
+            return matches.stream().map(rightRow -> new Tuple2<>(leftRow, rightRow));
+        }), pool, ordered, tables);
+    }
+
+    public <R, A> R collect(Collector<? super T, A, R> collector) {
+        return run(() -> stream.collect(collector));
+    }
+
+    public List<T> toList() {
+        return collect(Collectors.toList());
+    }
+
+    /**
+     * Collects the rows in parallel, and returns them as a sequential {@link Seq}.
+     */
+    public Seq<T> toSeq() {
+        return Seq.seq(toList());
+    }
+
+    public long count() {
+        return run(stream::count);
+    }
+
+    /**
+     * Groups the rows into lists, in the order of the rows in ordered mode.
+     */
+    public <K> Map<K, List<T>> groupBy(Function<? super T, ? extends K> classifier) {
+        return groupBy(classifier, Collectors.toList());
+    }
+
+    /**
+     * Groups the rows, and reduces the rows of each group with the downstream collector. Each split is grouped into a map of its own,
+     * and the maps are merged, like in {@link ParallelGroupBy}, or in unordered mode, all rows are grouped into one concurrent map.
+     */
+    public <K, A, D> Map<K, D> groupBy(Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+        if (ordered) {
+            return collect(Collectors.groupingBy(classifier, downstream));
+        }
+        return collect(Collectors.groupingByConcurrent(classifier, downstream));
+    }
+
+    private <R> R run(Supplier<R> terminalOperation) {
+        Supplier<R> task = () -> {
+            hashTables.forEach(HashTable::get);
+            return terminalOperation.get();
+        };
+        if (ForkJoinTask.getPool() == pool) {
+            return task.get(); // Already running in the pool
+        }
+        return pool.submit(task::get).join();
+    }
+
+    /**
+     * The rows of the right side of a join by key, which is built once, before the stream is run.
+     */
+    private static final class HashTable<K, R> {
+
+        private final Collection<? extends R> rows;
+        private final Function<? super R, ? extends K> key;
+        private volatile Map<K, List<R>> table;
+
+        HashTable(Collection<? extends R> rows, Function<? super R, ? extends K> key) {
+            this.rows = rows;
+            this.key = key;
+        }
+
+        Map<K, List<R>> get() {
+            Map<K, List<R>> result = table;
+            if (result == null) {
+                synchronized (this) {
+                    result = table;
+                    if (result == null) {
+                        result = build();
+                        table = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Groups the rows by key, in parallel, keeping the rows of each key in order. Unlike {@link Collectors#groupingBy(Function)},
+         * null keys are allowed, as in {@link HashJoin}.
+         */
+        private Map<K, List<R>> build() {
+            return rows.parallelStream().collect(Collector.<R, Map<K, List<R>>>of(
+                    HashMap::new,
+                    (groups, row) -> groups.computeIfAbsent(key.apply(row), k -> new ArrayList<>()).add(row),
+                    (left, right) -> {
+                        right.forEach((k, rightRows) -> left.merge(k, rightRows, (leftRows, moreRows) -> {
+                            leftRows.addAll(moreRows);
+                            return leftRows;
+                        }));
+                        return left;
+                    }));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dk.ralu.examples.jool;
+
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import org.jooq.lambda.function.Function1;
+import org.jooq.lambda.function.Function2;
+import org.jooq.lambda.function.Function3;
+
+/**
+ * Partial application with bound functions that are meant to be created once and reused.
+ * <p>
+ * jOOλ's {@code applyPartially} returns a new lambda on each call, and passing the remaining arguments as a tuple allocates the tuple.
+ * The bound functions here are small final classes holding the function and the bound arguments, so a call site only ever sees one
+ * class and the call is monomorphic. Bind once, e.g. in a field, and calling the bound function allocates nothing besides the boxing
+ * of its arguments. For ints, {@link IntTernaryOperator#applyPartially(int)} and {@link ObjIntIntFunction#applyPartially(Object)} avoid
+ * the boxing as well.
+ */
+public final class Partial {
+
+    private Partial() {
+    }
+
+    public static <T1, T2, R> Bound2<T1, T2, R> bind(Function2<T1, T2, R> function, T1 v1) {
+        return new Bound2<>(function, v1);
+    }
+
+    public static <T1, T2, T3, R> Bound3<T1, T2, T3, R> bind(Function3<T1, T2, T3, R> function, T1 v1) {
+        return new Bound3<>(function, v1);
+    }
+
+    public static <T1, T2, T3, R> Bound3Twice<T1, T2, T3, R> bind(Function3<T1, T2, T3, R> function, T1 v1, T2 v2) {
+        return new Bound3Twice<>(function, v1, v2);
+    }
+
+    /**
+     * A {@link Function2} with its first argument bound.
+     */
+    public static final class Bound2<T1, T2, R> implements Function1<T2, R> {
+
+        private final Function2<T1, T2, R> function;
+        private final T1 v1;
+
+        Bound2(Function2<T1, T2, R> function, T1 v1) {
+            this.function = Objects.requireNonNull(function, "function");
+            this.v1 = v1;
+        }
+
+        public T1 v1() {
+            return v1;
+        }
+
+        @Override
+        public R apply(T2 v2) {
+            return function.apply(v1, v2);
+        }
+    }
+
+    /**
+     * A {@link Function3} with its first argument bound.
+     */
+    public static final class Bound3<T1, T2, T3, R> implements Function2<T2, T3, R> {
+
+        private final Function3<T1, T2, T3, R> function;
+        private final T1 v1;
+
+        Bound3(Function3<T1, T2, T3, R> function, T1 v1) {
+            this.function = Objects.requireNonNull(function, "function");
+            this.v1 = v1;
+        }
+
+        public T1 v1() {
+            return v1;
+        }
+
+        @Override
+        public R apply(T2 v2, T3 v3) {
+            return function.apply(v1, v2, v3);
+        }
+    }
+
+    /**
+     * A {@link Function3} with its first two arguments bound.
+     */
+    public static final class Bound3Twice<T1, T2, T3, R> implements Function1<T3, R> {
+
+        private final Function3<T1, T2, T3, R> function;
+        private final T1 v1;
+        private final T2 v2;
+
+        Bound3Twice(Function3<T1, T2, T3, R> function, T1 v1, T2 v2) {
+            this.function = Objects.requireNonNull(function, "function");
+            this.v1 = v1;
+            this.v2 = v2;
+        }
+
+        public T1 v1() {
+            return v1;
+        }
+
+        public T2 v2() {
+            return v2;
+        }
+
+        @Override
+        public R apply(T3 v3) {
+            return function.apply(v1, v2, v3);
+        }
+    }
+
+    static final class BoundIntTernaryOperator implements IntBinaryOperator {
+
+        private final IntTernaryOperator operator;
+        private final int v1;
+
+        BoundIntTernaryOperator(IntTernaryOperator operator, int v1) {
+            this.operator = operator;
+            this.v1 = v1;
+        }
+
+        @Override
+        public int applyAsInt(int v2, int v3) {
+            return operator.applyAsInt(v1, v2, v3);
+        }
+    }
+
+    static final class BoundObjIntIntFunction<T1, R> implements IntIntFunction<R> {
+
+        private final ObjIntIntFunction<T1, R> function;
+        private final T1 v1;
+
+        BoundObjIntIntFunction(ObjIntIntFunction<T1, R> function, T1 v1) {
+            this.function = function;
+            this.v1 = v1;
+        }
+
+        @Override
+        public R apply(int v2, int v3) {
+            return function.apply(v1, v2, v3);
+        }
+    }
+}
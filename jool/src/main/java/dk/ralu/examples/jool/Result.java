@@ -0,0 +1,231 @@
+package dk.ralu.examples.jool;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.fi.util.function.CheckedFunction;
+import org.jooq.lambda.fi.util.function.CheckedSupplier;
+
+/**
+ * The outcome of a computation that may fail: either a success with a value, or a failure with the exception that was thrown.
+ * <p>
+ * Wrapping a {@link CheckedFunction} with {@link #function(CheckedFunction)} gives a function that never throws, so a stream of calls
+ * can carry its failures along with its successes, e.g. to count or log bad records, instead of aborting or catching each exception.
+ */
+public abstract class Result<T> {
+
+    private Result() {
+    }
+
+    public static <T> Result<T> success(T value) {
+        return new Success<>(value);
+    }
+
+    public static <T> Result<T> failure(Throwable cause) {
+        return new Failure<>(Objects.requireNonNull(cause, "cause"));
+    }
+
+    /**
+     * Calls the supplier, and returns its value as a success, or what it throws as a failure. Errors are not caught, and the interrupt
+     * flag is restored for an {@link InterruptedException}.
+     */
+    public static <T> Result<T> of(CheckedSupplier<? extends T> supplier) {
+        try {
+            return success(supplier.get());
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return caught(e);
+        }
+    }
+
+    /**
+     * A function returning the result of the given function as a success, or what it throws as a failure. Errors are not caught, and
+     * the interrupt flag is restored for an {@link InterruptedException}.
+     */
+    public static <T, R> Function<T, Result<R>> function(CheckedFunction<? super T, ? extends R> function) {
+        return t -> {
+            try {
+                return success(function.apply(t));
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                return caught(e);
+            }
+        };
+    }
+
+    private static <T> Result<T> caught(Throwable throwable) {
+        if (throwable instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return failure(throwable);
+    }
+
+    public abstract boolean isSuccess();
+
+    public boolean isFailure() {
+        return !isSuccess();
+    }
+
+    /**
+     * The value of a success. For a failure, the cause is thrown if unchecked, and otherwise wrapped in a
+     * {@link StacklessUncheckedException}.
+     */
+    public abstract T get();
+
+    /**
+     * The cause of a failure.
+     *
+     * @throws NoSuchElementException if this is a success
+     */
+    public abstract Throwable cause();
+
+    public abstract T orElse(T other);
+
+    public abstract Optional<T> toOptional();
+
+    /**
+     * The value of a success as a one element {@link Seq}, and an empty {@link Seq} for a failure, e.g. to flat map the successes.
+     */
+    public abstract Seq<T> seq();
+
+    /**
+     * Applies the function to the value of a success, giving a failure if the function throws. A failure stays the same failure.
+     */
+    public abstract <R> Result<R> map(CheckedFunction<? super T, ? extends R> mapper);
+
+    public abstract <R> Result<R> flatMap(Function<? super T, Result<R>> mapper);
+
+    private static final class Success<T> extends Result<T> {
+
+        private final T value;
+
+        Success(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+
+        @Override
+        public T get() {
+            return value;
+        }
+
+        @Override
+        public Throwable cause() {
+            throw new NoSuchElementException("Not a failure: " + this);
+        }
+
+        @Override
+        public T orElse(T other) {
+            return value;
+        }
+
+        @Override
+        public Optional<T> toOptional() {
+            return Optional.ofNullable(value);
+        }
+
+        @Override
+        public Seq<T> seq() {
+            return Seq.of(value);
+        }
+
+        @Override
+        public <R> Result<R> map(CheckedFunction<? super T, ? extends R> mapper) {
+            return Result.<T, R>function(mapper).apply(value);
+        }
+
+        @Override
+        public <R> Result<R> flatMap(Function<? super T, Result<R>> mapper) {
+            return mapper.apply(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Success && Objects.equals(value, ((Success<?>) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return "Success(" + value + ")";
+        }
+    }
+
+    private static final class Failure<T> extends Result<T> {
+
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        @Override
+        public T get() {
+            throw Stackless.unchecked(cause);
+        }
+
+        @Override
+        public Throwable cause() {
+            return cause;
+        }
+
+        @Override
+        public T orElse(T other) {
+            return other;
+        }
+
+        @Override
+        public Optional<T> toOptional() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Seq<T> seq() {
+            return Seq.empty();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> Result<R> map(CheckedFunction<? super T, ? extends R> mapper) {
+            return (Result<R>) this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <R> Result<R> flatMap(Function<? super T, Result<R>> mapper) {
+            return (Result<R>) this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Failure && cause.equals(((Failure<?>) o).cause);
+        }
+
+        @Override
+        public int hashCode() {
+            return cause.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Failure(" + cause + ")";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dk.ralu.examples.jool;
+
+import java.util.Arrays;
+
+/**
+ * The rows of a {@link ColumnarBatch3} (or of its columns), that an operator should work on - a selection vector of ascending row
+ * numbers.
+ * <p>
+ * Filters produce selections, so chained filters and the operators after them only look at the rows that are left, without copying
+ * any column data. Immutable.
+ */
+public final class Selection {
+
+    private final int[] rows;
+    private final int size;
+
+    Selection(int[] rows, int size) {
+        this.rows = rows;
+        this.size = size;
+    }
+
+    /**
+     * All rows from 0 (inclusive) to size (exclusive).
+     */
+    public static Selection all(int size) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        return new Selection(rows, size);
+    }
+
+    public static Selection of(int... rows) {
+        for (int i = 1; i < rows.length; i++) {
+            if (rows[i] <= rows[i - 1]) {
+                throw new IllegalArgumentException("Rows must be ascending, but " + rows[i] + " comes after " + rows[i - 1]);
+            }
+        }
+        return new Selection(rows.clone(), rows.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The row number at the given position in this selection.
+     */
+    public int row(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return rows[index];
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(rows, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Selection)) {
+            return false;
+        }
+        Selection that = (Selection) o;
+        return Arrays.equals(rows, 0, size, that.rows, 0, that.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + rows[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Collects row numbers, growing as needed.
+     */
+    static final class Builder {
+
+        private int[] rows;
+        private int size;
+
+        Builder(int expectedSize) {
+            rows = new int[Math.max(expectedSize, 4)];
+        }
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        Selection build() {
+            return new Selection(rows, size);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dk.ralu.examples.jool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file of values written with a {@link BinaryCodec}, for rows that do not fit in memory. Values are appended, and then
+ * read back in the same order. The file is deleted when closed.
+ * <p>
+ * Each value is written with its length in front, through a buffer that grows if a single value does not fit, i.e. the codec throws a
+ * {@link BufferOverflowException}, up to {@value #MAX_RECORD_SIZE} bytes. IO errors are thrown as {@link UncheckedIOException}, as
+ * spilling happens inside iterators.
+ */
+final class SpillFile<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final BinaryCodec<T> codec;
+    private final Path file;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long size;
+    private long bytesWritten;
+
+    SpillFile(BinaryCodec<T> codec, Path directory) {
+        this.codec = codec;
+        try {
+            this.file = directory == null ? Files.createTempFile("spill", ".bin") : Files.createTempFile(directory, "spill", ".bin");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void append(T value) {
+        while (true) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            int start = buffer.position();
+            try {
+                buffer.position(start + Integer.BYTES);
+                codec.encode(value, buffer);
+                buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+                size++;
+                return;
+            } catch (BufferOverflowException e) {
+                buffer.position(start);
+                if (start == 0) {
+                    if (buffer.capacity() >= MAX_RECORD_SIZE) {
+                        throw new IllegalArgumentException(
+                                "Value does not fit in the maximum record size of " + MAX_RECORD_SIZE + " bytes: " + value);
+                    }
+                    buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, MAX_RECORD_SIZE));
+                } else {
+                    flush();
+                }
+            }
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Reads the values appended so far. Values must not be appended while reading.
+     */
+    Iterator<T> iterator() {
+        flush();
+        return new Iterator<T>() {
+
+            private final ByteBuffer readBuffer = ByteBuffer.allocate(buffer.capacity());
+            private long position;
+            private long remaining = size;
+
+            {
+                readBuffer.limit(0);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                fill(Integer.BYTES);
+                int length = readBuffer.getInt();
+                fill(length);
+                int end = readBuffer.position() + length;
+                T value = codec.decode(readBuffer);
+                readBuffer.position(end);
+                remaining--;
+                return value;
+            }
+
+            private void fill(int bytes) {
+                if (readBuffer.remaining() >= bytes) {
+                    return;
+                }
+                readBuffer.compact();
+                try {
+                    while (readBuffer.position() < bytes && position < bytesWritten) {
+                        int read = channel.read(readBuffer, position);
+                        if (read < 0) {
+                            break;
+                        }
+                        position += read;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                readBuffer.flip();
+                if (readBuffer.remaining() < bytes) {
+                    throw new IllegalStateException("Spill file " + file + " is truncated");
+                }
+            }
+        };
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer, bytesWritten);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
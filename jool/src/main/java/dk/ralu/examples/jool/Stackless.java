@@ -0,0 +1,81 @@
+package dk.ralu.examples.jool;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.jooq.lambda.Unchecked;
+import org.jooq.lambda.fi.util.function.CheckedConsumer;
+import org.jooq.lambda.fi.util.function.CheckedFunction;
+import org.jooq.lambda.fi.util.function.CheckedPredicate;
+import org.jooq.lambda.fi.util.function.CheckedSupplier;
+
+/**
+ * Like {@link Unchecked}, but checked exceptions are wrapped in a {@link StacklessUncheckedException}, so wrapping does not capture a
+ * stack trace.
+ * <p>
+ * Runtime exceptions and errors are thrown as they are. An {@link InterruptedException} is wrapped too, after restoring the interrupt
+ * flag of the thread. Unlike {@link Unchecked}, an {@link java.io.IOException} is not turned into an
+ * {@link java.io.UncheckedIOException}, as that would capture a stack trace.
+ */
+public final class Stackless {
+
+    private Stackless() {
+    }
+
+    public static <T, R> Function<T, R> function(CheckedFunction<T, R> function) {
+        return t -> {
+            try {
+                return function.apply(t);
+            } catch (Throwable e) {
+                throw unchecked(e);
+            }
+        };
+    }
+
+    public static <T> Supplier<T> supplier(CheckedSupplier<T> supplier) {
+        return () -> {
+            try {
+                return supplier.get();
+            } catch (Throwable e) {
+                throw unchecked(e);
+            }
+        };
+    }
+
+    public static <T> Consumer<T> consumer(CheckedConsumer<T> consumer) {
+        return t -> {
+            try {
+                consumer.accept(t);
+            } catch (Throwable e) {
+                throw unchecked(e);
+            }
+        };
+    }
+
+    public static <T> Predicate<T> predicate(CheckedPredicate<T> predicate) {
+        return t -> {
+            try {
+                return predicate.test(t);
+            } catch (Throwable e) {
+                throw unchecked(e);
+            }
+        };
+    }
+
+    /**
+     * Returns the throwable if it is unchecked, and otherwise wraps it. Errors are thrown.
+     */
+    static RuntimeException unchecked(Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+        if (throwable instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return new StacklessUncheckedException(throwable);
+    }
+}
@@ -0,0 +1,21 @@
+package dk.ralu.examples.jool;
+
+import org.jooq.lambda.UncheckedException;
+
+/**
+ * An {@link UncheckedException} that does not capture a stack trace.
+ * <p>
+ * Capturing the stack trace is most of the cost of creating an exception. When exceptions are used for control flow, e.g. to skip bad
+ * records, the stack trace of the wrapper is never looked at - the cause still has its own stack trace, if it captured one.
+ */
+public class StacklessUncheckedException extends UncheckedException {
+
+    public StacklessUncheckedException(Throwable cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,481 @@
+package dk.ralu.examples.jool;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+
+/**
+ * Window functions evaluated incrementally over a {@link Seq} that is already sorted by partition, and by order within each partition.
+ * <p>
+ * jOOλ's {@link Seq#window} collects the whole stream before computing anything. Here each row is paired with its value as soon as
+ * the rows its frame needs have been read: running totals, row numbers and ranks need no rows besides the current one, and lag, lead
+ * and moving averages keep a ring buffer of the rows of their ROWS frame. Only {@link #partitionTotal(ToLongFunction)} needs the whole
+ * partition, which is buffered in memory up to a limit, and beyond that {@link #spill(BinaryCodec, int) spilled} to a temporary file.
+ * <p>
+ * Rows of a partition must be adjacent. If an order is given, rows within a partition that are out of order fail with an
+ * {@link IllegalStateException}. As the {@link Seq} can only be consumed once, only one window function can be computed per instance.
+ * Close the returned sequence if it may spill and is not consumed to the end.
+ */
+public final class StreamingWindows<T> {
+
+    private final Seq<T> seq;
+    private final Function<? super T, ?> partitionKey;
+    private final Comparator<? super T> order;
+    private final BinaryCodec<T> spillCodec;
+    private final int maxBufferedRows;
+    private final Path spillDirectory;
+
+    private StreamingWindows(Seq<T> seq, Function<? super T, ?> partitionKey, Comparator<? super T> order, BinaryCodec<T> spillCodec,
+            int maxBufferedRows, Path spillDirectory) {
+        this.seq = seq;
+        this.partitionKey = partitionKey;
+        this.order = order;
+        this.spillCodec = spillCodec;
+        this.maxBufferedRows = maxBufferedRows;
+        this.spillDirectory = spillDirectory;
+    }
+
+    public static <T> StreamingWindows<T> over(Seq<T> seq) {
+        return new StreamingWindows<>(Objects.requireNonNull(seq, "seq"), row -> null, null, null, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Starts a new partition whenever the key changes. By default, all rows are in one partition.
+     */
+    public StreamingWindows<T> partitionBy(Function<? super T, ?> partitionKey) {
+        return new StreamingWindows<>(seq, Objects.requireNonNull(partitionKey, "partitionKey"), order, spillCodec, maxBufferedRows,
+                spillDirectory);
+    }
+
+    /**
+     * The order of the rows within a partition, which the rows must already be in. Rows that compare equal are peers for ranking.
+     */
+    public StreamingWindows<T> orderBy(Comparator<? super T> order) {
+        return new StreamingWindows<>(seq, partitionKey, Objects.requireNonNull(order, "order"), spillCodec, maxBufferedRows,
+                spillDirectory);
+    }
+
+    /**
+     * Spills the rows of a partition beyond the given number to a temporary file in the default temporary directory.
+     */
+    public StreamingWindows<T> spill(BinaryCodec<T> codec, int maxBufferedRows) {
+        return spill(codec, maxBufferedRows, null);
+    }
+
+    public StreamingWindows<T> spill(BinaryCodec<T> codec, int maxBufferedRows, Path directory) {
+        if (maxBufferedRows < 1) {
+            throw new IllegalArgumentException("Max buffered rows must be positive, but was: " + maxBufferedRows);
+        }
+        return new StreamingWindows<>(seq, partitionKey, order, Objects.requireNonNull(codec, "codec"), maxBufferedRows, directory);
+    }
+
+    /**
+     * The number of each row within its partition, starting from 1.
+     */
+    public Seq<Tuple2<T, Long>> rowNumber() {
+        long[] rowNumber = new long[1];
+        return scan(cursor -> cursor.startsPartition() ? rowNumber[0] = 1 : ++rowNumber[0]);
+    }
+
+    /**
+     * The rank of each row within its partition, where peers have the same rank, and leave gaps after them.
+     */
+    public Seq<Tuple2<T, Long>> rank() {
+        requireOrder("rank");
+        long[] rowNumberAndRank = new long[2];
+        return scan(cursor -> {
+            if (cursor.startsPartition()) {
+                rowNumberAndRank[0] = 1;
+                rowNumberAndRank[1] = 1;
+            } else if (!cursor.isPeer()) {
+                rowNumberAndRank[1] = ++rowNumberAndRank[0];
+            } else {
+                rowNumberAndRank[0]++;
+            }
+            return rowNumberAndRank[1];
+        });
+    }
+
+    /**
+     * The rank of each row within its partition, where peers have the same rank, without gaps after them.
+     */
+    public Seq<Tuple2<T, Long>> denseRank() {
+        requireOrder("denseRank");
+        long[] rank = new long[1];
+        return scan(cursor -> cursor.startsPartition() ? rank[0] = 1 : cursor.isPeer() ? rank[0] : ++rank[0]);
+    }
+
+    /**
+     * The sum of the values of the rows from the start of the partition up to and including each row, i.e. over the frame ROWS
+     * BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW.
+     */
+    public Seq<Tuple2<T, Long>> runningTotal(ToLongFunction<? super T> value) {
+        long[] total = new long[1];
+        return scan(cursor -> {
+            long rowValue = value.applyAsLong(cursor.row());
+            return cursor.startsPartition() ? total[0] = rowValue : (total[0] += rowValue);
+        });
+    }
+
+    /**
+     * The row the given number of rows before each row in its partition, if any.
+     */
+    public Seq<Tuple2<T, Optional<T>>> lag(int offset) {
+        requireNotNegative(offset, "Offset");
+        return frames(offset, 0, null, frame -> Tuple.tuple(frame.current(), Optional.ofNullable(frame.relative(-offset))));
+    }
+
+    /**
+     * The row the given number of rows after each row in its partition, if any.
+     */
+    public Seq<Tuple2<T, Optional<T>>> lead(int offset) {
+        requireNotNegative(offset, "Offset");
+        return frames(0, offset, null, frame -> Tuple.tuple(frame.current(), Optional.ofNullable(frame.relative(offset))));
+    }
+
+    /**
+     * The average of the values over the frame ROWS BETWEEN {@code preceding} PRECEDING AND {@code following} FOLLOWING. The sum of
+     * the frame is updated as rows enter and leave it, so the cost per row does not depend on the frame size.
+     */
+    public Seq<Tuple2<T, Double>> movingAverage(ToDoubleFunction<? super T> value, int preceding, int following) {
+        requireNotNegative(preceding, "Preceding");
+        requireNotNegative(following, "Following");
+        Objects.requireNonNull(value, "value");
+        return frames(preceding, following, value, frame -> Tuple.tuple(frame.current(), frame.sum() / frame.size()));
+    }
+
+    /**
+     * The sum of the values of all rows in the partition of each row, i.e. over the frame ROWS BETWEEN UNBOUNDED PRECEDING AND
+     * UNBOUNDED FOLLOWING. The rows of a partition are buffered until its end, and spilled if there are more than the configured limit.
+     */
+    public Seq<Tuple2<T, Long>> partitionTotal(ToLongFunction<? super T> value) {
+        Objects.requireNonNull(value, "value");
+        PartitionIterator iterator = new PartitionIterator(value);
+        return Seq.seq(iterator).onClose(() -> {
+            try {
+                iterator.closeSpill();
+            } finally {
+                seq.close();
+            }
+        });
+    }
+
+    private Seq<Tuple2<T, Long>> scan(Function<Cursor, Long> step) {
+        Cursor cursor = new Cursor();
+        return Seq.seq(new Iterator<Tuple2<T, Long>>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Tuple2<T, Long> next() {
+                T row = cursor.next();
+                return Tuple.tuple(row, step.apply(cursor));
+            }
+        }).onClose(seq::close);
+    }
+
+    private <R> Seq<R> frames(int preceding, int following, ToDoubleFunction<? super T> value, Function<FrameIterator<R>, R> frame) {
+        return Seq.seq(new FrameIterator<>(preceding, following, value, frame)).onClose(seq::close);
+    }
+
+    private void requireOrder(String function) {
+        if (order == null) {
+            throw new IllegalStateException(function + " requires an order, see orderBy");
+        }
+    }
+
+    private static void requireNotNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative, but was: " + value);
+        }
+    }
+
+    /**
+     * Reads the rows one ahead, so it is known whether the next row starts a new partition before it is consumed.
+     */
+    private final class Cursor {
+
+        private final Iterator<T> source = seq.iterator();
+        private boolean started;
+        private boolean hasPending;
+        private T pending;
+        private boolean pendingStartsPartition;
+        private boolean pendingIsPeer;
+        private T row;
+        private boolean startsPartition;
+        private boolean isPeer;
+
+        boolean hasNext() {
+            return hasPending || readPending();
+        }
+
+        /**
+         * Whether the next row starts a new partition.
+         */
+        boolean nextStartsPartition() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pendingStartsPartition;
+        }
+
+        T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasPending = false;
+            row = pending;
+            startsPartition = pendingStartsPartition;
+            isPeer = pendingIsPeer;
+            return row;
+        }
+
+        T row() {
+            return row;
+        }
+
+        /**
+         * Whether the row returned by {@link #next()} starts a new partition.
+         */
+        boolean startsPartition() {
+            return startsPartition;
+        }
+
+        /**
+         * Whether the row returned by {@link #next()} is in the same partition and equal in order to the row before it.
+         */
+        boolean isPeer() {
+            return isPeer;
+        }
+
+        private boolean readPending() {
+            if (!source.hasNext()) {
+                return false;
+            }
+            T previous = pending;
+            pending = source.next();
+            hasPending = true;
+            pendingStartsPartition = !started || !Objects.equals(partitionKey.apply(previous), partitionKey.apply(pending));
+            started = true;
+            pendingIsPeer = false;
+            if (!pendingStartsPartition && order != null) {
+                int comparison = order.compare(previous, pending);
+                if (comparison > 0) {
+                    throw new IllegalStateException("Input is not sorted within partition: " + previous + " is before " + pending);
+                }
+                pendingIsPeer = comparison == 0;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Pairs each row with a function of its ROWS frame, keeping the frame in a ring buffer of {@code preceding + 1 + following} rows.
+     * If a value function is given, the sum of the values of the frame is maintained as rows enter and leave it, with compensated
+     * (Neumaier) summation, so a large value leaving the frame does not take the small values with it. The sum is also recomputed from
+     * the values of the frame whenever the ring buffer wraps around, so rounding errors do not build up over a long partition.
+     */
+    private final class FrameIterator<R> implements Iterator<R> {
+
+        private final Cursor cursor = new Cursor();
+        private final int preceding;
+        private final int following;
+        private final ToDoubleFunction<? super T> value;
+        private final Function<FrameIterator<R>, R> frame;
+        private final Object[] rows;
+        private final double[] values;
+        private int head;
+        private int size;
+        private int current;
+        private double sum;
+        private double compensation;
+
+        FrameIterator(int preceding, int following, ToDoubleFunction<? super T> value, Function<FrameIterator<R>, R> frame) {
+            this.preceding = preceding;
+            this.following = following;
+            this.value = value;
+            this.frame = frame;
+            int capacity = Math.addExact(Math.addExact(preceding, following), 1);
+            this.rows = new Object[capacity];
+            this.values = new double[value == null ? 0 : capacity];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current < size || cursor.hasNext();
+        }
+
+        @Override
+        public R next() {
+            while (current > preceding) {
+                removeFirst();
+            }
+            if (current == size) {
+                if (cursor.nextStartsPartition()) {
+                    while (size > 0) {
+                        removeFirst();
+                    }
+                    current = 0;
+                    sum = 0;
+                    compensation = 0;
+                }
+                add(cursor.next());
+            }
+            while (size - current - 1 < following && cursor.hasNext() && !cursor.nextStartsPartition()) {
+                add(cursor.next());
+            }
+            R result = frame.apply(this);
+            current++;
+            return result;
+        }
+
+        T current() {
+            return relative(0);
+        }
+
+        /**
+         * The row at the offset from the current row, or null if it is outside of the partition.
+         */
+        @SuppressWarnings("unchecked")
+        T relative(int offset) {
+            int index = current + offset;
+            return index < 0 || index >= size ? null : (T) rows[(head + index) % rows.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        double sum() {
+            return sum + compensation;
+        }
+
+        private void add(T row) {
+            int index = (head + size) % rows.length;
+            rows[index] = row;
+            if (value != null) {
+                values[index] = value.applyAsDouble(row);
+                addToSum(values[index]);
+            }
+            size++;
+        }
+
+        private void removeFirst() {
+            rows[head] = null;
+            if (value != null) {
+                addToSum(-values[head]);
+            }
+            head = (head + 1) % rows.length;
+            size--;
+            current--;
+            if (head == 0 && value != null) {
+                recomputeSum();
+            }
+        }
+
+        private void addToSum(double addend) {
+            double newSum = sum + addend;
+            if (Math.abs(sum) >= Math.abs(addend)) {
+                compensation += (sum - newSum) + addend;
+            } else {
+                compensation += (addend - newSum) + sum;
+            }
+            sum = newSum;
+        }
+
+        private void recomputeSum() {
+            sum = 0;
+            compensation = 0;
+            for (int i = 0; i < size; i++) {
+                addToSum(values[(head + i) % values.length]);
+            }
+        }
+    }
+
+    /**
+     * Reads a whole partition, buffering its rows in memory or in a spill file, and then pairs them with the total of the partition.
+     */
+    private final class PartitionIterator implements Iterator<Tuple2<T, Long>> {
+
+        private final Cursor cursor = new Cursor();
+        private final ToLongFunction<? super T> value;
+        private final List<T> buffered = new ArrayList<>();
+        private Iterator<T> bufferedRows = buffered.iterator();
+        private SpillFile<T> spill;
+        private Iterator<T> spilledRows;
+        private long total;
+
+        PartitionIterator(ToLongFunction<? super T> value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (bufferedRows.hasNext() || (spilledRows != null && spilledRows.hasNext()) || cursor.hasNext()) {
+                return true;
+            }
+            closeSpill();
+            return false;
+        }
+
+        @Override
+        public Tuple2<T, Long> next() {
+            if (bufferedRows.hasNext()) {
+                return Tuple.tuple(bufferedRows.next(), total);
+            }
+            if (spilledRows != null && spilledRows.hasNext()) {
+                return Tuple.tuple(spilledRows.next(), total);
+            }
+            readPartition();
+            return next();
+        }
+
+        private void readPartition() {
+            closeSpill();
+            buffered.clear();
+            total = 0;
+            do {
+                T row = cursor.next();
+                total += value.applyAsLong(row);
+                if (buffered.size() < maxBufferedRows) {
+                    buffered.add(row);
+                } else {
+                    spill(row);
+                }
+            } while (cursor.hasNext() && !cursor.nextStartsPartition());
+            bufferedRows = buffered.iterator();
+            spilledRows = spill == null ? null : spill.iterator();
+        }
+
+        private void spill(T row) {
+            if (spill == null) {
+                if (spillCodec == null) {
+                    throw new IllegalStateException("Partition has more than " + maxBufferedRows + " rows, and spilling is not configured");
+                }
+                spill = new SpillFile<>(spillCodec, spillDirectory);
+            }
+            spill.append(row);
+        }
+
+        void closeSpill() {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+                spilledRows = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+
+/**
+ * The k largest values of a stream, kept in a heap of k values, so they are found without sorting, or even keeping, all the values.
+ * <p>
+ * The heap is ordered with the smallest value on top, so each value is either dropped after a single comparison with the top, or
+ * replaces it. The result is exact, and in descending order. Instances can be merged, e.g. those of the chunks of a parallel stream.
+ * Not thread safe.
+ * <p>
+ * The most frequent values of a stream can not be found exactly without counting every distinct value, e.g. in the map of a group by.
+ * {@link #mostFrequent(int, double, double)} finds them approximately, with the frequencies estimated by a {@link CountMinSketch}.
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> comparator) {
+        this.k = checkK(k);
+        this.comparator = Objects.requireNonNull(comparator, "comparator");
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, comparator);
+    }
+
+    public static <T extends Comparable<? super T>> Collector<T, ?, List<T>> largest(int k) {
+        return largest(k, Comparator.naturalOrder());
+    }
+
+    /**
+     * Collects the k largest elements according to the comparator, largest first.
+     */
+    public static <T> Collector<T, ?, List<T>> largest(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        Objects.requireNonNull(comparator, "comparator");
+        return Collector.<T, TopK<T>, List<T>>of(() -> new TopK<>(k, comparator), TopK::add, TopK::merge, TopK::toList,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, List<T>> smallest(int k, Comparator<? super T> comparator) {
+        return largest(k, comparator.reversed());
+    }
+
+    /**
+     * Collects the k elements that occur most often, most frequent first, with their estimated frequencies.
+     * <p>
+     * Each element is counted in a {@link CountMinSketch}, and kept as a candidate if its estimate is among the k highest so far. The
+     * estimates are at most {@code epsilon} times the number of elements too high, with the given probability, so elements occurring
+     * more often than that are found, while the order of elements with frequencies closer than that may be off.
+     */
+    public static <T> Collector<T, ?, List<Tuple2<T, Long>>> mostFrequent(int k, double epsilon, double confidence) {
+        checkK(k);
+        CountMinSketch.checkError(epsilon, confidence);
+        return Collector.<T, FrequentValues<T>, List<Tuple2<T, Long>>>of(
+                () -> new FrequentValues<>(k, CountMinSketch.withError(epsilon, confidence)),
+                FrequentValues::add, FrequentValues::merge, FrequentValues::toList,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    private static int checkK(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("K must be positive, but was: " + k);
+        }
+        return k;
+    }
+
+    public void add(T value) {
+        if (heap.size() < k) {
+            heap.add(value);
+        } else if (comparator.compare(value, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(value);
+        }
+    }
+
+    /**
+     * Adds the values kept by the other instance to this instance.
+     *
+     * @return this instance
+     */
+    public TopK<T> merge(TopK<T> other) {
+        other.heap.forEach(this::add);
+        return this;
+    }
+
+    /**
+     * The values, largest first.
+     */
+    public List<T> toList() {
+        List<T> values = new ArrayList<>(heap);
+        values.sort(comparator.reversed());
+        return values;
+    }
+
+    /**
+     * The candidates for the most frequent values, with their estimated frequencies.
+     */
+    private static final class FrequentValues<T> {
+
+        private final int k;
+        private final CountMinSketch sketch;
+        private final Map<T, Long> candidates = new HashMap<>();
+        private long minCandidateCount; // A lower bound, it is only updated when a candidate is replaced
+
+        FrequentValues(int k, CountMinSketch sketch) {
+            this.k = k;
+            this.sketch = sketch;
+        }
+
+        void add(T value) {
+            sketch.add(value);
+            offer(value, sketch.estimate(value));
+        }
+
+        private void offer(T value, long count) {
+            if (candidates.size() < k || candidates.containsKey(value)) {
+                candidates.put(value, count);
+                return;
+            }
+            if (count <= minCandidateCount) {
+                return;
+            }
+            T min = null;
+            long minCount = Long.MAX_VALUE;
+            for (Map.Entry<T, Long> candidate : candidates.entrySet()) {
+                if (candidate.getValue() < minCount) {
+                    min = candidate.getKey();
+                    minCount = candidate.getValue();
+                }
+            }
+            if (count > minCount) {
+                candidates.remove(min);
+                candidates.put(value, count);
+                minCount = count;
+                for (long candidateCount : candidates.values()) {
+                    minCount = Math.min(minCount, candidateCount);
+                }
+            }
+            minCandidateCount = minCount;
+        }
+
+        FrequentValues<T> merge(FrequentValues<T> other) {
+            sketch.merge(other.sketch);
+            List<T> values = new ArrayList<>(candidates.keySet());
+            values.addAll(other.candidates.keySet());
+            candidates.clear();
+            minCandidateCount = 0;
+            for (T value : values) {
+                offer(value, sketch.estimate(value));
+            }
+            return this;
+        }
+
+        List<Tuple2<T, Long>> toList() {
+            return Seq.seq(candidates)
+                    .sorted(Comparator.comparing((Tuple2<T, Long> candidate) -> candidate.v2).reversed())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package dk.ralu.examples.jool;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple0;
+import org.jooq.lambda.tuple.Tuple10;
+import org.jooq.lambda.tuple.Tuple11;
+import org.jooq.lambda.tuple.Tuple12;
+import org.jooq.lambda.tuple.Tuple13;
+import org.jooq.lambda.tuple.Tuple14;
+import org.jooq.lambda.tuple.Tuple15;
+import org.jooq.lambda.tuple.Tuple16;
+import org.jooq.lambda.tuple.Tuple1;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.jooq.lambda.tuple.Tuple4;
+import org.jooq.lambda.tuple.Tuple5;
+import org.jooq.lambda.tuple.Tuple6;
+import org.jooq.lambda.tuple.Tuple7;
+import org.jooq.lambda.tuple.Tuple8;
+import org.jooq.lambda.tuple.Tuple9;
+
+/**
+ * A codec for tuples of a given shape, i.e. a given codec for each field, for {@link Tuple0} to {@link Tuple16}.
+ * <p>
+ * A tuple is written as its fields in order, with nothing in between, so the format is as compact as the field codecs. Codecs read the
+ * fields through method handles found once for each degree, so encoding does neither reflection nor allocation - for a tuple of
+ * {@link BinaryCodecs#INT} and {@link BinaryCodecs#STRING} fields, it is just a few puts into the buffer. Codecs whose fields are all
+ * {@link BinaryCodecs} are cached per shape. Other codecs, e.g. lambdas, are not, as the cache would keep them forever.
+ * <p>
+ * Besides decoding the whole tuple, a tuple can be read lazily through a {@link View}, that only decodes the fields accessed.
+ */
+public final class TupleCodec<T extends Tuple> implements BinaryCodec<T> {
+
+    private static final int MAX_DEGREE = 16;
+    private static final ConcurrentMap<List<BinaryCodec<?>>, TupleCodec<?>> CACHE = new ConcurrentHashMap<>();
+    private static final MethodHandle[][] ACCESSORS = accessors();
+
+    private final List<BinaryCodec<?>> fields;
+    private final BinaryCodec<Object>[] codecs;
+    private final MethodHandle[] accessors;
+
+    @SuppressWarnings("unchecked")
+    private TupleCodec(List<BinaryCodec<?>> fields) {
+        this.fields = fields;
+        this.codecs = fields.toArray(new BinaryCodec[0]);
+        this.accessors = ACCESSORS[fields.size()];
+    }
+
+    public static TupleCodec<Tuple0> of() {
+        return create();
+    }
+
+    public static <T1> TupleCodec<Tuple1<T1>> of(BinaryCodec<T1> codec1) {
+        return create(codec1);
+    }
+
+    public static <T1, T2> TupleCodec<Tuple2<T1, T2>> of(BinaryCodec<T1> codec1, BinaryCodec<T2> codec2) {
+        return create(codec1, codec2);
+    }
+
+    public static <T1, T2, T3> TupleCodec<Tuple3<T1, T2, T3>> of(BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3) {
+        return create(codec1, codec2, codec3);
+    }
+
+    public static <T1, T2, T3, T4> TupleCodec<Tuple4<T1, T2, T3, T4>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4) {
+        return create(codec1, codec2, codec3, codec4);
+    }
+
+    public static <T1, T2, T3, T4, T5> TupleCodec<Tuple5<T1, T2, T3, T4, T5>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5) {
+        return create(codec1, codec2, codec3, codec4, codec5);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6> TupleCodec<Tuple6<T1, T2, T3, T4, T5, T6>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7> TupleCodec<Tuple7<T1, T2, T3, T4, T5, T6, T7>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8> TupleCodec<Tuple8<T1, T2, T3, T4, T5, T6, T7, T8>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9> TupleCodec<Tuple9<T1, T2, T3, T4, T5, T6, T7, T8, T9>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10> TupleCodec<Tuple10<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11> TupleCodec<Tuple11<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10,
+            BinaryCodec<T11> codec11) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10, codec11);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12>
+            TupleCodec<Tuple12<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10,
+            BinaryCodec<T11> codec11, BinaryCodec<T12> codec12) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10, codec11, codec12);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13>
+            TupleCodec<Tuple13<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10,
+            BinaryCodec<T11> codec11, BinaryCodec<T12> codec12, BinaryCodec<T13> codec13) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10, codec11, codec12, codec13);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14>
+            TupleCodec<Tuple14<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10,
+            BinaryCodec<T11> codec11, BinaryCodec<T12> codec12, BinaryCodec<T13> codec13, BinaryCodec<T14> codec14) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10, codec11, codec12, codec13, codec14);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15>
+            TupleCodec<Tuple15<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10,
+            BinaryCodec<T11> codec11, BinaryCodec<T12> codec12, BinaryCodec<T13> codec13, BinaryCodec<T14> codec14,
+            BinaryCodec<T15> codec15) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10, codec11, codec12, codec13, codec14,
+                codec15);
+    }
+
+    public static <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, T16>
+            TupleCodec<Tuple16<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15, T16>> of(
+            BinaryCodec<T1> codec1, BinaryCodec<T2> codec2, BinaryCodec<T3> codec3, BinaryCodec<T4> codec4, BinaryCodec<T5> codec5,
+            BinaryCodec<T6> codec6, BinaryCodec<T7> codec7, BinaryCodec<T8> codec8, BinaryCodec<T9> codec9, BinaryCodec<T10> codec10,
+            BinaryCodec<T11> codec11, BinaryCodec<T12> codec12, BinaryCodec<T13> codec13, BinaryCodec<T14> codec14,
+            BinaryCodec<T15> codec15, BinaryCodec<T16> codec16) {
+        return create(codec1, codec2, codec3, codec4, codec5, codec6, codec7, codec8, codec9, codec10, codec11, codec12, codec13, codec14,
+                codec15, codec16);
+    }
+
+    /**
+     * A codec for tuples whose shape is only known at runtime, e.g. from a schema.
+     */
+    public static TupleCodec<Tuple> of(List<? extends BinaryCodec<?>> fields) {
+        if (fields.size() > MAX_DEGREE) {
+            throw new IllegalArgumentException("Tuples of degree " + fields.size() + " are not supported");
+        }
+        return create(fields.toArray(new BinaryCodec<?>[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Tuple> TupleCodec<T> create(BinaryCodec<?>... fields) {
+        boolean builtIn = true;
+        for (BinaryCodec<?> field : fields) {
+            builtIn &= BinaryCodecs.isBuiltIn(Objects.requireNonNull(field, "field codec"));
+        }
+        List<BinaryCodec<?>> shape = Collections.unmodifiableList(Arrays.asList(fields));
+        return (TupleCodec<T>) (builtIn ? CACHE.computeIfAbsent(shape, TupleCodec::new) : new TupleCodec<>(shape));
+    }
+
+    public int degree() {
+        return codecs.length;
+    }
+
+    public List<BinaryCodec<?>> fields() {
+        return fields;
+    }
+
+    @Override
+    public void encode(T tuple, ByteBuffer buffer) {
+        if (tuple.degree() != codecs.length) {
+            throw new IllegalArgumentException("Expected a tuple of degree " + codecs.length + ", but got: " + tuple);
+        }
+        for (int field = 0; field < codecs.length; field++) {
+            codecs[field].encode(get(tuple, field), buffer);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T decode(ByteBuffer buffer) {
+        Object[] values = new Object[codecs.length];
+        for (int field = 0; field < codecs.length; field++) {
+            values[field] = codecs[field].decode(buffer);
+        }
+        return (T) tuple(values);
+    }
+
+    @Override
+    public void skip(ByteBuffer buffer) {
+        for (BinaryCodec<Object> codec : codecs) {
+            codec.skip(buffer);
+        }
+    }
+
+    /**
+     * Reads a tuple lazily. Only the lengths of variable size fields are read, and the position of the buffer is advanced past the
+     * tuple. The view reads from the buffer when its fields are accessed, so it must not be used after the buffer has been reused.
+     */
+    public View view(ByteBuffer buffer) {
+        int[] offsets = new int[codecs.length];
+        for (int field = 0; field < codecs.length; field++) {
+            offsets[field] = buffer.position();
+            codecs[field].skip(buffer);
+        }
+        return new View(buffer, offsets);
+    }
+
+    private Object get(T tuple, int field) {
+        try {
+            return (Object) accessors[field].invokeExact((Tuple) tuple);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TupleCodec" + fields;
+    }
+
+    private static MethodHandle[][] accessors() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodType type = MethodType.methodType(Object.class, Tuple.class);
+        MethodHandle[][] accessors = new MethodHandle[MAX_DEGREE + 1][];
+        try {
+            for (int degree = 0; degree <= MAX_DEGREE; degree++) {
+                Class<?> tupleClass = Class.forName(Tuple.class.getName() + degree);
+                accessors[degree] = new MethodHandle[degree];
+                for (int field = 0; field < degree; field++) {
+                    accessors[degree][field] = lookup.findGetter(tupleClass, "v" + (field + 1), Object.class).asType(type);
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        return accessors;
+    }
+
+    private static Tuple tuple(Object[] values) {
+        switch (values.length) {
+            case 0:
+                return Tuple.tuple();
+            case 1:
+                return Tuple.tuple(values[0]);
+            case 2:
+                return Tuple.tuple(values[0], values[1]);
+            case 3:
+                return Tuple.tuple(values[0], values[1], values[2]);
+            case 4:
+                return Tuple.tuple(values[0], values[1], values[2], values[3]);
+            case 5:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4]);
+            case 6:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5]);
+            case 7:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6]);
+            case 8:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7]);
+            case 9:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8]);
+            case 10:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9]);
+            case 11:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9], values[10]);
+            case 12:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9], values[10], values[11]);
+            case 13:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9], values[10], values[11], values[12]);
+            case 14:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9], values[10], values[11], values[12], values[13]);
+            case 15:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9], values[10], values[11], values[12], values[13], values[14]);
+            case 16:
+                return Tuple.tuple(values[0], values[1], values[2], values[3], values[4], values[5], values[6], values[7], values[8],
+                        values[9], values[10], values[11], values[12], values[13], values[14], values[15]);
+            default:
+                throw new IllegalArgumentException("Tuples of degree " + values.length + " are not supported");
+        }
+    }
+
+    /**
+     * A tuple in a buffer, whose fields are decoded when accessed.
+     */
+    public final class View {
+
+        private final ByteBuffer buffer;
+        private final int[] offsets;
+
+        private View(ByteBuffer buffer, int[] offsets) {
+            this.buffer = buffer;
+            this.offsets = offsets;
+        }
+
+        public int degree() {
+            return offsets.length;
+        }
+
+        public Object get(int field) {
+            ByteBuffer fieldBuffer = buffer.duplicate().order(buffer.order());
+            fieldBuffer.position(offsets[field]);
+            return codecs[field].decode(fieldBuffer);
+        }
+
+        public int getInt(int field) {
+            checkCodec(field, BinaryCodecs.INT);
+            return buffer.getInt(offsets[field]);
+        }
+
+        public long getLong(int field) {
+            checkCodec(field, BinaryCodecs.LONG);
+            return buffer.getLong(offsets[field]);
+        }
+
+        public double getDouble(int field) {
+            checkCodec(field, BinaryCodecs.DOUBLE);
+            return buffer.getDouble(offsets[field]);
+        }
+
+        @SuppressWarnings("unchecked")
+        public T toTuple() {
+            Object[] values = new Object[offsets.length];
+            for (int field = 0; field < values.length; field++) {
+                values[field] = get(field);
+            }
+            return (T) tuple(values);
+        }
+
+        private void checkCodec(int field, BinaryCodec<?> expected) {
+            if (codecs[field] != expected) {
+                throw new IllegalArgumentException("Field " + field + " is not encoded with " + expected + " but: " + codecs[field]);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return toTuple().toString();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package dk.ralu.examples.jool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The fields of fixed size records, used by {@link MappedTupleStore} to store tuples.
+ * <p>
+ * A record starts with a bitmap marking its null fields, followed by the fields in order. Ints, longs and doubles take their usual
+ * size, and strings take the maximum number of UTF-8 bytes declared for the field plus 2 bytes for the length. Since all records have
+ * the same size, any field of any record can be read directly at a computed offset.
+ */
+public final class TupleSchema {
+
+    /**
+     * The type of a field, and thereby its size.
+     */
+    public static final class FieldType {
+
+        public static final FieldType INT = new FieldType("INT", 4);
+        public static final FieldType LONG = new FieldType("LONG", 8);
+        public static final FieldType DOUBLE = new FieldType("DOUBLE", 8);
+
+        private static final int MAX_STRING_BYTES = 0xFFFF;
+
+        private final String name;
+        private final int size;
+
+        private FieldType(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        /**
+         * A string of at most the given number of bytes, when encoded as UTF-8.
+         */
+        public static FieldType string(int maxBytes) {
+            if (maxBytes < 1 || maxBytes > MAX_STRING_BYTES) {
+                throw new IllegalArgumentException("Strings must be 1 to " + MAX_STRING_BYTES + " bytes, but was: " + maxBytes);
+            }
+            return new FieldType("STRING", 2 + maxBytes);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        boolean isString() {
+            return "STRING".equals(name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FieldType)) {
+                return false;
+            }
+            FieldType that = (FieldType) o;
+            return size == that.size && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + size;
+        }
+
+        @Override
+        public String toString() {
+            return isString() ? name + "(" + (size - 2) + ")" : name;
+        }
+    }
+
+    private final List<FieldType> fields;
+    private final int[] offsets;
+    private final int recordSize;
+
+    private TupleSchema(List<FieldType> fields) {
+        this.fields = fields;
+        this.offsets = new int[fields.size()];
+        int offset = nullBitmapSize();
+        for (int i = 0; i < fields.size(); i++) {
+            offsets[i] = offset;
+            offset += fields.get(i).size();
+        }
+        this.recordSize = offset;
+    }
+
+    public static TupleSchema of(FieldType... fields) {
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("A schema must have at least one field");
+        }
+        for (FieldType field : fields) {
+            Objects.requireNonNull(field, "field");
+        }
+        return new TupleSchema(Collections.unmodifiableList(Arrays.asList(fields.clone())));
+    }
+
+    public List<FieldType> fields() {
+        return fields;
+    }
+
+    public int degree() {
+        return fields.size();
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Identifies the layout of the records, so a file written with one schema is not read with another.
+     */
+    int fingerprint() {
+        return fields.hashCode();
+    }
+
+    int offset(int field) {
+        return offsets[field];
+    }
+
+    private int nullBitmapSize() {
+        return (fields.size() + 7) / 8;
+    }
+
+    /**
+     * Writes the values as a record at the buffer's position, and advances the position by the record size.
+     */
+    void write(Object[] values, ByteBuffer buffer) {
+        if (values.length != fields.size()) {
+            throw new IllegalArgumentException("Expected " + fields.size() + " values, but got " + values.length);
+        }
+        int start = buffer.position();
+        for (int i = 0; i < nullBitmapSize(); i++) {
+            buffer.put(start + i, (byte) 0);
+        }
+        for (int field = 0; field < values.length; field++) {
+            Object value = values[field];
+            int offset = start + offsets[field];
+            if (value == null) {
+                buffer.put(start + field / 8, (byte) (buffer.get(start + field / 8) | (1 << (field % 8))));
+                continue;
+            }
+            FieldType type = fields.get(field);
+            if (type == FieldType.INT) {
+                buffer.putInt(offset, ((Number) value).intValue());
+            } else if (type == FieldType.LONG) {
+                buffer.putLong(offset, ((Number) value).longValue());
+            } else if (type == FieldType.DOUBLE) {
+                buffer.putDouble(offset, ((Number) value).doubleValue());
+            } else {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > type.size() - 2) {
+                    throw new IllegalArgumentException("Value of field " + field + " is " + bytes.length
+                                                               + " bytes, but at most " + (type.size() - 2) + " are allowed");
+                }
+                buffer.putShort(offset, (short) bytes.length);
+                for (int i = 0; i < bytes.length; i++) {
+                    buffer.put(offset + 2 + i, bytes[i]);
+                }
+            }
+        }
+        buffer.position(start + recordSize);
+    }
+
+    boolean isNull(ByteBuffer buffer, int recordOffset, int field) {
+        return (buffer.get(recordOffset + field / 8) & (1 << (field % 8))) != 0;
+    }
+
+    Object read(ByteBuffer buffer, int recordOffset, int field) {
+        if (isNull(buffer, recordOffset, field)) {
+            return null;
+        }
+        FieldType type = fields.get(field);
+        int offset = recordOffset + offsets[field];
+        if (type == FieldType.INT) {
+            return buffer.getInt(offset);
+        }
+        if (type == FieldType.LONG) {
+            return buffer.getLong(offset);
+        }
+        if (type == FieldType.DOUBLE) {
+            return buffer.getDouble(offset);
+        }
+        return readString(buffer, offset);
+    }
+
+    static String readString(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(offset))];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "TupleSchema" + fields;
+    }
+}
@@ -0,0 +1,120 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import org.jooq.lambda.function.Functions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Evaluates a rule chain where the first rules are expensive and rarely fail, and the last rules are cheap and often fail - the worst
+ * order for an AND chain. Compares the fixed order of {@link Functions#and(Predicate[])} with {@link AdaptivePredicate} and
+ * {@link AdaptiveIntPredicate}, which learn a better order during warm-up.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdaptivePredicateBenchmark {
+
+    private static final int RULES = 10;
+    private static final int VALUES = 1024;
+
+    private int[] values;
+    private Integer[] boxedValues;
+    private Predicate<Integer> fixedOrder;
+    private AdaptivePredicate<Integer> adaptive;
+    private AdaptiveIntPredicate adaptiveInt;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void createRules() {
+        Random random = new Random(42);
+        values = new int[VALUES];
+        boxedValues = new Integer[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = random.nextInt();
+            boxedValues[i] = values[i];
+        }
+        List<IntPredicate> rules = new ArrayList<>();
+        for (int rule = 0; rule < RULES; rule++) {
+            int work = 200 - 20 * rule;
+            int passPercentage = 99 - 5 * rule;
+            int seed = rule;
+            rules.add(value -> Math.floorMod(hash(value ^ seed, work), 100) < passPercentage);
+        }
+        Predicate<Integer>[] boxedRules = rules.stream().map(rule -> (Predicate<Integer>) rule::test).toArray(Predicate[]::new);
+
+        fixedOrder = Functions.and(boxedRules);
+        adaptive = AdaptivePredicate.and(boxedRules);
+        adaptiveInt = AdaptiveIntPredicate.and(rules.toArray(new IntPredicate[0]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int fixedOrder() {
+        int passed = 0;
+        for (Integer value : boxedValues) {
+            if (fixedOrder.test(value)) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int adaptiveOrder() {
+        int passed = 0;
+        for (Integer value : boxedValues) {
+            if (adaptive.test(value)) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public int adaptiveIntOrder() {
+        int passed = 0;
+        for (int value : values) {
+            if (adaptiveInt.test(value)) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    private static int hash(int value, int rounds) {
+        int hash = value;
+        for (int i = 0; i < rounds; i++) {
+            hash = Integer.rotateLeft(hash * 0x9E3779B9, 13) + i;
+        }
+        return hash;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AdaptivePredicateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
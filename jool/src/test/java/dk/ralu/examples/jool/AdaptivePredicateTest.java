@@ -0,0 +1,118 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class AdaptivePredicateTest {
+
+    @Test
+    void sameResultsAsFunctionsAndOr() {
+
+        // Same predicates as in Functions.functionsUtilClass()
+
+        Predicate<Integer> isEven = integer -> integer % 2 == 0;
+        Predicate<Integer> isNegative = integer -> integer < 0;
+        Predicate<Integer> isSmall = integer -> Math.abs(integer) < 10;
+
+        List<Predicate<Integer>> predicates = Arrays.asList(isEven, isNegative, isSmall);
+        AdaptivePredicate<Integer> and = AdaptivePredicate.and(predicates, 2, 10);
+        AdaptivePredicate<Integer> or = AdaptivePredicate.or(predicates, 2, 10);
+        Predicate<Integer> staticAnd = org.jooq.lambda.function.Functions.and(isEven, isNegative, isSmall);
+        Predicate<Integer> staticOr = org.jooq.lambda.function.Functions.or(isEven, isNegative, isSmall);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            int value = random.nextInt(40) - 20;
+            assertThat(and.test(value)).isEqualTo(staticAnd.test(value));
+            assertThat(or.test(value)).isEqualTo(staticOr.test(value));
+            assertThat(and.toStaticPredicate().test(value)).isEqualTo(staticAnd.test(value));
+            assertThat(or.toStaticPredicate().test(value)).isEqualTo(staticOr.test(value));
+        }
+    }
+
+    @Test
+    void andChainRunsCheapPredicatesThatAreOftenFalseFirst() {
+
+        Predicate<Integer> slowAndRarelyFalse = slow(integer -> integer != 0);
+        Predicate<Integer> cheapAndRarelyFalse = integer -> integer != 1;
+        Predicate<Integer> cheapAndOftenFalse = integer -> integer % 10 == 0;
+
+        AdaptivePredicate<Integer> and = AdaptivePredicate.and(
+                Arrays.asList(slowAndRarelyFalse, cheapAndRarelyFalse, cheapAndOftenFalse), 1, 100);
+        assertThat(and.order()).containsExactly(0, 1, 2);
+
+        for (int i = 0; i < 100; i++) {
+            and.test(i);
+        }
+
+        assertThat(and.order()).containsExactly(2, 1, 0);
+    }
+
+    /**
+     * The chain is reordered after every 100 evaluations, and the predicates are counted only when they run, e.g. the cheap predicate
+     * that is often true is measured on the values the slow predicate is false for, before it is moved first.
+     */
+    @Test
+    void orChainRunsCheapPredicatesThatAreOftenTrueFirst() {
+
+        IntPredicate slowAndOftenTrue = slowInt(value -> value % 10 != 0);
+        IntPredicate cheapAndRarelyTrue = value -> value == 1;
+        IntPredicate cheapAndOftenTrue = value -> value % 20 != 0;
+
+        AdaptiveIntPredicate or = AdaptiveIntPredicate.or(1, 100, slowAndOftenTrue, cheapAndRarelyTrue, cheapAndOftenTrue);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(or.test(i)).isEqualTo(i % 20 != 0);
+        }
+
+        assertThat(or.order()).containsExactly(2, 1, 0);
+    }
+
+    @Test
+    void sampledEvaluationsShortCircuit() {
+
+        AtomicInteger evaluated = new AtomicInteger();
+        Predicate<String> notNull = string -> string != null;
+        Predicate<String> counted = string -> evaluated.incrementAndGet() > 0;
+
+        AdaptivePredicate<String> and = AdaptivePredicate.and(Arrays.asList(notNull, counted), 1, 1_000);
+        AdaptivePredicate<String> or = AdaptivePredicate.or(Arrays.asList(notNull.negate(), counted), 1, 1_000);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(and.test(null)).isFalse();
+            assertThat(or.test(null)).isTrue();
+        }
+        assertThat(evaluated).hasValue(0);
+
+        assertThat(and.test("")).isTrue();
+        assertThat(evaluated).hasValue(1);
+    }
+
+    private static <T> Predicate<T> slow(Predicate<T> predicate) {
+        return t -> {
+            spin();
+            return predicate.test(t);
+        };
+    }
+
+    private static IntPredicate slowInt(IntPredicate predicate) {
+        return value -> {
+            spin();
+            return predicate.test(value);
+        };
+    }
+
+    private static void spin() {
+        long end = System.nanoTime() + 50_000;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package dk.ralu.examples.jool;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link TupleCodec} with Java serialization, when writing and reading (order_id, name, amount) order lines.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time - encoding with the codec allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryCodecBenchmark {
+
+    private static final int ROWS = 1024;
+    private static final TupleCodec<Tuple3<Integer, String, Integer>> CODEC =
+            TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+
+    private Tuple3<Integer, String, Integer>[] orderLines;
+    private ByteBuffer buffer;
+    private byte[] serialized;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void createOrderLines() throws IOException {
+        orderLines = new Tuple3[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            orderLines[i] = Tuple.tuple(i / 4, "Product number " + i, i % 10);
+        }
+        buffer = ByteBuffer.allocateDirect(ROWS * 64);
+        binaryEncode();
+        serialized = javaSerializationEncode();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ByteBuffer binaryEncode() {
+        buffer.clear();
+        for (Tuple3<Integer, String, Integer> orderLine : orderLines) {
+            CODEC.encode(orderLine, buffer);
+        }
+        return buffer.flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int binaryDecode() {
+        buffer.rewind();
+        int sum = 0;
+        while (buffer.hasRemaining()) {
+            sum += CODEC.decode(buffer).v3;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int binaryLazyDecode() {
+        buffer.rewind();
+        int sum = 0;
+        while (buffer.hasRemaining()) {
+            sum += CODEC.view(buffer).getInt(2);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public byte[] javaSerializationEncode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(ROWS * 64);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (Tuple3<Integer, String, Integer> orderLine : orderLines) {
+                out.writeObject(orderLine);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    @SuppressWarnings("unchecked")
+    public int javaSerializationDecode() throws IOException, ClassNotFoundException {
+        int sum = 0;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            for (int i = 0; i < ROWS; i++) {
+                sum += ((Tuple3<Integer, String, Integer>) in.readObject()).v3;
+            }
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(BinaryCodecBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
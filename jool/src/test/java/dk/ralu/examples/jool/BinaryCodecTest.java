@@ -0,0 +1,251 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.jooq.lambda.tuple.Range;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+
+class BinaryCodecTest {
+
+    private static final List<BinaryCodec<?>> FIELD_CODECS = Arrays.asList(
+            BinaryCodecs.INT,
+            BinaryCodecs.LONG,
+            BinaryCodecs.DOUBLE,
+            BinaryCodecs.BOOLEAN,
+            BinaryCodecs.CHAR,
+            BinaryCodecs.STRING,
+            BinaryCodecs.nullable(BinaryCodecs.INT),
+            BinaryCodecs.nullable(BinaryCodecs.STRING),
+            BinaryCodecs.range(BinaryCodecs.INT)
+    );
+
+    // Fields are: id, name
+    private final List<Tuple2<Integer, String>> orders = Arrays.asList(
+            Tuple.tuple(1, "First order"),
+            Tuple.tuple(2, "Second order"),
+            Tuple.tuple(3, "Third order")
+    );
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1)
+    );
+
+    @Test
+    void ordersAndOrderLines() {
+
+        TupleCodec<Tuple2<Integer, String>> orderCodec = TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING);
+        TupleCodec<Tuple3<Integer, String, Integer>> orderLineCodec =
+                TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        orders.forEach(order -> orderCodec.encode(order, buffer));
+        orderLines.forEach(orderLine -> orderLineCodec.encode(orderLine, buffer));
+        buffer.flip();
+
+        List<Tuple2<Integer, String>> decodedOrders = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            decodedOrders.add(orderCodec.decode(buffer));
+        }
+        List<Tuple3<Integer, String, Integer>> decodedOrderLines = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            decodedOrderLines.add(orderLineCodec.decode(buffer));
+        }
+
+        assertThat(decodedOrders).isEqualTo(orders);
+        assertThat(decodedOrderLines).isEqualTo(orderLines);
+    }
+
+    @Test
+    void randomTuplesOfAllDegreesSurviveRoundTrip() {
+
+        Random random = new Random(42);
+        ByteBuffer heapBuffer = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        for (int degree = 0; degree <= 16; degree++) {
+            for (int i = 0; i < 100; i++) {
+                List<BinaryCodec<?>> fields = new ArrayList<>();
+                Object[] values = new Object[degree];
+                for (int field = 0; field < degree; field++) {
+                    BinaryCodec<?> codec = FIELD_CODECS.get(random.nextInt(FIELD_CODECS.size()));
+                    fields.add(codec);
+                    values[field] = randomValue(codec, random);
+                }
+                TupleCodec<Tuple> codec = TupleCodec.of(fields);
+                Tuple tuple = toTuple(values);
+
+                for (ByteBuffer buffer : Arrays.asList(heapBuffer, directBuffer)) {
+                    buffer.clear();
+                    codec.encode(tuple, buffer);
+                    int end = buffer.position();
+                    buffer.flip();
+
+                    assertThat(codec.decode(buffer).equals(tuple)).isTrue();
+                    assertThat(buffer.position()).isEqualTo(end);
+
+                    buffer.rewind();
+                    codec.skip(buffer);
+                    assertThat(buffer.position()).isEqualTo(end);
+
+                    buffer.rewind();
+                    assertThat(codec.view(buffer).toTuple().equals(tuple)).isTrue();
+                    assertThat(buffer.position()).isEqualTo(end);
+                }
+            }
+        }
+    }
+
+    @Test
+    void stringsAreEncodedAsUtf8() {
+
+        List<String> strings = Arrays.asList("", "Pencil", "Blåbærgrød", "€", "😀 smiley");
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (String string : strings) {
+            buffer.clear();
+            BinaryCodecs.STRING.encode(string, buffer);
+            buffer.flip();
+
+            byte[] expected = string.getBytes(StandardCharsets.UTF_8);
+            assertThat(buffer.getInt()).isEqualTo(expected.length);
+            byte[] actual = new byte[buffer.remaining()];
+            buffer.get(actual);
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        buffer.clear();
+        BinaryCodecs.STRING.encode("unpaired \uD83D", buffer);
+        buffer.flip();
+        assertThat(BinaryCodecs.STRING.decode(buffer)).isEqualTo("unpaired ?");
+    }
+
+    @Test
+    void ranges() {
+
+        BinaryCodec<Range<Integer>> codec = BinaryCodecs.range(BinaryCodecs.INT);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        codec.encode(new Range<>(56, 47), buffer);
+        buffer.flip();
+
+        assertThat(codec.decode(buffer).equals(new Range<>(47, 56))).isTrue();
+    }
+
+    @Test
+    void lazyView() {
+
+        TupleCodec<Tuple3<Integer, String, Integer>> codec = TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        orderLines.forEach(orderLine -> codec.encode(orderLine, buffer));
+        buffer.flip();
+
+        // Sum the amounts of order 1, without decoding the names
+        int amount = 0;
+        while (buffer.hasRemaining()) {
+            TupleCodec<Tuple3<Integer, String, Integer>>.View orderLine = codec.view(buffer);
+            if (orderLine.getInt(0) == 1) {
+                amount += orderLine.getInt(2);
+            }
+        }
+        assertThat(amount).isEqualTo(5);
+
+        buffer.rewind();
+        TupleCodec<Tuple3<Integer, String, Integer>>.View first = codec.view(buffer);
+        assertThat(first.get(1)).isEqualTo("Pencil");
+        assertThatThrownBy(() -> first.getLong(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void codecsAreCachedPerShape() {
+
+        assertThat(TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING))
+                .isSameAs(TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING))
+                .isSameAs(TupleCodec.of(Arrays.asList(BinaryCodecs.INT, BinaryCodecs.STRING)));
+        assertThat(TupleCodec.of(BinaryCodecs.nullable(BinaryCodecs.INT)))
+                .isSameAs(TupleCodec.of(BinaryCodecs.nullable(BinaryCodecs.INT)));
+
+        // Other codecs are not cached, so the cache does not keep them alive
+        BinaryCodec<Integer> custom = new BinaryCodec<Integer>() {
+            @Override
+            public void encode(Integer value, ByteBuffer buffer) {
+                buffer.putInt(value);
+            }
+
+            @Override
+            public Integer decode(ByteBuffer buffer) {
+                return buffer.getInt();
+            }
+        };
+        assertThat(TupleCodec.of(BinaryCodecs.INT, custom)).isNotSameAs(TupleCodec.of(BinaryCodecs.INT, custom));
+    }
+
+    @Test
+    void invalidUse() {
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        TupleCodec<Tuple> codec = TupleCodec.of(Arrays.asList(BinaryCodecs.INT, BinaryCodecs.STRING));
+
+        assertThatThrownBy(() -> codec.encode(Tuple.tuple(1), buffer)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.encode(Tuple.tuple(null, "name"), buffer)).isInstanceOf(NullPointerException.class);
+    }
+
+    private static Object randomValue(BinaryCodec<?> codec, Random random) {
+        if (codec == BinaryCodecs.INT) {
+            return random.nextInt();
+        }
+        if (codec == BinaryCodecs.LONG) {
+            return random.nextLong();
+        }
+        if (codec == BinaryCodecs.DOUBLE) {
+            return random.nextDouble();
+        }
+        if (codec == BinaryCodecs.BOOLEAN) {
+            return random.nextBoolean();
+        }
+        if (codec == BinaryCodecs.CHAR) {
+            return (char) random.nextInt(Character.MIN_SURROGATE);
+        }
+        if (codec == BinaryCodecs.STRING) {
+            StringBuilder string = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                int codePoint = random.nextInt(Character.MAX_CODE_POINT + 1);
+                if (codePoint < Character.MIN_SURROGATE || codePoint > Character.MAX_SURROGATE) {
+                    string.appendCodePoint(codePoint);
+                }
+            }
+            return string.toString();
+        }
+        if (codec.equals(BinaryCodecs.nullable(BinaryCodecs.INT))) {
+            return random.nextBoolean() ? null : random.nextInt();
+        }
+        if (codec.equals(BinaryCodecs.nullable(BinaryCodecs.STRING))) {
+            return random.nextBoolean() ? null : randomValue(BinaryCodecs.STRING, random);
+        }
+        return new Range<>(random.nextInt(), random.nextInt());
+    }
+
+    private static Tuple toTuple(Object[] values) {
+        try {
+            Class<?>[] parameterTypes = new Class<?>[values.length];
+            Arrays.fill(parameterTypes, Object.class);
+            return (Tuple) Class.forName(Tuple.class.getName() + values.length).getConstructor(parameterTypes).newInstance(values);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
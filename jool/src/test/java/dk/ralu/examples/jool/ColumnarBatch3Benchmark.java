@@ -0,0 +1,93 @@
+package dk.ralu.examples.jool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares scans of order lines stored as a {@code List<Tuple3>} and as a {@link ColumnarBatch3}: summing the amounts of the order lines
+ * with a given product name.
+ * <p>
+ * The heap used by each representation is printed during setup. Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class ColumnarBatch3Benchmark {
+
+    private static final String[] PRODUCTS = {"Pencil", "Cup", "Phone", "Paper", "Brush", "Stapler", "Lamp", "Chair"};
+
+    @Param({"10000000"})
+    private int numberOfOrderLines;
+
+    private List<Tuple3<Integer, String, Integer>> orderLines;
+    private ColumnarBatch3<Integer, String, Integer> batch;
+    private IntColumn amounts;
+
+    @Setup
+    public void createOrderLines() {
+        Random random = new Random(42);
+        long heapBefore = usedHeapAfterGc();
+        orderLines = new ArrayList<>(numberOfOrderLines);
+        for (int i = 0; i < numberOfOrderLines; i++) {
+            // New strings, like they would be when parsed from a file
+            orderLines.add(Tuple.tuple(i / 3, new String(PRODUCTS[random.nextInt(PRODUCTS.length)]), 1 + random.nextInt(1000)));
+        }
+        long heapWithList = usedHeapAfterGc();
+        batch = ColumnarBatch3.of(orderLines, IntColumn.builder(), DictionaryColumn.builder(), IntColumn.builder());
+        amounts = IntColumn.of(batch.column3());
+        long heapWithBoth = usedHeapAfterGc();
+        System.out.println("List<Tuple3>:   " + (heapWithList - heapBefore) / (1024 * 1024) + " MB");
+        System.out.println("ColumnarBatch3: " + (heapWithBoth - heapWithList) / (1024 * 1024) + " MB");
+    }
+
+    @Benchmark
+    public long listScan() {
+        long sum = 0;
+        for (Tuple3<Integer, String, Integer> orderLine : orderLines) {
+            if ("Pencil".equals(orderLine.v2())) {
+                sum += orderLine.v3();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long columnarScan() {
+        return amounts.sum(batch.column2().filter("Pencil"::equals, batch.all()));
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ColumnarBatch3Benchmark.class.getSimpleName()).build()).run();
+    }
+}
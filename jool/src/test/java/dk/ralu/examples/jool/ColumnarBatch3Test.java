@@ -0,0 +1,133 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+
+class ColumnarBatch3Test {
+
+    // Location is: id, parent_id, name
+    private final List<Tuple3<Integer, Integer, String>> locations = Arrays.asList(
+            Tuple.tuple(1, null, "Europe"),
+            Tuple.tuple(2, 1, "Denmark"),
+            Tuple.tuple(3, 1, "Germany"),
+            Tuple.tuple(4, 2, "Copenhagen"),
+            Tuple.tuple(4, 2, "Kolding"),
+            Tuple.tuple(5, 3, "Berlin")
+    );
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1)
+    );
+
+    @Test
+    void rowsAreReadBackAsTuples() {
+
+        ColumnarBatch3<Integer, Integer, String> batch =
+                ColumnarBatch3.of(locations, IntColumn.builder(), IntColumn.builder(), DictionaryColumn.builder());
+
+        assertThat(batch.size()).isEqualTo(6);
+        assertThat(batch.rows().toList()).isEqualTo(locations);
+        assertThat(batch.row(0).v2()).isNull();
+        assertThat(batch.column2().isNull(0)).isTrue();
+    }
+
+    @Test
+    void groupBy() {
+
+        // Same as Sequences.groupBy(), but on columns
+
+        ColumnarBatch3<Integer, Integer, String> batch =
+                ColumnarBatch3.of(locations, IntColumn.builder(), IntColumn.builder(), DictionaryColumn.builder());
+
+        Map<Integer, Selection> groups = batch.column2().groupBy(batch.all());
+
+        List<String> namesOfLocationsInDenmark = batch.rows(groups.get(2))
+                .map(Tuple3::v3)
+                .collect(Collectors.toList());
+
+        assertThat(namesOfLocationsInDenmark)
+                .containsExactly(
+                        "Copenhagen",
+                        "Kolding"
+                );
+        assertThat(groups).doesNotContainKey(null);
+    }
+
+    @Test
+    void filterAndAggregate() {
+
+        ColumnarBatch3<Integer, String, Integer> batch =
+                ColumnarBatch3.of(orderLines, IntColumn.builder(), DictionaryColumn.builder(), IntColumn.builder());
+
+        Selection pencils = batch.column2().filter("Pencil"::equals, batch.all());
+        assertThat(pencils).isEqualTo(Selection.of(0, 3));
+        assertThat(IntColumn.of(batch.column3()).sum(pencils)).isEqualTo(7);
+
+        Selection bigPencilOrders = IntColumn.of(batch.column3()).filterInt(amount -> amount > 2, pencils);
+        assertThat(batch.rows(bigPencilOrders).toList()).containsExactly(Tuple.tuple(2, "Pencil", 5));
+
+        Map<String, Long> amountsByName = Seq.seq(batch.column2().groupBy(batch.all()))
+                .toMap(group -> group.v1(), group -> IntColumn.of(batch.column3()).sum(group.v2()));
+        assertThat(amountsByName)
+                .containsEntry("Pencil", 7L)
+                .containsEntry("Paper", 100L)
+                .hasSize(5);
+    }
+
+    @Test
+    void gatherSelectedRows() {
+
+        ColumnarBatch3<Integer, String, Integer> batch =
+                ColumnarBatch3.of(orderLines, IntColumn.builder(), DictionaryColumn.builder(), IntColumn.builder());
+
+        Selection firstOrder = IntColumn.of(batch.column1()).filterInt(orderId -> orderId == 1, batch.all());
+        ColumnarBatch3<Integer, String, Integer> gathered = batch.gather(firstOrder);
+
+        assertThat(gathered.rows().toList()).isEqualTo(orderLines.subList(0, 3));
+    }
+
+    @Test
+    void dictionaryStoresEachValueOnce() {
+
+        DictionaryColumn.Builder<String> builder = DictionaryColumn.builder();
+        for (Tuple3<Integer, String, Integer> orderLine : orderLines) {
+            builder.add(orderLine.v2());
+        }
+        builder.add(null);
+        DictionaryColumn<String> names = builder.build();
+
+        assertThat(names.size()).isEqualTo(7);
+        assertThat(names.dictionarySize()).isEqualTo(5);
+        assertThat(names.code(0)).isEqualTo(names.code(3));
+        assertThat(names.get(6)).isNull();
+    }
+
+    @Test
+    void nullsAcrossManyRows() {
+
+        IntColumn.Builder builder = IntColumn.builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add(i % 7 == 0 ? null : i);
+        }
+        IntColumn column = builder.build();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(column.get(i)).isEqualTo(i % 7 == 0 ? null : i);
+        }
+        assertThat(column.filterInt(value -> true, Selection.all(1000)).size()).isEqualTo(1000 - 143);
+    }
+}
@@ -0,0 +1,60 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimatesAreNeverTooLowAndRarelyTooHigh() {
+
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            values.add((int) Math.abs(random.nextGaussian() * 5_000));
+        }
+        Map<Integer, Long> counts = Seq.seq(values).groupBy(value -> value, Collectors.counting());
+
+        double epsilon = 0.001;
+        double confidence = 0.99;
+        CountMinSketch sketch = Seq.seq(values).collect(CountMinSketch.toCountMinSketch(epsilon, confidence));
+        assertThat(sketch.totalCount()).isEqualTo(values.size());
+
+        long tooHigh = 0;
+        for (Map.Entry<Integer, Long> count : counts.entrySet()) {
+            long estimate = sketch.estimate(count.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(count.getValue());
+            if (estimate > count.getValue() + epsilon * values.size()) {
+                tooHigh++;
+            }
+        }
+        assertThat((double) tooHigh / counts.size()).isLessThanOrEqualTo(1 - confidence);
+        assertThat(sketch.estimate(-1)).isLessThanOrEqualTo((long) (epsilon * values.size()));
+    }
+
+    @Test
+    void mergedSketchesGiveTheSameEstimates() {
+
+        List<String> values = Seq.range(0, 100_000).map(i -> "Value " + i % 1_234).toList();
+
+        CountMinSketch all = CountMinSketch.withError(0.01, 0.9);
+        values.forEach(all::add);
+
+        assertThat(values.parallelStream().collect(CountMinSketch.toCountMinSketch(0.01, 0.9))).isEqualTo(all);
+
+        CountMinSketch weighted = CountMinSketch.withError(0.01, 0.9);
+        Seq.seq(values).groupBy(value -> value, Collectors.counting()).forEach(weighted::add);
+        assertThat(weighted).isEqualTo(all);
+
+        assertThatThrownBy(() -> all.merge(new CountMinSketch(10, 2))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> all.add("Value", -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
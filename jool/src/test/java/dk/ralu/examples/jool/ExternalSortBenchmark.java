@@ -0,0 +1,66 @@
+package dk.ralu.examples.jool;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Sorts order lines, generated on the fly in random order, with {@link Seq#sorted(Comparator)} and with {@link ExternalSort}, keeping
+ * at most 100,000 rows in memory.
+ * <p>
+ * The external sort trades time for memory: it reads and writes every row once per merge pass, but its heap use does not grow with the
+ * input. Run with a small heap, e.g. {@code -Xmx256m}, and more rows, to see {@link Seq#sorted(Comparator)} run out of memory.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExternalSortBenchmark {
+
+    private static final TupleCodec<Tuple3<Integer, String, Integer>> CODEC =
+            TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+    private static final Comparator<Tuple3<Integer, String, Integer>> BY_ORDER = Comparator.comparing(Tuple3::v1);
+
+    @Param({"1000000"})
+    private int numberOfRows;
+
+    @Benchmark
+    public long sortInMemory() {
+        return orderLines().sorted(BY_ORDER).mapToLong(Tuple3::v3).sum();
+    }
+
+    @Benchmark
+    public long externalSort() {
+        try (Seq<Tuple3<Integer, String, Integer>> sorted = ExternalSort.sorted(orderLines(), BY_ORDER, CODEC, 100_000)) {
+            return sorted.mapToLong(Tuple3::v3).sum();
+        }
+    }
+
+    // Fields are: order_id, name, amount
+    private Seq<Tuple3<Integer, String, Integer>> orderLines() {
+        return Seq.range(0, numberOfRows).map(i -> Tuple.tuple((int) (i * 7919L % numberOfRows), "Order line " + i, i % 97));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExternalSortBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatObject;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExternalSortTest {
+
+    private static final TupleCodec<Tuple3<Integer, String, Integer>> CODEC =
+            TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1) // order line without an order
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void orderLinesByAmount() {
+
+        // Two rows per run, so the order lines are spilled to three runs
+        List<Tuple3<Integer, String, Integer>> sorted =
+                ExternalSort.sorted(Seq.seq(orderLines), Comparator.comparing(Tuple3::v3), CODEC, 2, tempDir).toList();
+
+        // Rows with the same amount keep their order
+        assertThat(sorted).containsExactly(
+                Tuple.tuple(1, "Cup", 1),
+                Tuple.tuple(4, "Brush", 1),
+                Tuple.tuple(1, "Pencil", 2),
+                Tuple.tuple(1, "Phone", 2),
+                Tuple.tuple(2, "Pencil", 5),
+                Tuple.tuple(2, "Paper", 100));
+    }
+
+    @Test
+    void sameResultAsSortInMemory() throws IOException {
+
+        Random random = new Random(42);
+        List<Tuple3<Integer, String, Integer>> rows = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            rows.add(Tuple.tuple(random.nextInt(1_000), "Order line " + i, random.nextInt(100)));
+        }
+        Comparator<Tuple3<Integer, String, Integer>> byOrderAndAmount =
+                Comparator.comparing((Tuple3<Integer, String, Integer> row) -> row.v1).thenComparing(Tuple3::v3);
+        List<Tuple3<Integer, String, Integer>> expected = Seq.seq(rows).sorted(byOrderAndAmount).toList();
+
+        // Fits in memory
+        assertThat(ExternalSort.sorted(Seq.seq(rows), byOrderAndAmount, CODEC, 50_000, tempDir).toList()).isEqualTo(expected);
+        // 20 runs merged at once
+        assertThat(ExternalSort.sorted(Seq.seq(rows), byOrderAndAmount, CODEC, 1_000, tempDir).toList()).isEqualTo(expected);
+        // 157 runs, merged 4 at a time
+        assertThat(ExternalSort.sorted(Seq.seq(rows), byOrderAndAmount, CODEC, 128, tempDir, 4).toList()).isEqualTo(expected);
+
+        assertThat(ExternalSort.sorted(Seq.<Tuple3<Integer, String, Integer>>empty(), byOrderAndAmount, CODEC, 10, tempDir).toList())
+                .isEmpty();
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    @Test
+    void lazyAndClosable() {
+
+        List<Integer> read = new ArrayList<>();
+        Seq<Tuple3<Integer, String, Integer>> input = Seq.seq(orderLines).peek(row -> read.add(row.v1));
+
+        try (Seq<Tuple3<Integer, String, Integer>> sorted =
+                ExternalSort.sorted(input, Comparator.comparing(Tuple3::v2), CODEC, 1, tempDir)) {
+
+            assertThat(read).isEmpty();
+            Iterator<Tuple3<Integer, String, Integer>> iterator = sorted.iterator();
+            assertThatObject(iterator.next()).isEqualTo(Tuple.tuple(4, "Brush", 1)); // A tuple is also an Iterable
+            assertThat(read).hasSize(orderLines.size());
+        }
+    }
+
+    @Test
+    void invalidArguments() {
+
+        assertThatThrownBy(() -> ExternalSort.sorted(Seq.seq(orderLines), Comparator.comparing(Tuple3::v3), CODEC, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExternalSort.sorted(Seq.seq(orderLines), Comparator.comparing(Tuple3::v3), null, 10))
+                .isInstanceOf(NullPointerException.class);
+    }
+}
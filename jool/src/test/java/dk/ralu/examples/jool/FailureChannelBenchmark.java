@@ -0,0 +1,79 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.Unchecked;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares mapping good records through {@link Unchecked#function} and through a {@link FailureChannel}, to show the channel adds no
+ * allocation on the success path.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FailureChannelBenchmark {
+
+    private static final int RECORDS = 10_000;
+
+    private final Function<String, String> unchecked = Unchecked.function(FailureChannelBenchmark::validate);
+    private final FailureChannel<String> failures = new FailureChannel<>(100);
+    private List<String> records;
+
+    @Setup
+    public void createRecords() {
+        records = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            records.add("record " + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long unchecked() {
+        return Seq.seq(records).map(unchecked).count();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long failureChannel() {
+        return failures.map(Seq.seq(records), FailureChannelBenchmark::validate).count();
+    }
+
+    private static String validate(String record) throws Exception {
+        if (record.isEmpty()) {
+            throw new Exception("Empty record");
+        }
+        return record;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(FailureChannelBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.Unchecked;
+import org.jooq.lambda.UncheckedException;
+import org.junit.jupiter.api.Test;
+
+class FailureChannelTest {
+
+    @Test
+    void badElementsAreRecordedAndSkipped() {
+
+        // With Unchecked, like in Exceptions, the first bad element ends the stream
+        Function<String, Integer> unchecked = Unchecked.function(FailureChannelTest::parseAmount);
+        assertThatThrownBy(() -> Seq.of("2", "two", "5").map(unchecked).toList()).isInstanceOf(UncheckedException.class);
+
+        FailureChannel<String> failures = new FailureChannel<>(10);
+        List<Integer> amounts = failures.map(Seq.of("2", "two", "5", "-1", "", "7"), FailureChannelTest::parseAmount).toList();
+
+        assertThat(amounts).containsExactly(2, 5, 7);
+        assertThat(failures.count()).isEqualTo(3);
+        assertThat(failures.countsByType())
+                .containsEntry(ParseException.class, 2L)
+                .containsEntry(IllegalArgumentException.class, 1L);
+        assertThat(failures.failedInputs()).containsExactly("two", "-1", "");
+        assertThat(failures.samples().get(0).exception()).hasMessage("Not a number: two");
+    }
+
+    @Test
+    void samplesAreBounded() {
+
+        FailureChannel<String> failures = new FailureChannel<>(2);
+        long count = failures.map(Seq.of("a", "b", "c", "4"), FailureChannelTest::parseAmount).count();
+
+        assertThat(count).isEqualTo(1);
+        assertThat(failures.count()).isEqualTo(3);
+        assertThat(failures.failedInputs()).containsExactly("a", "b");
+    }
+
+    @Test
+    void parallelStream() {
+
+        FailureChannel<String> failures = new FailureChannel<>(100);
+        List<Integer> amounts = failures
+                .map(IntStream.range(0, 100_000).mapToObj(i -> i % 100 == 0 ? "bad " + i : Integer.toString(i)).parallel(),
+                        FailureChannelTest::parseAmount)
+                .collect(Collectors.toList());
+
+        assertThat(amounts).hasSize(99_000);
+        assertThat(amounts.get(0)).isEqualTo(1);
+        assertThat(failures.count()).isEqualTo(1_000);
+        assertThat(failures.samples()).hasSize(100);
+        assertThat(failures.failedInputs()).allMatch(input -> input.startsWith("bad "));
+    }
+
+    @Test
+    void interruptEndsTheStream() {
+
+        FailureChannel<Integer> failures = new FailureChannel<>(10);
+        Thread.currentThread().interrupt();
+
+        assertThatThrownBy(() -> failures.map(Seq.of(1, 2, 3), millis -> {
+            Thread.sleep(millis);
+            return millis;
+        }).toList())
+                .isInstanceOf(StacklessUncheckedException.class)
+                .hasCauseInstanceOf(InterruptedException.class);
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(failures.count()).isZero();
+    }
+
+    private static int parseAmount(String string) throws ParseException {
+        if (string.isEmpty()) {
+            throw new IllegalArgumentException("Empty amount");
+        }
+        int amount;
+        try {
+            amount = Integer.parseInt(string);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Not a number: " + string, 0);
+        }
+        if (amount < 0) {
+            throw new ParseException("Not a positive amount: " + string, 0);
+        }
+        return amount;
+    }
+}
@@ -0,0 +1,82 @@
+package dk.ralu.examples.jool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Sums two columns of order lines, generated on the fly, through two branches of one pass over the rows: with {@link Seq#duplicate()},
+ * and with {@link FanOut} spilling to disk or blocking, with a buffer of 1,000 rows.
+ * <p>
+ * One branch is consumed to the end before the other is started, except for the blocking version, which consumes the other branch on
+ * another thread. {@link Seq#duplicate()} then keeps every row on the heap, and the spilling version keeps every row on disk, while the
+ * blocking version never holds more than the buffer.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class FanOutBenchmark {
+
+    private static final TupleCodec<Tuple3<Integer, String, Integer>> CODEC =
+            TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+
+    @Param({"1000000"})
+    private int numberOfRows;
+
+    @Benchmark
+    public long seqDuplicate() {
+        Tuple2<Seq<Tuple3<Integer, String, Integer>>, Seq<Tuple3<Integer, String, Integer>>> branches = orderLines().duplicate();
+        return branches.v1.mapToLong(Tuple3::v1).sum() + branches.v2.mapToLong(Tuple3::v3).sum();
+    }
+
+    @Benchmark
+    public long fanOutSpilling() {
+        Tuple2<Seq<Integer>, Seq<Integer>> columns = FanOut.spilling(1_000, CODEC).unzip(orderLines(), Tuple3::v1, Tuple3::v3);
+        try (Seq<Integer> orderIds = columns.v1; Seq<Integer> amounts = columns.v2) {
+            return orderIds.mapToLong(Integer::longValue).sum() + amounts.mapToLong(Integer::longValue).sum();
+        }
+    }
+
+    @Benchmark
+    public long fanOutBlocking() {
+        Tuple2<Seq<Integer>, Seq<Integer>> columns =
+                FanOut.<Tuple3<Integer, String, Integer>>blocking(1_000).unzip(orderLines(), Tuple3::v1, Tuple3::v3);
+        CompletableFuture<Long> amounts = CompletableFuture.supplyAsync(() -> columns.v2.mapToLong(Integer::longValue).sum());
+        return columns.v1.mapToLong(Integer::longValue).sum() + amounts.join();
+    }
+
+    // Fields are: order_id, name, amount
+    private Seq<Tuple3<Integer, String, Integer>> orderLines() {
+        return Seq.range(0, numberOfRows).map(i -> Tuple.tuple(i / 20, "Order line " + i, i % 97));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(FanOutBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
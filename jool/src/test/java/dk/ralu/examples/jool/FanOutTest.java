@@ -0,0 +1,145 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FanOutTest {
+
+    private static final TupleCodec<Tuple3<Integer, String, Integer>> CODEC =
+            TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1)
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sameResultsAsSeq() {
+
+        FanOut<Tuple3<Integer, String, Integer>> fanOut = FanOut.failing(10);
+
+        Tuple2<Seq<Tuple3<Integer, String, Integer>>, Seq<Tuple3<Integer, String, Integer>>> partitioned =
+                fanOut.partition(Seq.seq(orderLines), line -> line.v3 > 1);
+        Tuple2<Seq<Tuple3<Integer, String, Integer>>, Seq<Tuple3<Integer, String, Integer>>> expected =
+                Seq.seq(orderLines).partition(line -> line.v3 > 1);
+        assertThat(partitioned.v1.toList()).isEqualTo(expected.v1.toList());
+        assertThat(partitioned.v2.toList()).isEqualTo(expected.v2.toList());
+
+        Tuple3<Seq<Integer>, Seq<String>, Seq<Integer>> columns = fanOut.unzip(Seq.seq(orderLines), Tuple3::v1, Tuple3::v2, Tuple3::v3);
+        assertThat(columns.v3.toList()).containsExactly(2, 1, 2, 5, 100, 1);
+        assertThat(columns.v2.toList()).containsExactly("Pencil", "Cup", "Phone", "Pencil", "Paper", "Brush");
+        assertThat(columns.v1.toList()).containsExactly(1, 1, 1, 2, 2, 4);
+    }
+
+    @Test
+    void failsWhenABranchLagsTooFarBehind() {
+
+        Tuple2<Seq<Integer>, Seq<Integer>> branches = FanOut.<Integer>failing(100).duplicate(Seq.range(0, 1_000));
+
+        // In step, the buffers never hold more than one row
+        Iterator<Integer> first = branches.v1.iterator();
+        Iterator<Integer> second = branches.v2.iterator();
+        for (int i = 0; i < 500; i++) {
+            assertThat(first.next()).isEqualTo(second.next());
+        }
+
+        assertThatThrownBy(() -> {
+            while (first.hasNext()) {
+                first.next();
+            }
+        }).isInstanceOf(IllegalStateException.class).hasMessageContaining("more than 100 rows behind");
+    }
+
+    @Test
+    void spillsWhenABranchLags() throws IOException {
+
+        List<Tuple3<Integer, String, Integer>> rows = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            rows.add(Tuple.tuple(i % 1_000, "Order line " + i, i % 7));
+        }
+
+        Tuple2<Seq<Tuple3<Integer, String, Integer>>, Seq<Tuple3<Integer, String, Integer>>> branches =
+                FanOut.spilling(100, CODEC, tempDir).duplicate(Seq.seq(rows));
+
+        // The second branch first lags 20,000 rows behind, then catches up, and then lags again
+        Iterator<Tuple3<Integer, String, Integer>> first = branches.v1.iterator();
+        Iterator<Tuple3<Integer, String, Integer>> second = branches.v2.iterator();
+        List<Tuple3<Integer, String, Integer>> firstRows = new ArrayList<>();
+        List<Tuple3<Integer, String, Integer>> secondRows = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            firstRows.add(first.next());
+        }
+        for (int i = 0; i < 30_000; i++) {
+            secondRows.add(second.next());
+        }
+        first.forEachRemaining(firstRows::add);
+        second.forEachRemaining(secondRows::add);
+
+        assertThat(firstRows).isEqualTo(rows);
+        assertThat(secondRows).isEqualTo(rows);
+
+        branches.v1.close();
+        branches.v2.close();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    @Test
+    void blocksUntilTheLaggingBranchCatchesUp() {
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+
+            Tuple2<Seq<Integer>, Seq<String>> columns = FanOut.<Tuple2<Integer, String>>blocking(16)
+                    .unzip(Seq.range(0, 100_000).map(i -> Tuple.tuple(i, "Row " + i)), Tuple2::v1, Tuple2::v2);
+
+            CompletableFuture<List<String>> second = CompletableFuture.supplyAsync(columns.v2::toList);
+            List<Integer> first = columns.v1.toList();
+
+            assertThat(first).isEqualTo(Seq.range(0, 100_000).toList());
+            assertThat(second.join()).isEqualTo(Seq.range(0, 100_000).map(i -> "Row " + i).toList());
+        });
+    }
+
+    @Test
+    void closedBranchesAreSkipped() {
+
+        AtomicBoolean closed = new AtomicBoolean();
+        Tuple2<Seq<Integer>, Seq<Integer>> branches =
+                FanOut.<Integer>blocking(4).partition(Seq.range(0, 1_000).onClose(() -> closed.set(true)), i -> i % 2 == 0);
+
+        branches.v2.close();
+        assertThat(branches.v1.count()).isEqualTo(500);
+
+        assertThat(closed).isFalse();
+        branches.v1.close();
+        assertThat(closed).isTrue();
+    }
+}
@@ -0,0 +1,80 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link HashJoin} with the nested loop joins of {@link Seq}, joining orders with 3 order lines per order.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HashJoinBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int numberOfOrders;
+
+    private List<Tuple2<Integer, String>> orders;
+    private List<Tuple3<Integer, String, Integer>> orderLines;
+
+    @Setup
+    public void createOrders() {
+        orders = new ArrayList<>(numberOfOrders);
+        orderLines = new ArrayList<>(numberOfOrders * 3);
+        for (int orderId = 0; orderId < numberOfOrders; orderId++) {
+            orders.add(Tuple.tuple(orderId, "Order " + orderId));
+            for (int lineNumber = 0; lineNumber < 3; lineNumber++) {
+                orderLines.add(Tuple.tuple(orderId, "Line " + lineNumber, lineNumber + 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public long nestedLoopInnerJoin() {
+        return Seq.seq(orders).innerJoin(orderLines, (order, orderLine) -> Objects.equals(order.v1(), orderLine.v1())).count();
+    }
+
+    @Benchmark
+    public long hashInnerJoin() {
+        return HashJoin.innerJoin(orders, orderLines, Tuple2::v1, Tuple3::v1).count();
+    }
+
+    @Benchmark
+    public long nestedLoopLeftOuterJoin() {
+        return Seq.seq(orders).leftOuterJoin(orderLines, (order, orderLine) -> Objects.equals(order.v1(), orderLine.v1())).count();
+    }
+
+    @Benchmark
+    public long hashLeftOuterJoin() {
+        return HashJoin.leftOuterJoin(orders, orderLines, Tuple2::v1, Tuple3::v1).count();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HashJoinBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,162 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.BiPredicate;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.jooq.lambda.tuple.Tuple4;
+import org.junit.jupiter.api.Test;
+
+class HashJoinTest {
+
+    // Fields are: id, name
+    private final List<Tuple2<Integer, String>> orders = Arrays.asList(
+            Tuple.tuple(1, "First order"),
+            Tuple.tuple(2, "Second order"),
+            Tuple.tuple(3, "Third order") // order without any order lines
+    );
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1) // order line without an order
+    );
+
+    @Test
+    void innerJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                HashJoin.innerJoin(orders, orderLines, Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                );
+    }
+
+    @Test
+    void leftOuterJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                HashJoin.leftOuterJoin(orders, orderLines, Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                                   + "(3, Third order, null, null)\n" // <-- note the nulls
+                );
+    }
+
+    @Test
+    void rightOuterJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                HashJoin.rightOuterJoin(orders, orderLines, Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                                   + "(null, null, Brush, 1)\n" // <-- note the nulls
+                );
+    }
+
+    @Test
+    void fullOuterJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                HashJoin.fullOuterJoin(orders, orderLines, Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                                   + "(null, null, Brush, 1)\n"
+                                   + "(3, Third order, null, null)\n" // unmatched rows of the hashed side come last
+                );
+    }
+
+    @Test
+    void streamedLeftSideKeepsTheOrderOfTheNestedLoopJoin() {
+
+        // When the left side is not a collection, the right side is hashed and the left side streamed - just like Seq does it
+
+        BiPredicate<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>> joinPredicate =
+                (order, orderLine) -> Objects.equals(order.v1(), orderLine.v1());
+
+        assertThat(toString(HashJoin.leftOuterJoin(Seq.seq(orders), orderLines, Tuple2::v1, Tuple3::v1)))
+                .isEqualTo(toString(Seq.seq(orders).leftOuterJoin(Seq.seq(orderLines), joinPredicate)));
+
+        assertThat(toString(HashJoin.innerJoin(Seq.seq(orders), Seq.seq(orderLines), Tuple2::v1, Tuple3::v1)))
+                .isEqualTo(toString(Seq.seq(orders).innerJoin(Seq.seq(orderLines), joinPredicate)));
+    }
+
+    @Test
+    void sameRowsAsNestedLoopJoinsForRandomInput() {
+
+        Random random = new Random(42);
+        List<Tuple2<Integer, String>> randomOrders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            randomOrders.add(Tuple.tuple(random.nextInt(100), "Order " + i));
+        }
+        List<Tuple3<Integer, String, Integer>> randomOrderLines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            randomOrderLines.add(Tuple.tuple(random.nextInt(120), "Line " + i, random.nextInt(10)));
+        }
+        BiPredicate<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>> joinPredicate =
+                (order, orderLine) -> Objects.equals(order.v1(), orderLine.v1());
+
+        assertThat(HashJoin.innerJoin(randomOrders, randomOrderLines, Tuple2::v1, Tuple3::v1).toList())
+                .containsExactlyInAnyOrderElementsOf(Seq.seq(randomOrders).innerJoin(randomOrderLines, joinPredicate).toList());
+
+        assertThat(HashJoin.leftOuterJoin(randomOrders, randomOrderLines, Tuple2::v1, Tuple3::v1).toList())
+                .containsExactlyInAnyOrderElementsOf(Seq.seq(randomOrders).leftOuterJoin(randomOrderLines, joinPredicate).toList());
+
+        assertThat(HashJoin.rightOuterJoin(randomOrders, randomOrderLines, Tuple2::v1, Tuple3::v1).toList())
+                .containsExactlyInAnyOrderElementsOf(Seq.seq(randomOrders).rightOuterJoin(randomOrderLines, joinPredicate).toList());
+    }
+
+    private String toString(Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> result) {
+        Seq<Tuple4<Integer, String, String, Integer>> projectedResult = result.map(joinedTuple -> {
+            Tuple2<Integer, String> order = joinedTuple.v1();
+            Tuple3<Integer, String, Integer> orderLine = joinedTuple.v2();
+            return Tuple.tuple(
+                    order == null ? null : order.v1(),
+                    order == null ? null : order.v2(),
+                    orderLine == null ? null : orderLine.v2(),
+                    orderLine == null ? null : orderLine.v3()
+            );
+        });
+        StringBuilder sb = new StringBuilder();
+        for (Tuple4<Integer, String, String, Integer> row : projectedResult) {
+            sb.append(row.toString()).append('\n');
+        }
+        return sb.toString();
+    }
+}
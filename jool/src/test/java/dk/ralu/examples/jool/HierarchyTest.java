@@ -0,0 +1,102 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+
+class HierarchyTest {
+
+    // Location is: id, parent_id, name
+    private final List<Tuple3<Integer, Integer, String>> locations = Arrays.asList(
+            Tuple.tuple(1, null, "Europe"),
+            Tuple.tuple(2, 1, "Denmark"),
+            Tuple.tuple(3, 1, "Germany"),
+            Tuple.tuple(4, 2, "Copenhagen"),
+            Tuple.tuple(4, 2, "Kolding"),
+            Tuple.tuple(5, 3, "Berlin")
+    );
+
+    private final Hierarchy<Tuple3<Integer, Integer, String>, Integer> hierarchy = Hierarchy.ofTuples(locations);
+
+    @Test
+    void childParentPairsLikeSelfJoin() {
+
+        String result = hierarchy.childParentPairs()
+                .map(resultTuple -> resultTuple.v1().v3() + " is located in " + resultTuple.v2().v3())
+                .collect(Collectors.joining("\n"));
+
+        assertThat(result)
+                .isEqualTo(""
+                                   + "Denmark is located in Europe\n"
+                                   + "Germany is located in Europe\n"
+                                   + "Copenhagen is located in Denmark\n"
+                                   + "Kolding is located in Denmark\n"
+                                   + "Berlin is located in Germany");
+    }
+
+    @Test
+    void parentsAndChildren() {
+
+        Tuple3<Integer, Integer, String> denmark = hierarchy.row(2).get();
+
+        assertThat(hierarchy.parent(denmark).map(Tuple3::v3)).contains("Europe");
+        assertThat(hierarchy.parent(hierarchy.row(1).get())).isEmpty();
+        assertThat(hierarchy.children(denmark).map(Tuple3::v3).toList()).containsExactly("Copenhagen", "Kolding");
+        assertThat(hierarchy.roots().map(Tuple3::v3).toList()).containsExactly("Europe");
+    }
+
+    @Test
+    void ancestors() {
+
+        Tuple3<Integer, Integer, String> berlin = hierarchy.row(5).get();
+
+        assertThat(hierarchy.ancestors(berlin).map(Tuple3::v3).toString(" < ")).isEqualTo("Germany < Europe");
+        assertThat(hierarchy.ancestors(hierarchy.row(1).get()).toList()).isEmpty();
+    }
+
+    @Test
+    void descendants() {
+
+        Tuple3<Integer, Integer, String> europe = hierarchy.row(1).get();
+
+        assertThat(hierarchy.descendants(europe).map(Tuple3::v3).toList())
+                .containsExactly("Denmark", "Copenhagen", "Kolding", "Germany", "Berlin");
+    }
+
+    @Test
+    void cyclesAreDetected() {
+
+        Hierarchy<Tuple3<Integer, Integer, String>, Integer> cyclic = Hierarchy.ofTuples(Arrays.asList(
+                Tuple.tuple(1, 3, "A"),
+                Tuple.tuple(2, 1, "B"),
+                Tuple.tuple(3, 2, "C")
+        ));
+
+        assertThatThrownBy(() -> cyclic.ancestors(cyclic.row(1).get()).toList()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> cyclic.descendants(cyclic.row(1).get()).toList()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void sameResultAsSelfJoinForRandomTree() {
+
+        Random random = new Random(42);
+        List<Tuple3<Integer, Integer, String>> randomLocations = new ArrayList<>();
+        randomLocations.add(Tuple.tuple(0, null, "Root"));
+        for (int id = 1; id < 300; id++) {
+            randomLocations.add(Tuple.tuple(id, random.nextInt(id), "Location " + id));
+        }
+
+        assertThat(Hierarchy.ofTuples(randomLocations).childParentPairs().toList())
+                .isEqualTo(Seq.seq(randomLocations).innerSelfJoin((self, parent) -> Objects.equals(self.v2(), parent.v1())).toList());
+    }
+}
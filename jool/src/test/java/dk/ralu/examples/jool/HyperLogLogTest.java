@@ -0,0 +1,50 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import org.jooq.lambda.Seq;
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinTheStandardError() {
+
+        for (int distinct : new int[] {0, 1, 10, 1_000, 100_000, 1_000_000}) {
+            HyperLogLog counter = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                counter.add("Order line " + i);
+                counter.add("Order line " + i); // Duplicates do not count
+            }
+            // Small counts are estimated by linear counting, which is nearly exact
+            assertThat((double) counter.estimate()).isCloseTo(distinct, offset(
+                    Math.max(1, 3 * counter.standardError() * distinct)));
+        }
+    }
+
+    @Test
+    void mergedCountersGiveTheSameEstimate() {
+
+        List<Long> values = Seq.rangeClosed(1L, 500_000L).map(i -> i % 200_000).toList();
+
+        HyperLogLog all = new HyperLogLog(14);
+        values.forEach(all::addLong);
+        HyperLogLog parallel = values.parallelStream().collect(HyperLogLog.toHyperLogLog(14));
+
+        assertThat(parallel).isEqualTo(all);
+        assertThat(values.parallelStream().collect(HyperLogLog.distinctCount(14))).isEqualTo(all.estimate());
+        assertThat((double) all.estimate()).isBetween(200_000 * (1 - 3 * all.standardError()), 200_000 * (1 + 3 * all.standardError()));
+
+        // Boxed and primitive values are hashed alike
+        HyperLogLog boxed = new HyperLogLog(14);
+        LongStream.rangeClosed(1, 500_000).forEach(i -> boxed.add(i % 200_000));
+        assertThat(boxed).isEqualTo(all);
+
+        assertThatThrownBy(() -> all.merge(new HyperLogLog(12))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
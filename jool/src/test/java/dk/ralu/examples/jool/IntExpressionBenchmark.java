@@ -0,0 +1,91 @@
+package dk.ralu.examples.jool;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.function.Function0;
+import org.jooq.lambda.function.Function2;
+import org.jooq.lambda.function.Function3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Evaluates random expressions as nested {@link Function0}s built like in {@code Functions.applyPartial()}, as an {@link IntExpression}
+ * tree, and compiled into a {@link CompiledIntExpression}.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntExpressionBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private Function0<Integer> nestedFunctions;
+    private IntExpression expression;
+    private CompiledIntExpression compiled;
+
+    @Setup
+    public void createExpression() {
+        expression = IntExpressionTest.randomExpression(new Random(42), size);
+        nestedFunctions = toNestedFunctions(expression, new IdentityHashMap<>());
+        compiled = expression.compile();
+    }
+
+    @Benchmark
+    public int nestedFunctions() {
+        return nestedFunctions.apply();
+    }
+
+    @Benchmark
+    public int expressionTree() {
+        return expression.evaluate();
+    }
+
+    @Benchmark
+    public int compiledExpression() {
+        return compiled.getAsInt();
+    }
+
+    private static Function0<Integer> toNestedFunctions(IntExpression expression, Map<IntExpression, Function0<Integer>> converted) {
+        Function0<Integer> function = converted.get(expression);
+        if (function != null) {
+            return function;
+        }
+        Function3<Function2<Integer, Integer, Integer>, Function0<Integer>, Function0<Integer>, Function0<Integer>> binaryExpression =
+                (intBiFunction, intProvider1, intProvider2) ->
+                        () -> intBiFunction.apply(intProvider1.get(), intProvider2.get());
+        if (expression instanceof IntExpression.Binary) {
+            IntExpression.Binary binary = (IntExpression.Binary) expression;
+            function = binaryExpression.apply(binary.operator::apply,
+                    toNestedFunctions(binary.left, converted), toNestedFunctions(binary.right, converted));
+        } else {
+            int value = expression instanceof IntExpression.Constant ? expression.evaluate() : 0;
+            function = expression instanceof IntExpression.Constant ? () -> value : expression::evaluate;
+        }
+        converted.put(expression, function);
+        return function;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IntExpressionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
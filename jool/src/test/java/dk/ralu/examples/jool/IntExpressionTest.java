@@ -0,0 +1,151 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntSupplier;
+import org.jooq.lambda.function.Function1;
+import org.jooq.lambda.function.Function2;
+import org.junit.jupiter.api.Test;
+
+class IntExpressionTest {
+
+    @Test
+    void applyPartial() {
+
+        // Same expression as in Functions.applyPartial()
+
+        Function2<IntExpression, IntExpression, IntExpression> sumExpression = IntExpression.operator(IntExpression.Operator.SUM);
+        Function1<IntExpression, IntExpression> unaryIncrementExpression = sumExpression.applyPartially(IntExpression.constant(1));
+
+        IntExpression int1 = IntExpression.constant(1);
+        IntExpression int2 = IntExpression.constant(2);
+        IntExpression int3 = IntExpression.constant(3);
+
+        IntExpression expression = sumExpression.apply(
+                sumExpression.apply(int1, int2),
+                unaryIncrementExpression.apply(int3)
+        );
+
+        assertThat(expression.toString()).isEqualTo("((1 + 2) + (1 + 3))");
+        assertThat(expression.size()).isEqualTo(7);
+        assertThat(expression.evaluate()).isEqualTo(7);
+        assertThat(expression.toFunction0().apply()).isEqualTo(7);
+
+        // No inputs, so it folds into a single constant
+        CompiledIntExpression compiled = expression.compile();
+        assertThat(compiled.expression()).isEqualTo(IntExpression.constant(7));
+        assertThat(compiled.instructionCount()).isEqualTo(1);
+        assertThat(compiled.apply()).isEqualTo(7);
+    }
+
+    @Test
+    void inputsAreReadOnEveryEvaluation() {
+
+        AtomicInteger input = new AtomicInteger(2);
+        AtomicInteger reads = new AtomicInteger();
+        IntExpression x = IntExpression.input(() -> {
+            reads.incrementAndGet();
+            return input.get();
+        });
+
+        // max(x + (1 + 3), x + 4) is x + 4 twice, which is computed once
+        IntExpression expression = IntExpression.max(
+                IntExpression.sum(x, IntExpression.sum(IntExpression.constant(1), IntExpression.constant(3))),
+                IntExpression.sum(x, IntExpression.constant(4))
+        );
+        CompiledIntExpression compiled = expression.compile();
+
+        assertThat(compiled.toString()).isEqualTo("((input + 4) max (input + 4))");
+        assertThat(compiled.instructionCount()).isEqualTo(4); // x, 4, x + 4, max
+        assertThat(compiled.getAsInt()).isEqualTo(6);
+        input.set(10);
+        assertThat(compiled.getAsInt()).isEqualTo(14);
+        assertThat(reads.get()).isEqualTo(2);
+
+        int[] registers = new int[compiled.instructionCount()];
+        input.set(20);
+        assertThat(compiled.getAsInt(registers)).isEqualTo(24);
+        assertThatThrownBy(() -> compiled.getAsInt(new int[3])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * An input that evaluates the expression it is part of does not overwrite the registers of the outer evaluation.
+     */
+    @Test
+    void inputsCanEvaluateTheirOwnExpression() {
+
+        AtomicReference<CompiledIntExpression> compiled = new AtomicReference<>();
+        AtomicInteger depth = new AtomicInteger();
+        IntExpression y = IntExpression.input(depth::get);
+        IntExpression x = IntExpression.input(() -> depth.incrementAndGet() < 3 ? compiled.get().getAsInt() : 0);
+        compiled.set(IntExpression.sum(IntExpression.binary(IntExpression.Operator.PRODUCT, y, IntExpression.constant(10)), x).compile());
+
+        // Each evaluation adds 10 times its depth to the result of the evaluation inside it
+        assertThat(compiled.get().getAsInt()).isEqualTo(0 + (10 + (20 + 0)));
+    }
+
+    @Test
+    void compiledRandomExpressionsGiveSameResultAsNestedEvaluation() {
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            IntExpression expression = randomExpression(random, 1_000);
+            assertThat(expression.compile().getAsInt()).isEqualTo(expression.evaluate());
+            assertThat(expression.optimize().evaluate()).isEqualTo(expression.evaluate());
+        }
+    }
+
+    @Test
+    void deepExpressionsDoNotOverflowTheStack() {
+
+        IntExpression one = IntExpression.input(() -> 1);
+        IntExpression expression = one;
+        for (int i = 1; i < 100_000; i++) {
+            expression = IntExpression.sum(expression, one);
+        }
+
+        assertThat(expression.compile().getAsInt()).isEqualTo(100_000);
+    }
+
+    /**
+     * A random expression of about the given size, reusing earlier subexpressions so there is something to eliminate.
+     */
+    static IntExpression randomExpression(Random random, int size) {
+        List<IntSupplier> inputs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int value = random.nextInt(100);
+            inputs.add(() -> value);
+        }
+        IntExpression.Operator[] operators = {
+                IntExpression.Operator.SUM, IntExpression.Operator.DIFFERENCE, IntExpression.Operator.PRODUCT,
+                IntExpression.Operator.MAX, IntExpression.Operator.MIN, IntExpression.Operator.of("xor", (a, b) -> a ^ b)
+        };
+        List<IntExpression> subexpressions = new ArrayList<>();
+        return randomExpression(random, size, inputs, operators, subexpressions);
+    }
+
+    private static IntExpression randomExpression(Random random, int size, List<IntSupplier> inputs,
+            IntExpression.Operator[] operators, List<IntExpression> subexpressions) {
+        IntExpression expression;
+        if (size <= 1) {
+            expression = random.nextBoolean()
+                    ? IntExpression.constant(random.nextInt(10))
+                    : IntExpression.input(inputs.get(random.nextInt(inputs.size())));
+        } else if (!subexpressions.isEmpty() && random.nextInt(10) == 0) {
+            expression = subexpressions.get(random.nextInt(subexpressions.size()));
+        } else {
+            int leftSize = random.nextInt(size - 1);
+            expression = IntExpression.binary(operators[random.nextInt(operators.length)],
+                    randomExpression(random, leftSize, inputs, operators, subexpressions),
+                    randomExpression(random, size - 1 - leftSize, inputs, operators, subexpressions));
+        }
+        subexpressions.add(expression);
+        return expression;
+    }
+}
@@ -0,0 +1,95 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.tuple.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Counts the booking ranges overlapping a short incoming range, by a linear scan with {@link Range#overlaps(org.jooq.lambda.tuple.Tuple2)},
+ * with {@link IntervalIndex} and with {@link LongIntervalIndex}.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class IntervalIndexBenchmark {
+
+    private static final int TIMELINE = 100_000_000;
+    private static final int MAX_BOOKING_LENGTH = 1_000;
+
+    @Param({"10000", "1000000"})
+    private int numberOfBookings;
+
+    private List<Range<Integer>> bookings;
+    private IntervalIndex<Integer> index;
+    private LongIntervalIndex primitiveIndex;
+    private Random random;
+
+    @Setup
+    public void createBookings() {
+        random = new Random(42);
+        bookings = new ArrayList<>(numberOfBookings);
+        index = new IntervalIndex<>();
+        primitiveIndex = new LongIntervalIndex();
+        for (int i = 0; i < numberOfBookings; i++) {
+            int start = random.nextInt(TIMELINE);
+            int end = start + random.nextInt(MAX_BOOKING_LENGTH);
+            Range<Integer> booking = new Range<>(start, end);
+            bookings.add(booking);
+            index.insert(booking);
+            primitiveIndex.insert(start, end);
+        }
+    }
+
+    @Benchmark
+    public int linearScan() {
+        Range<Integer> query = nextQuery();
+        int count = 0;
+        for (Range<Integer> booking : bookings) {
+            if (booking.overlaps(query)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int intervalIndex() {
+        return index.overlapping(nextQuery()).size();
+    }
+
+    @Benchmark
+    public int primitiveIntervalIndex() {
+        int start = random.nextInt(TIMELINE);
+        return primitiveIndex.countOverlapping(start, start + MAX_BOOKING_LENGTH);
+    }
+
+    private Range<Integer> nextQuery() {
+        int start = random.nextInt(TIMELINE);
+        return new Range<>(start, start + MAX_BOOKING_LENGTH);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IntervalIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
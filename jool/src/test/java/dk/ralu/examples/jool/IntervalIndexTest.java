@@ -0,0 +1,144 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Range;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.jupiter.api.Test;
+
+class IntervalIndexTest {
+
+    @Test
+    void rangeTuple() {
+
+        // Same ranges as in Tuples.rangeTuple()
+
+        IntervalIndex<Integer> index = new IntervalIndex<>();
+        index.insert(new Range<>(30, 42));
+        index.insert(new Range<>(47, 56));
+        index.insert(new Range<>(55, 57));
+
+        assertThat(index.overlapping(new Range<>(54, 58)))
+                .containsExactly(new Range<>(47, 56), new Range<>(55, 57));
+
+        assertThat(index.intersections(new Range<>(54, 58)))
+                .containsExactly(new Range<>(54, 56), new Range<>(55, 57));
+
+        assertThat(index.stab(42)).containsExactly(new Range<>(30, 42));
+        assertThat(index.stab(43)).isEmpty();
+    }
+
+    @Test
+    void insertAndDelete() {
+
+        IntervalIndex<String> index = new IntervalIndex<>();
+        index.insert(new Range<>("a", "d"));
+        index.insert(new Range<>("a", "d"));
+        index.insert(new Range<>("c", "f"));
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.stab("b")).containsExactly(new Range<>("a", "d"), new Range<>("a", "d"));
+
+        assertThat(index.delete(new Range<>("a", "d"))).isTrue();
+        assertThat(index.stab("b")).containsExactly(new Range<>("a", "d"));
+
+        assertThat(index.delete(new Range<>("x", "y"))).isFalse();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    /**
+     * Both indexes flip a query with its start after its end, like {@link Range} does.
+     */
+    @Test
+    void reversedBoundsAreFlipped() {
+
+        IntervalIndex<Long> index = new IntervalIndex<>();
+        index.insert(new Range<>(30L, 42L));
+        index.insert(new Range<>(47L, 56L));
+        LongIntervalIndex primitiveIndex = new LongIntervalIndex();
+        primitiveIndex.insert(42, 30);
+        primitiveIndex.insert(47, 56);
+
+        List<Range<Long>> found = new ArrayList<>();
+        index.forEachOverlapping(50L, 40L, found::add);
+        assertThat(found).containsExactly(new Range<>(30L, 42L), new Range<>(47L, 56L));
+
+        List<Tuple2<Long, Long>> primitiveFound = new ArrayList<>();
+        primitiveIndex.forEachOverlapping(50, 40, (foundStart, foundEnd) -> primitiveFound.add(new Range<>(foundStart, foundEnd)));
+        assertThat(primitiveFound).containsExactlyElementsOf(found);
+        assertThat(primitiveIndex.countOverlapping(50, 40)).isEqualTo(2);
+        assertThat(primitiveIndex.delete(56, 47)).isTrue();
+    }
+
+    @Test
+    void sameResultsAsLinearScanForRandomRanges() {
+
+        Random random = new Random(42);
+        IntervalIndex<Integer> index = new IntervalIndex<>();
+        List<Range<Integer>> ranges = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            Range<Integer> range = new Range<>(random.nextInt(10_000), random.nextInt(10_000));
+            index.insert(range);
+            ranges.add(range);
+            if (i % 3 == 0) {
+                Range<Integer> toDelete = ranges.remove(random.nextInt(ranges.size()));
+                assertThat(index.delete(toDelete)).isTrue();
+            }
+        }
+        assertThat(index.size()).isEqualTo(ranges.size());
+
+        for (int i = 0; i < 200; i++) {
+            Range<Integer> query = new Range<>(random.nextInt(10_000), random.nextInt(10_000));
+
+            assertThat(index.overlapping(query))
+                    .containsExactlyInAnyOrderElementsOf(Seq.seq(ranges).filter(query::overlaps).toList());
+
+            assertThat(index.intersections(query))
+                    .containsExactlyInAnyOrderElementsOf(Seq.seq(ranges).map(query::intersect)
+                            .filter(Optional::isPresent).map(Optional::get).toList());
+        }
+    }
+
+    @Test
+    void primitiveIndexHasSameResultsAsGenericIndex() {
+
+        Random random = new Random(42);
+        IntervalIndex<Long> index = new IntervalIndex<>();
+        LongIntervalIndex primitiveIndex = new LongIntervalIndex();
+
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(10_000);
+            long end = random.nextInt(10_000);
+            index.insert(new Range<>(start, end));
+            primitiveIndex.insert(start, end);
+            if (i % 4 == 0) {
+                assertThat(primitiveIndex.delete(end, start)).isEqualTo(index.delete(new Range<>(start, end)));
+            }
+        }
+        assertThat(primitiveIndex.size()).isEqualTo(index.size());
+
+        for (int i = 0; i < 200; i++) {
+            long start = random.nextInt(10_000);
+            long end = random.nextInt(10_000);
+
+            List<Tuple2<Long, Long>> found = new ArrayList<>();
+            primitiveIndex.forEachOverlapping(start, end, (foundStart, foundEnd) -> found.add(new Range<>(foundStart, foundEnd)));
+            assertThat(found).containsExactlyElementsOf(index.overlapping(new Range<>(start, end)));
+            assertThat(primitiveIndex.countOverlapping(start, end)).isEqualTo(found.size());
+
+            List<Tuple2<Long, Long>> intersections = new ArrayList<>();
+            primitiveIndex.forEachIntersection(start, end, (foundStart, foundEnd) -> intersections.add(new Range<>(foundStart, foundEnd)));
+            assertThat(intersections).containsExactlyElementsOf(index.intersections(new Range<>(start, end)));
+
+            List<Tuple2<Long, Long>> stabbed = new ArrayList<>();
+            primitiveIndex.stab(start, (foundStart, foundEnd) -> stabbed.add(new Range<>(foundStart, foundEnd)));
+            assertThat(stabbed).containsExactlyElementsOf(index.stab(start));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import dk.ralu.examples.jool.TupleSchema.FieldType;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedTupleStoreTest {
+
+    private static final TupleSchema ORDER_SCHEMA = TupleSchema.of(FieldType.INT, FieldType.string(32));
+    private static final TupleSchema ORDER_LINE_SCHEMA = TupleSchema.of(FieldType.INT, FieldType.string(32), FieldType.INT);
+
+    // Fields are: id, name
+    private final List<Tuple2<Integer, String>> orders = Arrays.asList(
+            Tuple.tuple(1, "First order"),
+            Tuple.tuple(2, "Second order"),
+            Tuple.tuple(3, "Third order")
+    );
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1)
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeAndReadTuples() throws IOException {
+
+        Path file = tempDir.resolve("orders");
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, ORDER_SCHEMA)) {
+            for (Tuple2<Integer, String> order : orders) {
+                writer.write(order);
+            }
+        }
+
+        try (MappedTupleStore store = MappedTupleStore.open(file, ORDER_SCHEMA)) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.records().map(record -> Tuple.tuple(record.getInt(0), record.getString(1))).toList())
+                    .isEqualTo(orders);
+            assertThat(store.record(1).toString()).isEqualTo("(2, Second order)");
+        }
+    }
+
+    @Test
+    void fieldsAreOnlyDecodedWhenAccessed() throws IOException {
+
+        Path file = tempDir.resolve("orderLines");
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, ORDER_LINE_SCHEMA)) {
+            for (Tuple3<Integer, String, Integer> orderLine : orderLines) {
+                writer.write(orderLine);
+            }
+        }
+
+        try (MappedTupleStore store = MappedTupleStore.open(file, ORDER_LINE_SCHEMA)) {
+            // Only the order id and amount fields are read - the names are never turned into strings
+            long amountOfFirstOrder = store.records()
+                    .filter(record -> record.getInt(0) == 1)
+                    .mapToLong(record -> record.getInt(2))
+                    .sum();
+            assertThat(amountOfFirstOrder).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void appendAfterRestart() throws IOException {
+
+        Path file = tempDir.resolve("orders");
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, ORDER_SCHEMA)) {
+            writer.write(orders.get(0));
+        }
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.append(file, ORDER_SCHEMA)) {
+            writer.write(orders.get(1));
+            writer.write(orders.get(2));
+        }
+
+        try (MappedTupleStore store = MappedTupleStore.open(file, ORDER_SCHEMA)) {
+            assertThat(store.records().map(record -> Tuple.tuple(record.getInt(0), record.getString(1))).toList())
+                    .isEqualTo(orders);
+        }
+    }
+
+    @Test
+    void onlyFlushedRecordsAreVisible() throws IOException {
+
+        Path file = tempDir.resolve("orders");
+        MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, ORDER_SCHEMA);
+        writer.write(orders.get(0));
+        writer.flush();
+        writer.write(orders.get(1));
+
+        try (MappedTupleStore store = MappedTupleStore.open(file, ORDER_SCHEMA)) {
+            assertThat(store.size()).isEqualTo(1);
+        }
+
+        writer.close();
+        try (MappedTupleStore store = MappedTupleStore.open(file, ORDER_SCHEMA)) {
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void nullsAndAllFieldTypes() throws IOException {
+
+        TupleSchema schema = TupleSchema.of(FieldType.INT, FieldType.LONG, FieldType.DOUBLE, FieldType.string(8));
+        Path file = tempDir.resolve("values");
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, schema)) {
+            writer.write(Tuple.tuple(-1, Long.MAX_VALUE, 0.5, "æøå"));
+            writer.write(Tuple.tuple(null, null, null, null));
+        }
+
+        try (MappedTupleStore store = MappedTupleStore.open(file, schema)) {
+            assertThat(store.record(0).toArray()).containsExactly(-1, Long.MAX_VALUE, 0.5, "æøå");
+            assertThat(store.record(1).toArray()).containsExactly(null, null, null, null);
+            assertThat(store.record(1).isNull(0)).isTrue();
+            assertThat(store.record(1).getInt(0)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    void recordsSpanningSeveralMappedSegments() throws IOException {
+
+        Path file = tempDir.resolve("numbers");
+        TupleSchema schema = TupleSchema.of(FieldType.LONG);
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, schema)) {
+            for (long i = 0; i < 10_000; i++) {
+                writer.write(i);
+            }
+        }
+
+        try (MappedTupleStore store = MappedTupleStore.open(file, schema, 1000)) {
+            assertThat(store.records().mapToLong(record -> record.getLong(0)).sum()).isEqualTo(10_000L * 9_999 / 2);
+            assertThat(store.record(9_999).getLong(0)).isEqualTo(9_999);
+        }
+    }
+
+    @Test
+    void invalidUse() throws IOException {
+
+        Path file = tempDir.resolve("orders");
+        try (MappedTupleStore.Writer writer = MappedTupleStore.Writer.create(file, ORDER_SCHEMA)) {
+            assertThatThrownBy(() -> writer.write(Tuple.tuple(1, "A name that is too long for the field, as it is above 32 bytes")))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> writer.write(Tuple.tuple(1)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThatThrownBy(() -> MappedTupleStore.open(file, ORDER_LINE_SCHEMA))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("another schema");
+    }
+}
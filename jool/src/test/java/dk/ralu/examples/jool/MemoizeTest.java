@@ -0,0 +1,250 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jooq.lambda.function.Function0;
+import org.jooq.lambda.function.Function1;
+import org.jooq.lambda.function.Function2;
+import org.jooq.lambda.function.Function3;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+
+class MemoizeTest {
+
+    @Test
+    void applyPartialExpressionIsEvaluatedOnce() throws Exception {
+
+        // Same expression as in Functions.applyPartial(), counting the evaluations
+
+        AtomicInteger evaluations = new AtomicInteger();
+        Function2<Integer, Integer, Integer> sum = (a, b) -> {
+            evaluations.incrementAndGet();
+            return a + b;
+        };
+        Function3<Function2<Integer, Integer, Integer>, Function0<Integer>, Function0<Integer>, Function0<Integer>> binaryExpression =
+                (intBiFunction, intProvider1, intProvider2) ->
+                        () -> intBiFunction.apply(intProvider1.get(), intProvider2.get());
+        Function2<Function0<Integer>, Function0<Integer>, Function0<Integer>> sumExpression = binaryExpression.applyPartially(sum);
+
+        Function0<Integer> expression = Memoize.function0(sumExpression.apply(sumExpression.apply(() -> 1, () -> 2), () -> 4));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<Integer>> tasks = Collections.nCopies(100, expression::apply);
+        for (Future<Integer> result : executor.invokeAll(tasks)) {
+            assertThat(result.get()).isEqualTo(7);
+        }
+        executor.shutdown();
+
+        assertThat(expression.apply()).isEqualTo(7);
+        assertThat(evaluations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedComputationIsRetried() {
+
+        AtomicInteger calls = new AtomicInteger();
+        Function0<String> function = Memoize.function0(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("Price service unavailable");
+            }
+            return "price";
+        });
+
+        assertThatThrownBy(function::apply).isInstanceOf(IllegalStateException.class);
+        assertThat(function.apply()).isEqualTo("price");
+        assertThat(function.apply()).isEqualTo("price");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void keyedOnArguments() {
+
+        AtomicInteger calls = new AtomicInteger();
+        MemoCache<String, Integer> cache1 = MemoCache.builder().build();
+        Function1<String, Integer> length = Memoize.function1(s -> {
+            calls.incrementAndGet();
+            return s.length();
+        }, cache1);
+
+        MemoCache<Tuple2<Integer, Integer>, Integer> cache2 = MemoCache.builder().build();
+        Function2<Integer, Integer, Integer> price = Memoize.function2((amount, unitPrice) -> {
+            calls.incrementAndGet();
+            return amount * unitPrice;
+        }, cache2);
+
+        MemoCache<Tuple3<Integer, Integer, Integer>, Integer> cache3 = MemoCache.builder().build();
+        Function3<Integer, Integer, Integer, Integer> discountedPrice = Memoize.function3((amount, unitPrice, discount) -> {
+            calls.incrementAndGet();
+            return amount * unitPrice - discount;
+        }, cache3);
+
+        assertThat(length.apply("Pencil")).isEqualTo(6);
+        assertThat(length.apply("Pencil")).isEqualTo(6);
+        assertThat(length.apply("Cup")).isEqualTo(3);
+        assertThat(price.apply(2, 10)).isEqualTo(20);
+        assertThat(price.apply(2, 10)).isEqualTo(20);
+        assertThat(price.apply(10, 2)).isEqualTo(20);
+        assertThat(discountedPrice.apply(2, 10, 5)).isEqualTo(15);
+        assertThat(discountedPrice.apply(2, 10, 5)).isEqualTo(15);
+
+        assertThat(calls.get()).isEqualTo(5);
+        assertThat(cache1.stats().hitCount()).isEqualTo(1);
+        assertThat(cache1.stats().missCount()).isEqualTo(2);
+        assertThat(cache2.stats().hitCount()).isEqualTo(1);
+        assertThat(cache2.stats().missCount()).isEqualTo(2);
+        assertThat(cache3.stats().hitRate()).isEqualTo(0.5);
+    }
+
+    /**
+     * A value is computed without holding the lock of its stripe, so other keys can be looked up meanwhile, also by the computation
+     * itself, as in a recursive function.
+     */
+    @Test
+    void otherKeysCanBeLookedUpWhileComputing() throws Exception {
+
+        MemoCache<Integer, Long> cache = MemoCache.builder().stripes(1).build();
+        AtomicReference<Function1<Integer, Long>> fibonacci = new AtomicReference<>();
+        fibonacci.set(Memoize.function1(n -> n < 2 ? n : fibonacci.get().apply(n - 1) + fibonacci.get().apply(n - 2), cache));
+        assertThat(fibonacci.get().apply(90)).isEqualTo(2880067194370816120L);
+        assertThat(cache.size()).isEqualTo(91);
+
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemoCache<Integer, Integer> blockingCache = MemoCache.builder().stripes(1).build();
+        Function1<Integer, Integer> slowSquare = Memoize.function1(i -> {
+            if (i == 1) {
+                computing.countDown();
+                awaitUninterruptibly(release);
+            }
+            return i * i;
+        }, blockingCache);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Integer> slow = executor.submit(() -> slowSquare.apply(1));
+        assertThat(computing.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<Integer> waiting = executor.submit(() -> slowSquare.apply(1));
+
+        assertThat(slowSquare.apply(2)).isEqualTo(4); // Same stripe, but not blocked by the computation of 1
+        release.countDown();
+        assertThat(slow.get()).isEqualTo(1);
+        assertThat(waiting.get()).isEqualTo(1);
+        assertThat(blockingCache.stats().missCount()).isEqualTo(2);
+        executor.shutdown();
+
+        AtomicReference<Function1<Integer, Integer>> recursive = new AtomicReference<>();
+        recursive.set(Memoize.function1(i -> recursive.get().apply(i)));
+        assertThatThrownBy(() -> recursive.get().apply(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedWhenFull() {
+
+        MemoCache<Integer, Integer> cache = MemoCache.builder().maximumSize(2).stripes(1).build();
+        Function1<Integer, Integer> square = Memoize.function1(i -> i * i, cache);
+
+        square.apply(1);
+        square.apply(2);
+        square.apply(1); // 2 is now the least recently used
+        square.apply(3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+
+        square.apply(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(2);
+        square.apply(2);
+        assertThat(cache.stats().missCount()).isEqualTo(4);
+    }
+
+    /**
+     * A value being computed is not evicted, even when the cache is full, as another thread would then compute it again.
+     */
+    @Test
+    void valuesBeingComputedAreNotEvicted() throws Exception {
+
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        MemoCache<Integer, Integer> cache = MemoCache.builder().maximumSize(1).stripes(1).build();
+        Function1<Integer, Integer> slowSquare = Memoize.function1(i -> {
+            calls.incrementAndGet();
+            if (i == 1) {
+                computing.countDown();
+                awaitUninterruptibly(release);
+            }
+            return i * i;
+        }, cache);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Integer> slow = executor.submit(() -> slowSquare.apply(1));
+        assertThat(computing.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(slowSquare.apply(2)).isEqualTo(4); // Fills the cache while 1 is computed
+        Future<Integer> waiting = executor.submit(() -> slowSquare.apply(1));
+        release.countDown();
+        assertThat(slow.get()).isEqualTo(1);
+        assertThat(waiting.get()).isEqualTo(1);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isEqualTo(0);
+        executor.shutdown();
+
+        slowSquare.apply(3);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.stats().evictionCount()).isEqualTo(2);
+
+        // The stripes are limited to the maximum size, so one entry is kept in total
+        MemoCache<Integer, Integer> stripedCache = MemoCache.builder().maximumSize(1).build();
+        Function1<Integer, Integer> square = Memoize.function1(i -> i * i, stripedCache);
+        for (int i = 0; i < 100; i++) {
+            square.apply(i);
+        }
+        assertThat(stripedCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void entriesExpireAfterWrite() {
+
+        AtomicLong time = new AtomicLong();
+        MemoCache<Integer, Integer> cache = MemoCache.builder().expireAfterWrite(Duration.ofSeconds(10)).ticker(time::get).build();
+        AtomicInteger calls = new AtomicInteger();
+        Function1<Integer, Integer> price = Memoize.function1(i -> i * 100 + calls.incrementAndGet(), cache);
+
+        assertThat(price.apply(1)).isEqualTo(101);
+        time.set(TimeUnit.SECONDS.toNanos(9));
+        assertThat(price.apply(1)).isEqualTo(101);
+        time.set(TimeUnit.SECONDS.toNanos(10));
+        assertThat(price.apply(1)).isEqualTo(102);
+
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void nullArgumentsAndResults() {
+
+        Function2<String, String, String> concat = Memoize.function2((a, b) -> a == null ? null : a + b);
+
+        assertThat(concat.apply(null, "b")).isNull();
+        assertThat(concat.apply(null, "b")).isNull();
+        assertThat(concat.apply("a", null)).isEqualTo("anull");
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
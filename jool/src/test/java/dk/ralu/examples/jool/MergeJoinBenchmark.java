@@ -0,0 +1,109 @@
+package dk.ralu.examples.jool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Joins lazily generated, sorted orders and order lines with {@link MergeJoin} and {@link HashJoin}, and prints the largest live heap
+ * (heap used after the latest GC) seen during each iteration.
+ * <p>
+ * The live heap of the merge join stays flat as the number of orders grows, while the hash join's grows with it.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class MergeJoinBenchmark {
+
+    private static final int ORDER_LINES_PER_ORDER = 3;
+    private static final int SAMPLE_INTERVAL = 1 << 16;
+
+    @Param({"100000", "300000", "1000000"})
+    private int numberOfOrders;
+
+    private long peakLiveHeapBytes;
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        System.gc();
+        peakLiveHeapBytes = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeak() {
+        System.out.println("Peak live heap: " + (peakLiveHeapBytes / (1024 * 1024)) + " MB");
+    }
+
+    @Benchmark
+    public long mergeInnerJoin() {
+        return consume(MergeJoin.innerJoin(orders(), orderLines(), Tuple2::v1, Tuple3::v1));
+    }
+
+    @Benchmark
+    public long hashInnerJoin() {
+        return consume(HashJoin.innerJoin(orders(), orderLines(), Tuple2::v1, Tuple3::v1));
+    }
+
+    private long consume(Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join) {
+        long rows = 0;
+        long amount = 0;
+        for (Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>> row : join) {
+            amount += row.v2().v3();
+            if (++rows % SAMPLE_INTERVAL == 0) {
+                peakLiveHeapBytes = Math.max(peakLiveHeapBytes, liveHeapBytes());
+            }
+        }
+        return amount;
+    }
+
+    private Seq<Tuple2<Integer, String>> orders() {
+        return Seq.range(0, numberOfOrders).map(orderId -> Tuple.tuple(orderId, "Order " + orderId));
+    }
+
+    private Seq<Tuple3<Integer, String, Integer>> orderLines() {
+        return Seq.range(0, numberOfOrders * ORDER_LINES_PER_ORDER)
+                .map(lineId -> Tuple.tuple(lineId / ORDER_LINES_PER_ORDER, "Line " + lineId, lineId % ORDER_LINES_PER_ORDER + 1));
+    }
+
+    private static long liveHeapBytes() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usageAfterLastGc = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usageAfterLastGc != null) {
+                used += usageAfterLastGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MergeJoinBenchmark.class.getSimpleName()).build()).run();
+    }
+}
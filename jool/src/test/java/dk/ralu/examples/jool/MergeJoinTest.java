@@ -0,0 +1,200 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.jooq.lambda.tuple.Tuple4;
+import org.junit.jupiter.api.Test;
+
+class MergeJoinTest {
+
+    // Fields are: id, name - sorted by id
+    private final List<Tuple2<Integer, String>> orders = Arrays.asList(
+            Tuple.tuple(1, "First order"),
+            Tuple.tuple(2, "Second order"),
+            Tuple.tuple(3, "Third order") // order without any order lines
+    );
+
+    // Fields are: order_id, name, amount - sorted by order_id
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1) // order line without an order
+    );
+
+    @Test
+    void innerJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                MergeJoin.innerJoin(Seq.seq(orders), Seq.seq(orderLines), Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                );
+    }
+
+    @Test
+    void leftOuterJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                MergeJoin.leftOuterJoin(Seq.seq(orders), Seq.seq(orderLines), Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                                   + "(3, Third order, null, null)\n" // <-- note the nulls
+                );
+    }
+
+    @Test
+    void rightOuterJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                MergeJoin.rightOuterJoin(Seq.seq(orders), Seq.seq(orderLines), Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                                   + "(null, null, Brush, 1)\n" // <-- note the nulls
+                );
+    }
+
+    @Test
+    void fullOuterJoin() {
+
+        Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> join =
+                MergeJoin.fullOuterJoin(Seq.seq(orders), Seq.seq(orderLines), Tuple2::v1, Tuple3::v1);
+
+        assertThat(toString(join))
+                .isEqualTo(""
+                                   + "(1, First order, Pencil, 2)\n"
+                                   + "(1, First order, Cup, 1)\n"
+                                   + "(1, First order, Phone, 2)\n"
+                                   + "(2, Second order, Pencil, 5)\n"
+                                   + "(2, Second order, Paper, 100)\n"
+                                   + "(3, Third order, null, null)\n"
+                                   + "(null, null, Brush, 1)\n" // the result is in key order
+                );
+    }
+
+    @Test
+    void duplicateKeysOnBothSides() {
+
+        List<Tuple2<Integer, String>> left = Arrays.asList(Tuple.tuple(1, "a"), Tuple.tuple(1, "b"), Tuple.tuple(2, "c"));
+        List<Tuple2<Integer, String>> right = Arrays.asList(Tuple.tuple(1, "x"), Tuple.tuple(1, "y"), Tuple.tuple(3, "z"));
+
+        assertThat(MergeJoin.fullOuterJoin(left, right, Tuple2::v1, Tuple2::v1).map(join -> join.map1(t -> t == null ? null : t.v2())
+                .map2(t -> t == null ? null : t.v2())).toList())
+                .containsExactly(
+                        Tuple.tuple("a", "x"),
+                        Tuple.tuple("a", "y"),
+                        Tuple.tuple("b", "x"),
+                        Tuple.tuple("b", "y"),
+                        Tuple.tuple("c", null),
+                        Tuple.tuple(null, "z")
+                );
+    }
+
+    @Test
+    void resultIsProducedLazily() {
+
+        // Both inputs are infinite, so this only terminates if rows are joined as they are requested
+
+        Seq<Integer> evenNumbers = Seq.iterate(0, i -> i + 2);
+        Seq<Integer> multiplesOfThree = Seq.iterate(0, i -> i + 3);
+
+        assertThat(MergeJoin.innerJoin(evenNumbers, multiplesOfThree, i -> i, i -> i).map(Tuple2::v1).limit(4).toList())
+                .containsExactly(0, 6, 12, 18);
+    }
+
+    @Test
+    void customKeyOrder() {
+
+        List<String> left = Arrays.asList("c", "b", "a");
+        List<String> right = Arrays.asList("c", "a", "a");
+
+        assertThat(MergeJoin.innerJoin(left, right, s -> s, s -> s, Comparator.<String>reverseOrder()).toList())
+                .containsExactly(Tuple.tuple("c", "c"), Tuple.tuple("a", "a"), Tuple.tuple("a", "a"));
+    }
+
+    @Test
+    void unsortedInputIsDetected() {
+
+        List<Integer> sorted = Arrays.asList(1, 2, 3);
+        List<Integer> unsorted = Arrays.asList(1, 3, 2);
+
+        assertThatThrownBy(() -> MergeJoin.innerJoin(unsorted, sorted, i -> i, i -> i).toList())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Left input is not sorted");
+
+        assertThatThrownBy(() -> MergeJoin.innerJoin(sorted, unsorted, i -> i, i -> i).toList())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Right input is not sorted");
+    }
+
+    @Test
+    void sameRowsAsHashJoinForRandomSortedInput() {
+
+        Random random = new Random(42);
+        List<Tuple2<Integer, String>> randomOrders = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            randomOrders.add(Tuple.tuple(random.nextInt(100), "Order " + i));
+        }
+        List<Tuple3<Integer, String, Integer>> randomOrderLines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            randomOrderLines.add(Tuple.tuple(random.nextInt(120), "Line " + i, random.nextInt(10)));
+        }
+        List<Tuple2<Integer, String>> sortedOrders = Seq.seq(randomOrders).sorted(Tuple2::v1).toList();
+        List<Tuple3<Integer, String, Integer>> sortedOrderLines = Seq.seq(randomOrderLines).sorted(Tuple3::v1).toList();
+
+        assertThat(MergeJoin.innerJoin(sortedOrders, sortedOrderLines, Tuple2::v1, Tuple3::v1).toList())
+                .containsExactlyInAnyOrderElementsOf(HashJoin.innerJoin(randomOrders, randomOrderLines, Tuple2::v1, Tuple3::v1).toList());
+
+        assertThat(MergeJoin.fullOuterJoin(sortedOrders, sortedOrderLines, Tuple2::v1, Tuple3::v1).toList())
+                .containsExactlyInAnyOrderElementsOf(
+                        HashJoin.fullOuterJoin(randomOrders, randomOrderLines, Tuple2::v1, Tuple3::v1).toList());
+    }
+
+    private String toString(Seq<Tuple2<Tuple2<Integer, String>, Tuple3<Integer, String, Integer>>> result) {
+        Seq<Tuple4<Integer, String, String, Integer>> projectedResult = result.map(joinedTuple -> {
+            Tuple2<Integer, String> order = joinedTuple.v1();
+            Tuple3<Integer, String, Integer> orderLine = joinedTuple.v2();
+            return Tuple.tuple(
+                    order == null ? null : order.v1(),
+                    order == null ? null : order.v2(),
+                    orderLine == null ? null : orderLine.v2(),
+                    orderLine == null ? null : orderLine.v3()
+            );
+        });
+        StringBuilder sb = new StringBuilder();
+        for (Tuple4<Integer, String, String, Integer> row : projectedResult) {
+            sb.append(row.toString()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ParallelGroupBy} on pools of 1 to 8 workers with {@link Seq#groupBy(java.util.function.Function)}, grouping 10 million
+ * locations by parent id.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx6g"})
+@State(Scope.Benchmark)
+public class ParallelGroupByBenchmark {
+
+    private static final String[] NAMES = {"Europe", "Denmark", "Germany", "Copenhagen", "Kolding", "Berlin"};
+
+    @Param({"10000000"})
+    private int numberOfLocations;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private List<Tuple3<Integer, Integer, String>> locations;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void createLocations() {
+        Random random = new Random(42);
+        locations = new ArrayList<>(numberOfLocations);
+        for (int id = 0; id < numberOfLocations; id++) {
+            locations.add(Tuple.tuple(id, random.nextInt(100_000), NAMES[id % NAMES.length]));
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<Integer, List<Tuple3<Integer, Integer, String>>> seqGroupBy() {
+        return Seq.seq(locations).groupBy(Tuple3::v2);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Tuple3<Integer, Integer, String>>> parallelGroupBy() {
+        return ParallelGroupBy.groupBy(locations, Tuple3::v2, pool);
+    }
+
+    @Benchmark
+    public Map<Integer, Long> seqCountBy() {
+        return Seq.seq(locations).groupBy(Tuple3::v2, Collectors.counting());
+    }
+
+    @Benchmark
+    public Map<Integer, Long> parallelCountBy() {
+        return ParallelGroupBy.countBy(locations, Tuple3::v2, pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelGroupByBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelGroupByTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void groupBy() {
+
+        // Location is: id, parent_id, name
+        List<Tuple3<Integer, Integer, String>> locations = Arrays.asList(
+                Tuple.tuple(1, null, "Europe"),
+                Tuple.tuple(2, 1, "Denmark"),
+                Tuple.tuple(3, 1, "Germany"),
+                Tuple.tuple(4, 2, "Copenhagen"),
+                Tuple.tuple(4, 2, "Kolding"),
+                Tuple.tuple(5, 3, "Berlin")
+        );
+
+        Map<Integer, List<Tuple3<Integer, Integer, String>>> groups = ParallelGroupBy.groupBy(
+                Seq.seq(locations).filter(location -> location.v2() != null).toList(), Tuple3::v2, pool);
+
+        List<String> namesOfLocationsInDenmark = groups.get(2).stream()
+                .map(Tuple3::v3)
+                .collect(Collectors.toList());
+
+        assertThat(namesOfLocationsInDenmark)
+                .containsExactly(
+                        "Copenhagen",
+                        "Kolding"
+                );
+    }
+
+    @Test
+    void sameGroupsAsSeqGroupByForManyRows() {
+
+        List<Tuple3<Integer, Integer, String>> locations = randomLocations(100_000);
+
+        // Rows are split across many workers, but the rows of each group are still in input order
+        assertThat(ParallelGroupBy.groupBy(locations, Tuple3::v2, pool))
+                .isEqualTo(Seq.seq(locations).groupBy(Tuple3::v2));
+    }
+
+    @Test
+    void countsAndSums() {
+
+        List<Tuple3<Integer, Integer, String>> locations = randomLocations(100_000);
+
+        assertThat(ParallelGroupBy.countBy(locations, Tuple3::v2, pool))
+                .isEqualTo(Seq.seq(locations).groupBy(Tuple3::v2, Collectors.counting()));
+
+        assertThat(ParallelGroupBy.sumBy(locations, Tuple3::v2, Tuple3::v1, pool))
+                .isEqualTo(Seq.seq(locations).groupBy(Tuple3::v2, Collectors.summingLong(Tuple3::v1)));
+
+        // On the common pool
+        assertThat(ParallelGroupBy.countBy(locations, Tuple3::v2)).isEqualTo(ParallelGroupBy.countBy(locations, Tuple3::v2, pool));
+        assertThat(ParallelGroupBy.sumBy(locations, Tuple3::v2, Tuple3::v1))
+                .isEqualTo(ParallelGroupBy.sumBy(locations, Tuple3::v2, Tuple3::v1, pool));
+    }
+
+    @Test
+    void downstreamCollector() {
+
+        List<Tuple3<Integer, Integer, String>> locations = randomLocations(50_000);
+
+        assertThat(ParallelGroupBy.groupBy(locations, Tuple3::v2, Collectors.mapping(Tuple3::v3, Collectors.joining(",")), pool))
+                .isEqualTo(Seq.seq(locations).groupBy(Tuple3::v2, Collectors.mapping(Tuple3::v3, Collectors.joining(","))));
+    }
+
+    private static List<Tuple3<Integer, Integer, String>> randomLocations(int count) {
+        Random random = new Random(42);
+        List<Tuple3<Integer, Integer, String>> locations = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            locations.add(Tuple.tuple(id, random.nextInt(1000), "Location " + id));
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,116 @@
+package dk.ralu.examples.jool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ParallelSeq} in ordered and unordered mode on pools of 1 to 8 workers with {@link Seq}, running a pipeline of
+ * filter, a CPU heavy map, join and group by over 1 million order lines.
+ * <p>
+ * The speedup is bounded by the number of cores of the machine, so run it on a machine with at least 8 cores to see the scaling.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class ParallelSeqBenchmark {
+
+    private static final int ORDERS = 10_000;
+
+    @Param({"1000000"})
+    private int numberOfOrderLines;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    // Fields are: id, name
+    private List<Tuple2<Integer, String>> orders;
+    // Fields are: order_id, name, amount
+    private List<Tuple3<Integer, String, Integer>> orderLines;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void createOrderLines() {
+        Random random = new Random(42);
+        orders = Seq.range(0, ORDERS).map(id -> Tuple.tuple(id, "Order " + id % 100)).toList();
+        orderLines = new ArrayList<>(numberOfOrderLines);
+        for (int i = 0; i < numberOfOrderLines; i++) {
+            orderLines.add(Tuple.tuple(random.nextInt(ORDERS), "Order line " + i, random.nextInt(1_000)));
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Long> seq() {
+        return HashJoin.innerJoin(Seq.seq(orderLines).filter(line -> line.v3 > 100).map(ParallelSeqBenchmark::price), orders,
+                Tuple3::v1, Tuple2::v1)
+                .groupBy(join -> join.v2.v2, Collectors.summingLong(join -> join.v1.v3));
+    }
+
+    @Benchmark
+    public Map<String, Long> parallelOrdered() {
+        return ParallelSeq.of(orderLines, pool)
+                .filter(line -> line.v3 > 100)
+                .map(ParallelSeqBenchmark::price)
+                .innerJoin(orders, Tuple3::v1, Tuple2::v1)
+                .groupBy(join -> join.v2.v2, Collectors.summingLong(join -> join.v1.v3));
+    }
+
+    @Benchmark
+    public Map<String, Long> parallelUnordered() {
+        return ParallelSeq.of(orderLines, pool)
+                .unordered()
+                .filter(line -> line.v3 > 100)
+                .map(ParallelSeqBenchmark::price)
+                .innerJoin(orders, Tuple3::v1, Tuple2::v1)
+                .groupBy(join -> join.v2.v2, Collectors.summingLong(join -> join.v1.v3));
+    }
+
+    /**
+     * Replaces the amount with a price, computed by some iterations of a hash, to make the work per row CPU bound.
+     */
+    private static Tuple3<Integer, String, Integer> price(Tuple3<Integer, String, Integer> line) {
+        long price = line.v3;
+        for (int i = 0; i < 200; i++) {
+            price = Hashing.mix(price);
+        }
+        return Tuple.tuple(line.v1, line.v2, (int) (price & 0xFFFF));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelSeqBenchmark.class.getSimpleName()).build()).run();
+    }
+}
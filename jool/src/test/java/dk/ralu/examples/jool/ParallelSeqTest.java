@@ -0,0 +1,118 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+
+class ParallelSeqTest {
+
+    // Fields are: id, name
+    private final List<Tuple2<Integer, String>> orders = Arrays.asList(
+            Tuple.tuple(1, "First order"),
+            Tuple.tuple(2, "Second order"),
+            Tuple.tuple(3, "Third order") // order without any order lines
+    );
+
+    // Fields are: order_id, name, amount
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1) // order line without an order
+    );
+
+    @Test
+    void joinsLikeSeq() {
+
+        assertThat(ParallelSeq.of(orders).innerJoin(orderLines, Tuple2::v1, Tuple3::v1).toList())
+                .isEqualTo(Seq.seq(orders).innerJoin(orderLines, (order, line) -> Objects.equals(order.v1, line.v1)).toList());
+
+        assertThat(ParallelSeq.of(orders).leftOuterJoin(orderLines, Tuple2::v1, Tuple3::v1).toList())
+                .isEqualTo(Seq.seq(orders).leftOuterJoin(orderLines, (order, line) -> Objects.equals(order.v1, line.v1)).toList());
+    }
+
+    @Test
+    void orderedModeGivesSameResultsAsSeq() {
+
+        List<Tuple3<Integer, String, Integer>> rows = randomOrderLines(100_000);
+        List<Tuple2<Integer, String>> manyOrders = Seq.range(0, 1_000).map(id -> Tuple.tuple(id, "Order " + id)).toList();
+
+        assertThat(ParallelSeq.of(rows)
+                           .filter(row -> row.v3 > 10)
+                           .map(row -> row.map3(amount -> amount * 2))
+                           .append(orderLines)
+                           .toList())
+                .isEqualTo(Seq.seq(rows)
+                                   .filter(row -> row.v3 > 10)
+                                   .map(row -> row.map3(amount -> amount * 2))
+                                   .append(orderLines)
+                                   .toList());
+
+        assertThat(ParallelSeq.of(rows).groupBy(Tuple3::v1)).isEqualTo(Seq.seq(rows).groupBy(Tuple3::v1));
+
+        assertThat(ParallelSeq.of(rows).innerJoin(manyOrders, Tuple3::v1, Tuple2::v1).toList())
+                .isEqualTo(HashJoin.innerJoin(rows, manyOrders, Tuple3::v1, Tuple2::v1).toList());
+
+        assertThat(ParallelSeq.of(rows).map(Tuple3::v3).distinct().limit(10).toList())
+                .isEqualTo(Seq.seq(rows).map(Tuple3::v3).distinct().limit(10).toList());
+    }
+
+    @Test
+    void unorderedModeGivesSameRowsInAnyOrder() {
+
+        List<Tuple3<Integer, String, Integer>> rows = randomOrderLines(100_000);
+
+        assertThat(ParallelSeq.of(rows).unordered().filter(row -> row.v3 > 10).append(orderLines).toList())
+                .containsExactlyInAnyOrderElementsOf(Seq.seq(rows).filter(row -> row.v3 > 10).append(orderLines).toList());
+
+        assertThat(ParallelSeq.of(rows).unordered().groupBy(Tuple3::v1, Collectors.counting()))
+                .isEqualTo(Seq.seq(rows).groupBy(Tuple3::v1, Collectors.counting()));
+
+        assertThat(ParallelSeq.of(rows).unordered().map(Tuple3::v1).distinct().count()).isEqualTo(1_000);
+    }
+
+    @Test
+    void runsInTheChosenPool() {
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+            List<Tuple3<Integer, String, Integer>> rows = ParallelSeq.of(randomOrderLines(10_000), pool)
+                    .map(row -> {
+                        pools.add(ForkJoinTask.getPool());
+                        return row;
+                    })
+                    .toList();
+
+            assertThat(rows).hasSize(10_000);
+            assertThat(pools).containsExactly(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<Tuple3<Integer, String, Integer>> randomOrderLines(int count) {
+        Random random = new Random(42);
+        List<Tuple3<Integer, String, Integer>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(Tuple.tuple(random.nextInt(1_000), "Order line " + i, random.nextInt(100)));
+        }
+        return rows;
+    }
+}
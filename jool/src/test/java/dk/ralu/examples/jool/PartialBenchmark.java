@@ -0,0 +1,119 @@
+package dk.ralu.examples.jool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntBinaryOperator;
+import org.jooq.lambda.function.Function2;
+import org.jooq.lambda.function.Function3;
+import org.jooq.lambda.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares ways of calling a three argument function with its first argument bound, with arguments and results outside of the range
+ * of the Integer cache.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time - calling the primitive bound operator allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartialBenchmark {
+
+    private static final int ROWS = 1024;
+
+    private final Function3<Character, Integer, Integer, Integer> calculate = (operand, a, b) -> operand == '+' ? a + b : a - b;
+    private final IntTernaryOperator primitiveCalculate = (operand, a, b) -> operand == '+' ? a + b : a - b;
+
+    private int[] as;
+    private int[] bs;
+    private Function2<Integer, Integer, Integer> joolBound;
+    private Function2<Integer, Integer, Integer> bound;
+    private IntBinaryOperator primitiveBound;
+
+    @Setup
+    public void bind() {
+        as = new int[ROWS];
+        bs = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            as[i] = 1_000 + i;
+            bs[i] = 1_000 * i;
+        }
+        joolBound = calculate.applyPartially('+');
+        bound = Partial.bind(calculate, '+');
+        primitiveBound = primitiveCalculate.applyPartially('+');
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long joolApplyPartiallyOnEachCall() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += calculate.applyPartially('+').apply(as[i], bs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long joolTupleArguments() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += calculate.apply(Tuple.tuple('+', as[i], bs[i]));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long joolBoundOnce() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += joolBound.apply(as[i], bs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long boundOnce() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += bound.apply(as[i], bs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long primitiveBoundOnce() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += primitiveBound.applyAsInt(as[i], bs[i]);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(PartialBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
@@ -0,0 +1,45 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.IntBinaryOperator;
+import org.jooq.lambda.function.Function1;
+import org.jooq.lambda.function.Function2;
+import org.jooq.lambda.function.Function3;
+import org.jooq.lambda.tuple.Tuple;
+import org.junit.jupiter.api.Test;
+
+class PartialTest {
+
+    @Test
+    void tuplesAsFunctionArguments() {
+
+        // Same functions as in Tuples.tuplesAsFunctionArguments()
+
+        Function3<Character, Integer, Integer, String> mathBiOperationToString = (operand, a, b) -> a + " " + operand + " " + b;
+
+        Partial.Bound3<Character, Integer, Integer, String> minusToString = Partial.bind(mathBiOperationToString, '-');
+        assertThat(minusToString.v1()).isEqualTo('-');
+        assertThat(minusToString.apply(4, 2)).isEqualTo("4 - 2");
+        assertThat(minusToString.apply(Tuple.tuple(4, 2))).isEqualTo("4 - 2");
+
+        Function1<Integer, String> exp2toString = Partial.bind(mathBiOperationToString, '^', 2);
+        assertThat(exp2toString.apply(5)).isEqualTo("2 ^ 5");
+
+        Function2<Integer, Integer, Integer> sum = Integer::sum;
+        Function1<Integer, Integer> increment = Partial.bind(sum, 1);
+        assertThat(increment.apply(41)).isEqualTo(42);
+    }
+
+    @Test
+    void primitiveArguments() {
+
+        IntTernaryOperator calculate = (operand, a, b) -> operand == '+' ? a + b : a - b;
+        IntBinaryOperator minus = calculate.applyPartially('-');
+        assertThat(minus.applyAsInt(4, 2)).isEqualTo(2);
+
+        ObjIntIntFunction<Character, String> mathBiOperationToString = (operand, a, b) -> a + " " + operand + " " + b;
+        IntIntFunction<String> minusToString = mathBiOperationToString.applyPartially('-');
+        assertThat(minusToString.apply(4, 2)).isEqualTo("4 - 2");
+    }
+}
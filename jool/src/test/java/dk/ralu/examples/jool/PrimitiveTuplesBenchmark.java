@@ -0,0 +1,97 @@
+package dk.ralu.examples.jool;
+
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.tuple.Tuple2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the primitive tuples with jOOλ's boxed {@link Tuple2}, when storing and aggregating (id, amount) pairs.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrimitiveTuplesBenchmark {
+
+    private static final int ROWS = 1024;
+
+    private Tuple2<Integer, Long>[] boxedRows;
+    private IntLongTuple2[] primitiveRows;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void createRows() {
+        boxedRows = new Tuple2[ROWS];
+        primitiveRows = new IntLongTuple2[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            boxedRows[i] = new Tuple2<>(1_000 + i, 1_000_000L * i);
+            primitiveRows[i] = new IntLongTuple2(1_000 + i, 1_000_000L * i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long boxedSum() {
+        long sum = 0;
+        for (Tuple2<Integer, Long> row : boxedRows) {
+            sum += row.v1() + row.v2();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long primitiveSum() {
+        long sum = 0;
+        for (IntLongTuple2 row : primitiveRows) {
+            sum += row.v1() + row.v2();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Tuple2<Integer, Long>[] boxedCreateAndMap() {
+        Tuple2<Integer, Long>[] rows = boxedRows;
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Tuple2<>(rows[i].v1(), rows[i].v2() + 1).map1(id -> id ^ 1);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public IntLongTuple2[] primitiveCreateAndMap() {
+        IntLongTuple2[] rows = primitiveRows;
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new IntLongTuple2(rows[i].v1(), rows[i].v2() + 1).map1(id -> id ^ 1);
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(PrimitiveTuplesBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple4;
+import org.junit.jupiter.api.Test;
+
+class PrimitiveTuplesTest {
+
+    @Test
+    void tupleBasics() {
+
+        IntObjTuple2<String> tupleA = new IntObjTuple2<>(4, "four");
+        assertThat(tupleA.v1()).isEqualTo(4);
+        assertThat(tupleA.v2()).isEqualTo("four");
+
+        IntObjTuple2<String> tupleB = IntObjTuple2.from(Tuple.tuple(2, "two"));
+        assertThat(tupleA.equals(tupleB)).isFalse();
+
+        IntObjTuple2<String> tupleC = new IntObjTuple2<>(4, "four");
+        assertThat(tupleA.equals(tupleC)).isTrue();
+
+        assertThat(tupleA.compareTo(tupleB)).isPositive();
+        assertThat(tupleA.compareTo(tupleC)).isEqualTo(0);
+        assertThat(tupleB.compareTo(tupleA)).isNegative();
+
+        assertThat(tupleA.degree()).isEqualTo(2);
+
+        Tuple4<Integer, String, Character, Long> concat = tupleA.concat(Tuple.tuple('b', 4L));
+        assertThat(concat.equals(Tuple.tuple(4, "four", 'b', 4L))).isTrue();
+    }
+
+    @Test
+    void sameSemanticsAsBoxedTuples() {
+
+        IntIntTuple2 intInt = new IntIntTuple2(-7, 1_000_000);
+        IntLongTuple2 intLong = new IntLongTuple2(3, Long.MAX_VALUE);
+        IntObjTuple2<String> intObj = new IntObjTuple2<>(3, null);
+        LongObjTuple2<String> longObj = new LongObjTuple2<>(Long.MIN_VALUE, "x");
+
+        assertThat(intInt.toString()).isEqualTo(intInt.toTuple().toString());
+        assertThat(intLong.toString()).isEqualTo(intLong.toTuple().toString());
+        assertThat(intObj.toString()).isEqualTo(intObj.toTuple().toString());
+        assertThat(longObj.toString()).isEqualTo(longObj.toTuple().toString());
+
+        assertThat(intInt.hashCode()).isEqualTo(intInt.toTuple().hashCode());
+        assertThat(intLong.hashCode()).isEqualTo(intLong.toTuple().hashCode());
+        assertThat(intObj.hashCode()).isEqualTo(intObj.toTuple().hashCode());
+        assertThat(longObj.hashCode()).isEqualTo(longObj.toTuple().hashCode());
+
+        assertThat(IntIntTuple2.from(intInt.toTuple())).isEqualTo(intInt);
+        assertThat(IntLongTuple2.from(intLong.toTuple())).isEqualTo(intLong);
+        assertThat(IntObjTuple2.from(intObj.toTuple())).isEqualTo(intObj);
+        assertThat(LongObjTuple2.from(longObj.toTuple())).isEqualTo(longObj);
+    }
+
+    @Test
+    void comparisonLikeBoxedTuples() {
+
+        int[] values = {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE};
+        for (int a1 : values) {
+            for (int a2 : values) {
+                for (int b1 : values) {
+                    for (int b2 : values) {
+                        IntIntTuple2 a = new IntIntTuple2(a1, a2);
+                        IntIntTuple2 b = new IntIntTuple2(b1, b2);
+                        assertThat(Integer.signum(a.compareTo(b))).isEqualTo(Integer.signum(a.toTuple().compareTo(b.toTuple())));
+                    }
+                }
+            }
+        }
+
+        // Like jOOλ tuples, nulls are last
+        IntObjTuple2<String> withNull = new IntObjTuple2<>(1, null);
+        IntObjTuple2<String> withValue = new IntObjTuple2<>(1, "a");
+        assertThat(withNull.compareTo(withValue)).isPositive();
+        assertThat(withNull.toTuple().compareTo(withValue.toTuple())).isPositive();
+    }
+
+    @Test
+    void mapValuesInTuple() {
+
+        IntLongTuple2 tuple = new IntLongTuple2(3, 5L);
+
+        assertThat(tuple.map1(i -> i * 2)).isEqualTo(new IntLongTuple2(6, 5L));
+        assertThat(tuple.map2(l -> l + 1)).isEqualTo(new IntLongTuple2(3, 6L));
+
+        LongObjTuple2<String> longObj = new LongObjTuple2<>(3L, "Hello");
+        LongObjTuple2<Integer> mapped = longObj.map2(String::length);
+        assertThat(mapped.v2()).isEqualTo(5);
+
+        Tuple2<Long, Integer> boxed = mapped.toTuple();
+        assertThat(boxed.equals(Tuple.tuple(3L, 5))).isTrue();
+    }
+}
@@ -0,0 +1,91 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.text.ParseException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+import org.junit.jupiter.api.Test;
+
+class ResultTest {
+
+    @Test
+    void streamCarriesFailuresWithoutThrowing() {
+
+        Function<String, Result<Integer>> parse = Result.function(ResultTest::parseAmount);
+
+        Map<Boolean, Long> outcomes = Seq.of("2", "1", "two", "5", "-1")
+                .map(parse)
+                .groupBy(Result::isSuccess, Collectors.counting());
+
+        assertThat(outcomes).containsEntry(true, 3L).containsEntry(false, 2L);
+
+        Tuple2<Seq<Result<Integer>>, Seq<Result<Integer>>> partitioned = Seq.of("2", "1", "two", "5", "-1")
+                .map(parse)
+                .partition(Result::isSuccess);
+
+        assertThat(partitioned.v1.flatMap(Result::seq).toList()).containsExactly(2, 1, 5);
+        assertThat(partitioned.v2.map(result -> result.cause().getMessage()).toList())
+                .containsExactly("Not a number: two", "Not a positive amount: -1");
+    }
+
+    @Test
+    void successAndFailure() {
+
+        Result<Integer> success = Result.of(() -> parseAmount("100"));
+        Result<Integer> failure = Result.of(() -> parseAmount("a hundred"));
+
+        assertThat(success.isSuccess()).isTrue();
+        assertThat(success.get()).isEqualTo(100);
+        assertThat(success.map(amount -> amount * 2)).isEqualTo(Result.success(200));
+        assertThat(success.flatMap(amount -> Result.of(() -> parseAmount("-" + amount))).isFailure()).isTrue();
+        assertThat(success.toOptional()).contains(100);
+        assertThatThrownBy(success::cause).isInstanceOf(NoSuchElementException.class);
+
+        assertThat(failure.isFailure()).isTrue();
+        assertThat(failure.orElse(0)).isEqualTo(0);
+        assertThat(failure.map(amount -> amount * 2)).isSameAs(failure);
+        assertThat(failure.toOptional()).isEmpty();
+        assertThatThrownBy(failure::get)
+                .isExactlyInstanceOf(StacklessUncheckedException.class)
+                .hasCauseExactlyInstanceOf(ParseException.class);
+    }
+
+    @Test
+    void interruptIsRestored() {
+
+        Result<Integer> failure = Result.of(() -> {
+            throw new InterruptedException();
+        });
+
+        assertThat(failure.cause()).isInstanceOf(InterruptedException.class);
+        assertThat(Thread.interrupted()).isTrue(); // Also clears the flag
+
+        Function<Integer, Result<Integer>> sleep = Result.function(millis -> {
+            Thread.sleep(millis);
+            return millis;
+        });
+        Thread.currentThread().interrupt();
+
+        assertThat(sleep.apply(1_000).isFailure()).isTrue();
+        assertThat(Thread.interrupted()).isTrue();
+    }
+
+    private static int parseAmount(String string) throws ParseException {
+        int amount;
+        try {
+            amount = Integer.parseInt(string);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Not a number: " + string, 0);
+        }
+        if (amount < 0) {
+            throw new ParseException("Not a positive amount: " + string, 0);
+        }
+        return amount;
+    }
+}
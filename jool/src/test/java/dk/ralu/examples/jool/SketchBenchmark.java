@@ -0,0 +1,84 @@
+package dk.ralu.examples.jool;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Counts the distinct customers of a stream of orders, and finds the 10 most frequent customers, exactly by collecting into a set or a
+ * grouped map, and approximately with {@link HyperLogLog}, {@link CountMinSketch} and {@link TopK}.
+ * <p>
+ * The exact versions keep every distinct customer, while the sketches take a fixed amount of memory: 4 KB for the distinct count, and
+ * 5 x 2719 longs (about 109 KB) for the frequencies. The retained memory is not measured, but it shows in the allocation, as the set
+ * and the map are rehashed as they grow.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class SketchBenchmark {
+
+    private static final int ORDERS = 2_000_000;
+
+    @Param({"1000", "1000000"})
+    private int numberOfCustomers;
+
+    @Benchmark
+    public int distinctCountWithSet() {
+        return customers().toSet().size();
+    }
+
+    @Benchmark
+    public long distinctCountWithHyperLogLog() {
+        return customers().collect(HyperLogLog.distinctCount(HyperLogLog.DEFAULT_PRECISION));
+    }
+
+    @Benchmark
+    public List<Tuple2<Long, Long>> mostFrequentWithGroupBy() {
+        Map<Long, Long> counts = customers().groupBy(customer -> customer, Collectors.counting());
+        return Seq.seq(counts).collect(TopK.largest(10, Comparator.comparing(Tuple2::v2)));
+    }
+
+    @Benchmark
+    public List<Tuple2<Long, Long>> mostFrequentWithSketch() {
+        return customers().collect(TopK.mostFrequent(10, 0.001, 0.99));
+    }
+
+    // The customer of each order, where a few customers place many orders
+    private Seq<Long> customers() {
+        return Seq.rangeClosed(1, ORDERS).map(i -> {
+            long random = Hashing.mix(i);
+            return random % 4 == 0 ? (long) Long.numberOfTrailingZeros(random | 1L << 20) : Math.floorMod(random, numberOfCustomers);
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(SketchBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
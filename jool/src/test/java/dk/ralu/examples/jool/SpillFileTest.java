@@ -0,0 +1,71 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void valuesLargerThanTheBufferAreReadBack() {
+
+        String large = String.join("", Collections.nCopies(200_000, "x"));
+        try (SpillFile<String> spillFile = new SpillFile<>(BinaryCodecs.STRING, tempDir)) {
+            spillFile.append("Pencil");
+            spillFile.append(large);
+            spillFile.append("Cup");
+
+            List<String> values = new ArrayList<>();
+            spillFile.iterator().forEachRemaining(values::add);
+            assertThat(values).containsExactly("Pencil", large, "Cup");
+            assertThat(spillFile.size()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void codecThatNeverFitsFailsAtTheMaximumRecordSize() {
+
+        BinaryCodec<String> overflowing = new BinaryCodec<String>() {
+            @Override
+            public void encode(String value, ByteBuffer buffer) {
+                throw new BufferOverflowException();
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        try (SpillFile<String> spillFile = new SpillFile<>(overflowing, tempDir)) {
+            assertThatThrownBy(() -> spillFile.append("too big"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(Integer.toString(SpillFile.MAX_RECORD_SIZE));
+        }
+
+        BinaryCodec<String> buggy = new BinaryCodec<String>() {
+            @Override
+            public void encode(String value, ByteBuffer buffer) {
+                buffer.put(-1, (byte) 0);
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        try (SpillFile<String> spillFile = new SpillFile<>(buggy, tempDir)) {
+            assertThatThrownBy(() -> spillFile.append("value")).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+}
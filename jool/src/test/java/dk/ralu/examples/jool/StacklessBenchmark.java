@@ -0,0 +1,118 @@
+package dk.ralu.examples.jool;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.jooq.lambda.Unchecked;
+import org.jooq.lambda.fi.util.function.CheckedFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parses records, of which 10% are bad and make the parser throw a checked exception. Compares catching the exception wrapped by
+ * {@link Unchecked}, catching it wrapped by {@link Stackless}, and carrying it in a {@link Result}. The parser either throws an ordinary
+ * exception, or one that does not capture a stack trace either.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StacklessBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    @Param({"false", "true"})
+    private boolean stacklessCause;
+
+    private String[] records;
+    private Function<String, Integer> unchecked;
+    private Function<String, Integer> stackless;
+    private Function<String, Result<Integer>> result;
+
+    @Setup
+    public void createRecords() {
+        Random random = new Random(42);
+        records = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = random.nextInt(10) == 0 ? "bad record " + i : Integer.toString(random.nextInt(1_000));
+        }
+        CheckedFunction<String, Integer> parse = record -> parse(record, stacklessCause);
+        unchecked = Unchecked.function(parse);
+        stackless = Stackless.function(parse);
+        result = Result.function(parse);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long uncheckedWrapper() {
+        long sum = 0;
+        for (String record : records) {
+            try {
+                sum += unchecked.apply(record);
+            } catch (RuntimeException e) {
+                sum--;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long stacklessWrapper() {
+        long sum = 0;
+        for (String record : records) {
+            try {
+                sum += stackless.apply(record);
+            } catch (RuntimeException e) {
+                sum--;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long result() {
+        long sum = 0;
+        for (String record : records) {
+            Result<Integer> parsed = result.apply(record);
+            sum += parsed.isSuccess() ? parsed.get() : -1;
+        }
+        return sum;
+    }
+
+    private static int parse(String record, boolean stacklessCause) throws BadRecordException {
+        if (record.startsWith("bad")) {
+            throw new BadRecordException(record, stacklessCause);
+        }
+        return Integer.parseInt(record);
+    }
+
+    private static final class BadRecordException extends Exception {
+
+        BadRecordException(String record, boolean stackless) {
+            super("Bad record: " + record, null, false, !stackless);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StacklessBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jooq.lambda.UncheckedException;
+import org.junit.jupiter.api.Test;
+
+class StacklessTest {
+
+    @Test
+    void checkedExceptionsAreWrappedWithoutStackTrace() {
+
+        Function<String, Integer> function = Stackless.function(string -> {
+            throw new CloneNotSupportedException("I'm a checked exception");
+        });
+
+        // Can be caught like the wrappers of Unchecked
+        assertThatThrownBy(() -> function.apply("hello"))
+                .isInstanceOf(UncheckedException.class)
+                .isExactlyInstanceOf(StacklessUncheckedException.class)
+                .hasCauseExactlyInstanceOf(CloneNotSupportedException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty())
+                .satisfies(e -> assertThat(e.getCause().getStackTrace()).isNotEmpty());
+
+        // Also IO exceptions, unlike Unchecked which uses UncheckedIOException
+        Supplier<String> supplier = Stackless.supplier(() -> {
+            throw new IOException("I'm a checked IO exception");
+        });
+        assertThatThrownBy(supplier::get)
+                .isExactlyInstanceOf(StacklessUncheckedException.class)
+                .hasCauseExactlyInstanceOf(IOException.class);
+    }
+
+    @Test
+    void uncheckedExceptionsAreThrownAsTheyAre() {
+
+        Function<String, Integer> parse = Stackless.function(Integer::parseInt);
+
+        assertThat(parse.apply("42")).isEqualTo(42);
+        assertThatThrownBy(() -> parse.apply("forty two")).isExactlyInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void interruptIsRestored() {
+
+        assertThatThrownBy(() -> Stackless.predicate(string -> {
+            throw new InterruptedException();
+        }).test("hello")).hasCauseExactlyInstanceOf(InterruptedException.class);
+        assertThat(Thread.interrupted()).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package dk.ralu.examples.jool;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Computes running totals and 3 row moving averages of order lines, generated on the fly and sorted by order, with jOOλ's
+ * {@link Seq#window}, which collects all rows before computing anything, and with {@link StreamingWindows}.
+ * <p>
+ * Only the sum of the results is kept, so {@link StreamingWindows} never holds more than a few rows, while {@link Seq#window} holds
+ * all of them. With more rows, or a smaller heap, only the streaming version completes.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class StreamingWindowsBenchmark {
+
+    private static final int LINES_PER_ORDER = 20;
+
+    @Param({"1000000"})
+    private int numberOfRows;
+
+    @Benchmark
+    public long collectRunningTotal() {
+        return orderLines().window(Tuple3::v1, Comparator.comparing(Tuple3::v2), Long.MIN_VALUE, 0)
+                .mapToLong(w -> w.sum(Tuple3::v3).orElse(0))
+                .sum();
+    }
+
+    @Benchmark
+    public long streamingRunningTotal() {
+        return StreamingWindows.over(orderLines())
+                .partitionBy(Tuple3::v1)
+                .orderBy(Comparator.comparing(Tuple3::v2))
+                .runningTotal(Tuple3::v3)
+                .mapToLong(row -> row.v2)
+                .sum();
+    }
+
+    @Benchmark
+    public double collectMovingAverage() {
+        return orderLines().window(Tuple3::v1, Comparator.comparing(Tuple3::v2), -1, 1)
+                .mapToDouble(w -> w.avgDouble(Tuple3::v3))
+                .sum();
+    }
+
+    @Benchmark
+    public double streamingMovingAverage() {
+        return StreamingWindows.over(orderLines())
+                .partitionBy(Tuple3::v1)
+                .movingAverage(Tuple3::v3, 1, 1)
+                .mapToDouble(row -> row.v2)
+                .sum();
+    }
+
+    // Fields are: order_id, line_number, amount
+    private Seq<Tuple3<Integer, Integer, Integer>> orderLines() {
+        return Seq.range(0, numberOfRows).map(i -> Tuple.tuple(i / LINES_PER_ORDER, i % LINES_PER_ORDER, i % 97));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(StreamingWindowsBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
@@ -0,0 +1,177 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.Window;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingWindowsTest {
+
+    // Fields are: order_id, name, amount - sorted by order_id
+    private final List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+            Tuple.tuple(1, "Pencil", 2),
+            Tuple.tuple(1, "Cup", 1),
+            Tuple.tuple(1, "Phone", 2),
+            Tuple.tuple(2, "Pencil", 5),
+            Tuple.tuple(2, "Paper", 100),
+            Tuple.tuple(4, "Brush", 1)
+    );
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void runningTotalAndRowNumberPerOrder() {
+
+        assertThat(byOrder().runningTotal(Tuple3::v3).map(Tuple2::v2).toList()).containsExactly(2L, 3L, 5L, 5L, 105L, 1L);
+        assertThat(byOrder().rowNumber().map(Tuple2::v2).toList()).containsExactly(1L, 2L, 3L, 1L, 2L, 1L);
+        assertThat(StreamingWindows.over(Seq.seq(orderLines)).runningTotal(Tuple3::v3).map(Tuple2::v2).toList())
+                .containsExactly(2L, 3L, 5L, 10L, 110L, 111L);
+    }
+
+    @Test
+    void rankByAmountWithinOrder() {
+
+        List<Tuple3<Integer, String, Integer>> sortedByAmount = Seq.seq(orderLines)
+                .append(Tuple.tuple(1, "Book", 3))
+                .sorted(Comparator.comparing(Tuple3<Integer, String, Integer>::v1).thenComparing(Tuple3::v3))
+                .toList();
+        StreamingWindows<Tuple3<Integer, String, Integer>> windows = StreamingWindows.over(Seq.seq(sortedByAmount))
+                .partitionBy(Tuple3::v1)
+                .orderBy(Comparator.comparing(Tuple3::v3));
+
+        assertThat(windows.rank().map(rank -> rank.v1.v2 + ":" + rank.v2).toList())
+                .containsExactly("Cup:1", "Pencil:2", "Phone:2", "Book:4", "Pencil:1", "Paper:2", "Brush:1");
+        assertThat(StreamingWindows.over(Seq.seq(sortedByAmount)).partitionBy(Tuple3::v1).orderBy(Comparator.comparing(Tuple3::v3))
+                .denseRank().map(Tuple2::v2).toList())
+                .containsExactly(1L, 2L, 2L, 3L, 1L, 2L, 1L);
+    }
+
+    @Test
+    void lagLeadAndMovingAverage() {
+
+        assertThat(byOrder().lag(1).map(lag -> lag.v2.map(Tuple3::v2).orElse("-")).toList())
+                .containsExactly("-", "Pencil", "Cup", "-", "Pencil", "-");
+        assertThat(byOrder().lead(1).map(lead -> lead.v2.map(Tuple3::v2).orElse("-")).toList())
+                .containsExactly("Cup", "Phone", "-", "Paper", "-", "-");
+        assertThat(byOrder().movingAverage(Tuple3::v3, 1, 1).map(Tuple2::v2).toList())
+                .containsExactly(1.5, 5.0 / 3, 1.5, 52.5, 52.5, 1.0);
+    }
+
+    /**
+     * A value that is much larger than the others leaves the frame without taking the small values with it.
+     */
+    @Test
+    void movingAverageAfterALargeValue() {
+
+        assertThat(StreamingWindows.over(Seq.of(1e17, 1.0, 1.0, 3.0, 1.0, 1.0)).movingAverage(Double::doubleValue, 1, 0)
+                .map(Tuple2::v2).skip(2).toList())
+                .containsExactly(1.0, 2.0, 2.0, 1.0);
+    }
+
+    @Test
+    void sameResultsAsJoolWindows() {
+
+        Random random = new Random(42);
+        List<Tuple2<Integer, Integer>> rows = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            rows.add(Tuple.tuple(random.nextInt(50), random.nextInt(20)));
+        }
+        rows.sort(Comparator.naturalOrder());
+        Comparator<Tuple2<Integer, Integer>> byValue = Comparator.comparing(Tuple2::v2);
+
+        for (int preceding = 0; preceding < 4; preceding++) {
+            for (int following = 0; following < 4; following++) {
+                List<Double> expected = Seq.seq(rows).window(Tuple2::v1, byValue, -preceding, following)
+                        .map(w -> (double) w.sum(row -> (long) row.v2).orElse(0L) / w.count())
+                        .toList();
+                assertThat(windows(rows).movingAverage(Tuple2::v2, preceding, following).map(Tuple2::v2).toList())
+                        .usingElementComparator((a, b) -> Math.abs(a - b) < 1e-9 ? 0 : Double.compare(a, b))
+                        .isEqualTo(expected);
+            }
+            int offset = preceding;
+            assertThat(windows(rows).lag(offset).map(Tuple2::v2).toList())
+                    .isEqualTo(Seq.seq(rows).window(Tuple2::v1, byValue).map(w -> w.lag(offset)).toList());
+            assertThat(windows(rows).lead(offset).map(Tuple2::v2).toList())
+                    .isEqualTo(Seq.seq(rows).window(Tuple2::v1, byValue).map(w -> w.lead(offset)).toList());
+        }
+
+        List<Window<Tuple2<Integer, Integer>>> windows = Seq.seq(rows).window(Tuple2::v1, byValue).toList();
+        assertThat(windows(rows).rowNumber().map(Tuple2::v2).toList())
+                .isEqualTo(Seq.seq(windows).map(w -> w.rowNumber() + 1).toList());
+        assertThat(windows(rows).rank().map(Tuple2::v2).toList())
+                .isEqualTo(Seq.seq(windows).map(w -> w.rank() + 1).toList());
+        assertThat(windows(rows).denseRank().map(Tuple2::v2).toList())
+                .isEqualTo(Seq.seq(windows).map(w -> w.denseRank() + 1).toList());
+        assertThat(windows(rows).runningTotal(Tuple2::v2).map(Tuple2::v2).toList())
+                .isEqualTo(Seq.seq(rows).window(Tuple2::v1, byValue, Long.MIN_VALUE, 0)
+                        .map(w -> w.sum(row -> (long) row.v2).orElse(0L)).toList());
+        assertThat(windows(rows).partitionTotal(Tuple2::v2).map(Tuple2::v2).toList())
+                .isEqualTo(Seq.seq(rows).window(Tuple2::v1, byValue, Long.MIN_VALUE, Long.MAX_VALUE)
+                        .map(w -> w.sum(row -> (long) row.v2).orElse(0L)).toList());
+    }
+
+    @Test
+    void partitionTotalSpillsLargePartitions() throws IOException {
+
+        TupleCodec<Tuple3<Integer, String, Integer>> codec = TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT);
+        List<Tuple3<Integer, String, Integer>> rows = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            rows.add(Tuple.tuple(i / 40_000, "Order line " + i, i % 7));
+        }
+
+        try (Seq<Tuple2<Tuple3<Integer, String, Integer>, Long>> totals = StreamingWindows.over(Seq.seq(rows))
+                .partitionBy(Tuple3::v1)
+                .spill(codec, 1_000, tempDir)
+                .partitionTotal(Tuple3::v3)) {
+
+            List<Tuple2<Tuple3<Integer, String, Integer>, Long>> result = totals.toList();
+
+            assertThat(Seq.seq(result).map(Tuple2::v1).toList()).isEqualTo(rows);
+            for (int partition = 0; partition < 3; partition++) {
+                int p = partition;
+                long expected = Seq.seq(rows).filter(row -> row.v1 == p).mapToLong(Tuple3::v3).sum();
+                assertThat(Seq.seq(result).filter(row -> row.v1.v1 == p).map(Tuple2::v2).distinct().toList()).containsExactly(expected);
+            }
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    @Test
+    void invalidUse() {
+
+        assertThatThrownBy(() -> byOrder().rank()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> byOrder().orderBy(Comparator.comparing(Tuple3::v3)).rank().toList())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not sorted");
+        assertThatThrownBy(() -> byOrder().spill(TupleCodec.of(BinaryCodecs.INT, BinaryCodecs.STRING, BinaryCodecs.INT), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StreamingWindows.over(Seq.seq(orderLines)).spill(null, 1))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    private StreamingWindows<Tuple3<Integer, String, Integer>> byOrder() {
+        return StreamingWindows.over(Seq.seq(orderLines)).partitionBy(Tuple3::v1);
+    }
+
+    private static StreamingWindows<Tuple2<Integer, Integer>> windows(List<Tuple2<Integer, Integer>> rows) {
+        return StreamingWindows.over(Seq.seq(rows)).partitionBy(Tuple2::v1).orderBy(Comparator.comparing(Tuple2::v2));
+    }
+}
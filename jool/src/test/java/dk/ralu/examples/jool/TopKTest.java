@@ -0,0 +1,82 @@
+package dk.ralu.examples.jool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple3;
+import org.junit.jupiter.api.Test;
+
+class TopKTest {
+
+    @Test
+    void largestOrderLines() {
+
+        // Fields are: order_id, name, amount
+        List<Tuple3<Integer, String, Integer>> orderLines = Arrays.asList(
+                Tuple.tuple(1, "Pencil", 2),
+                Tuple.tuple(1, "Cup", 1),
+                Tuple.tuple(1, "Phone", 2),
+                Tuple.tuple(2, "Pencil", 5),
+                Tuple.tuple(2, "Paper", 100),
+                Tuple.tuple(4, "Brush", 1)
+        );
+
+        assertThat(Seq.seq(orderLines).collect(TopK.largest(2, Comparator.comparing(Tuple3::v3))))
+                .containsExactly(Tuple.tuple(2, "Paper", 100), Tuple.tuple(2, "Pencil", 5));
+
+        assertThat(Seq.seq(orderLines).map(Tuple3::v2).collect(TopK.smallest(3, Comparator.naturalOrder())))
+                .containsExactly("Brush", "Cup", "Paper");
+
+        assertThat(Seq.of(3, 1, 2).collect(TopK.largest(10))).containsExactly(3, 2, 1);
+        assertThatThrownBy(() -> TopK.largest(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sameResultAsSortingInParallel() {
+
+        Random random = new Random(42);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            values.add(random.nextInt());
+        }
+
+        assertThat(values.parallelStream().collect(TopK.largest(100)))
+                .isEqualTo(Seq.seq(values).sorted(Comparator.reverseOrder()).limit(100).toList());
+    }
+
+    @Test
+    void mostFrequentFindsTheHeavyHitters() {
+
+        // Value i occurs about twice as often as value i + 1, and then there is a long tail of rare values
+        Random random = new Random(42);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextBoolean() ? Integer.numberOfTrailingZeros(random.nextInt() | 1 << 20) : 100 + random.nextInt(50_000);
+            values.add("Value " + value);
+        }
+        Map<String, Long> counts = Seq.seq(values).groupBy(value -> value, Collectors.counting());
+        List<Tuple2<String, Long>> exact = Seq.seq(counts).sorted(Comparator.comparing((Tuple2<String, Long> count) -> count.v2).reversed())
+                .limit(5).toList();
+
+        double epsilon = 0.001;
+        List<Tuple2<String, Long>> sequential = Seq.seq(values).collect(TopK.mostFrequent(5, epsilon, 0.99));
+        List<Tuple2<String, Long>> parallel = values.parallelStream().collect(TopK.mostFrequent(5, epsilon, 0.99));
+
+        for (List<Tuple2<String, Long>> found : Arrays.asList(sequential, parallel)) {
+            assertThat(Seq.seq(found).map(Tuple2::v1).toList()).isEqualTo(Seq.seq(exact).map(Tuple2::v1).toList());
+            for (Tuple2<String, Long> value : found) {
+                assertThat(value.v2).isBetween(counts.get(value.v1), counts.get(value.v1) + (long) (epsilon * values.size()));
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package dk.ralu.examples.threads;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A thread pool that sizes itself from how much of the time of its tasks is spent blocking, e.g. waiting for I/O, rather than using
+ * the CPU.
+ * <p>
+ * The CPU time ({@link ThreadMXBean#getCurrentThreadCpuTime()}) and the wall time of each task are measured, and every resize
+ * interval the pool size is set to {@code cpus * targetUtilization * (1 + wait / compute)}, between the bounds, where wait is the
+ * wall time minus the CPU time. That is as many threads as needed to keep the CPUs busy, when each thread only uses the CPU part of
+ * the time.
+ * <p>
+ * When the CPUs are busy, a thread also waits for a CPU, which looks like blocking, and would make the pool grow without giving more
+ * throughput. So the pool only grows while the JVM uses less than the target share of the CPUs, and there are tasks waiting in the
+ * queue. It shrinks whenever the estimated size is smaller.
+ * <p>
+ * The pool is resized by the threads that submit or complete tasks, so it is not resized while no tasks are submitted or completed.
+ * Measuring the CPU time costs about a microsecond per task, so the pool is meant for tasks that take much longer than that. If the JVM
+ * cannot measure the CPU time of threads, the pool is not resized, and stays at the minimum size, which is logged as a warning when it
+ * is created.
+ */
+public class AdaptiveExecutor extends InstrumentedThreadPoolExecutor {
+
+    public static final double DEFAULT_TARGET_UTILIZATION = 0.9;
+    public static final Duration DEFAULT_RESIZE_INTERVAL = Duration.ofMillis(100);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveExecutor.class);
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final OperatingSystemMXBean OS_MX_BEAN = ManagementFactory.getOperatingSystemMXBean();
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final int cpus;
+    private final double targetUtilization;
+    private final long resizeIntervalNanos;
+    private final boolean cpuTimeSupported;
+    private final ThreadLocal<long[]> taskStart = ThreadLocal.withInitial(() -> new long[2]); // Wall and CPU time
+
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final AtomicLong lastResizeNanos = new AtomicLong(System.nanoTime());
+    private volatile long lastProcessCpuNanos = processCpuNanos();
+    private final LongAdder resizes = new LongAdder();
+    private volatile double waitToComputeRatio;
+    private volatile double cpuUtilization;
+
+    public AdaptiveExecutor(String name, int minThreads, int maxThreads) {
+        this(name, minThreads, maxThreads, Runtime.getRuntime().availableProcessors(), DEFAULT_TARGET_UTILIZATION,
+                DEFAULT_RESIZE_INTERVAL);
+    }
+
+    public AdaptiveExecutor(
+            String name, int minThreads, int maxThreads, int cpus, double targetUtilization, Duration resizeInterval) {
+        super(name, checkBounds(minThreads, maxThreads), maxThreads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        if (cpus < 1) {
+            throw new IllegalArgumentException("There must be at least one CPU, but was: " + cpus);
+        }
+        if (!(targetUtilization > 0 && targetUtilization <= 1)) {
+            throw new IllegalArgumentException("Target utilization must be above 0 and at most 1, but was: " + targetUtilization);
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.cpus = cpus;
+        this.targetUtilization = targetUtilization;
+        this.resizeIntervalNanos = resizeInterval.toNanos();
+        this.cpuTimeSupported = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled();
+        if (!cpuTimeSupported) {
+            LOGGER.warn("The CPU time of threads cannot be measured, so {} is not resized, and stays at {} threads", name, minThreads);
+        }
+    }
+
+    private static int checkBounds(int minThreads, int maxThreads) {
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Invalid bounds: " + minThreads + " to " + maxThreads + " threads");
+        }
+        return minThreads;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command);
+        maybeResize();
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        long[] start = taskStart.get();
+        start[0] = System.nanoTime();
+        start[1] = cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable failure) {
+        long[] start = taskStart.get();
+        wallNanos.add(System.nanoTime() - start[0]);
+        if (cpuTimeSupported) {
+            cpuNanos.add(THREAD_MX_BEAN.getCurrentThreadCpuTime() - start[1]);
+        }
+        super.afterExecute(task, failure);
+        maybeResize();
+    }
+
+    private void maybeResize() {
+        long last = lastResizeNanos.get();
+        long now = System.nanoTime();
+        if (now - last < resizeIntervalNanos || !cpuTimeSupported || !lastResizeNanos.compareAndSet(last, now)) {
+            return; // Not yet, or another thread resizes the pool
+        }
+        long wall = wallNanos.sumThenReset();
+        long cpu = cpuNanos.sumThenReset();
+        long processCpu = processCpuNanos();
+        long busyCpu = processCpu < 0 ? cpu : Math.max(cpu, processCpu - lastProcessCpuNanos); // The process time may be coarse
+        lastProcessCpuNanos = processCpu;
+        if (wall == 0) {
+            return; // No tasks have completed
+        }
+        waitToComputeRatio = (double) Math.max(wall - cpu, 0) / Math.max(cpu, 1);
+        cpuUtilization = (double) busyCpu / ((now - last) * (double) cpus);
+
+        int current = getCorePoolSize();
+        int estimate = (int) Math.round(Math.min(cpus * targetUtilization * (1 + waitToComputeRatio), maxThreads));
+        int size = Math.max(minThreads, estimate);
+        if (size > current && (cpuUtilization >= targetUtilization || getQueue().isEmpty())) {
+            return; // More threads would only compete for the CPUs, or wait for tasks
+        }
+        if (size != current) {
+            setCorePoolSize(size);
+            resizes.increment();
+        }
+    }
+
+    /**
+     * The CPU time used by the JVM, if it can be measured, otherwise -1.
+     */
+    private static long processCpuNanos() {
+        if (OS_MX_BEAN instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) OS_MX_BEAN).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    public int minThreads() {
+        return minThreads;
+    }
+
+    public int maxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * The time the tasks spent blocking, relative to the CPU time they used, in the last resize interval with completed tasks.
+     */
+    public double waitToComputeRatio() {
+        return waitToComputeRatio;
+    }
+
+    /**
+     * The CPU time used by the JVM, or if that cannot be measured, by the tasks, relative to the time of all CPUs, in the last resize
+     * interval with completed tasks.
+     */
+    public double cpuUtilization() {
+        return cpuUtilization;
+    }
+
+    public long resizes() {
+        return resizes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveExecutor(" + name() + ", poolSize=" + getCorePoolSize() + " of " + minThreads + " to " + maxThreads
+                + ", waitToComputeRatio=" + String.format("%.2f", waitToComputeRatio) + ", cpuUtilization="
+                + String.format("%.2f", cpuUtilization) + ", resizes=" + resizes() + ")";
+    }
+}
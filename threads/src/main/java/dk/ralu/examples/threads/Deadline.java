@@ -0,0 +1,76 @@
+package dk.ralu.examples.threads;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a request must be done, which is passed along the stages of the request, so each stage gets the time that
+ * is left, rather than a timeout of its own that ignores the time already spent.
+ * <p>
+ * Deadlines are measured with {@link System#nanoTime()}, so they are only meaningful within the JVM.
+ */
+public final class Deadline implements Comparable<Deadline> {
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return after(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * The time left, which is zero or negative if the deadline has passed.
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(nanoTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(remaining(TimeUnit.NANOSECONDS));
+    }
+
+    public boolean isExpired() {
+        return nanoTime - System.nanoTime() <= 0;
+    }
+
+    /**
+     * This deadline, or the other one, if it is earlier, e.g. the deadline of a request, or of a stage if it has a shorter timeout.
+     */
+    public Deadline earliest(Deadline other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    /**
+     * The earlier of this deadline, and the timeout from now.
+     */
+    public Deadline earliest(Duration timeout) {
+        return earliest(after(timeout));
+    }
+
+    @Override
+    public int compareTo(Deadline other) {
+        return Long.signum(nanoTime - other.nanoTime); // Not Long.compare, as nanoTime may overflow
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Deadline && nanoTime == ((Deadline) o).nanoTime;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(nanoTime);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(remaining=" + remaining(TimeUnit.MILLISECONDS) + " ms)";
+    }
+}
@@ -0,0 +1,132 @@
+package dk.ralu.examples.threads;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates executors for {@link java.util.concurrent.CompletableFuture} pipelines with blocking steps, like I/O, with named threads and
+ * task counts.
+ * <p>
+ * A fixed pool of platform threads runs at most as many blocking steps at a time as it has threads, and the common fork/join pool,
+ * which is sized for CPU bound work, is starved by them. With a thread per task, every step gets a thread of its own, so the number of
+ * concurrent steps is not limited by the executor. Virtual threads are cheap enough for one per task, even for many thousands of
+ * concurrent tasks, as a blocked virtual thread releases the platform thread it runs on.
+ * <p>
+ * Virtual threads need Java 21, and this project is compiled for Java 11, so they are looked up at runtime. On older Java versions,
+ * {@link Mode#VIRTUAL_THREAD_PER_TASK} falls back to a platform thread per task, which has the same concurrency, but costs more memory
+ * and start up time per task.
+ */
+public final class ExecutorFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorFactory.class);
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+
+    public enum Mode {
+
+        /**
+         * A fixed number of platform threads, with a queue for the tasks that are waiting for a thread.
+         */
+        PLATFORM_POOL,
+
+        /**
+         * A new platform thread for each task.
+         */
+        THREAD_PER_TASK,
+
+        /**
+         * A new virtual thread for each task, if supported, otherwise a new platform thread.
+         */
+        VIRTUAL_THREAD_PER_TASK
+    }
+
+    private ExecutorFactory() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    /**
+     * Creates an executor in the given mode, where the threads are named with the name followed by a number. The number of threads
+     * is only used by {@link Mode#PLATFORM_POOL}.
+     */
+    public static MeteredExecutorService create(Mode mode, String name, int threads) {
+        switch (mode) {
+            case PLATFORM_POOL:
+                return platformPool(name, threads);
+            case THREAD_PER_TASK:
+                return threadPerTask(name);
+            default:
+                return virtualThreadPerTask(name);
+        }
+    }
+
+    public static MeteredExecutorService platformPool(String name, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread, but was: " + threads);
+        }
+        ExecutorService pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory(name));
+        return new MeteredExecutorService(name, Mode.PLATFORM_POOL, pool);
+    }
+
+    /**
+     * A pool without idle threads, which starts a thread for each task that is submitted, and lets it end when the task is done.
+     */
+    public static MeteredExecutorService threadPerTask(String name) {
+        ExecutorService pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                new NamedThreadFactory(name));
+        return new MeteredExecutorService(name, Mode.THREAD_PER_TASK, pool);
+    }
+
+    public static MeteredExecutorService virtualThreadPerTask(String name) {
+        Objects.requireNonNull(name, "name");
+        if (!virtualThreadsSupported()) {
+            LOGGER.debug("Virtual threads are not supported by Java {}, using a platform thread per task for {}",
+                    System.getProperty("java.version"), name);
+            return threadPerTask(name);
+        }
+        ThreadFactory factory;
+        try {
+            factory = (ThreadFactory) NEW_VIRTUAL_THREAD_FACTORY.invoke(name);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        ExecutorService pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), factory);
+        return new MeteredExecutorService(name, Mode.VIRTUAL_THREAD_PER_TASK, pool);
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().name(name, 0).factory()}, which is available from Java 21, or returns null.
+     */
+    private static MethodHandle findVirtualThreadFactory() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Class<?> virtualBuilderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(virtualBuilderType));
+            MethodHandle name = lookup.findVirtual(virtualBuilderType, "name",
+                    MethodType.methodType(virtualBuilderType, String.class, long.class));
+            MethodHandle factory = lookup.findVirtual(builderType, "factory", MethodType.methodType(ThreadFactory.class));
+            ofVirtual.invoke(); // Throws if virtual threads are a preview feature that is not enabled
+            // A new builder for each executor, as builders are not thread safe
+            MethodHandle named = MethodHandles.collectArguments(MethodHandles.insertArguments(name, 2, 0L), 0, ofVirtual);
+            return MethodHandles.filterReturnValue(named.asType(MethodType.methodType(builderType, String.class)), factory);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package dk.ralu.examples.threads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timeouts and combinators for {@link CompletableFuture}s with a {@link Deadline}, so one slow dependency cannot hold up a request
+ * longer than the request may take.
+ * <p>
+ * {@code thenCombine}, {@code applyToEither} and {@link CompletableFuture#allOf} wait as long as their slowest input. Here:
+ * <ul>
+ * <li>{@link #orTimeout(CompletableFuture, Duration, Deadline)} fails a stage when it exceeds its own timeout or the deadline of the
+ * request, whichever comes first
+ * <li>{@link #allOf(List, Deadline, Object)} gives the results that are there at the deadline, with a fallback for the rest
+ * <li>{@link #anyOf(List, Deadline)} gives the first successful result, and cancels the futures that lost
+ * </ul>
+ * All timeouts are scheduled on one shared {@link HashedWheelTimer}, and cancelled when the future completes first. Like with
+ * {@link CompletableFuture#orTimeout}, a future that times out is completed on the timer thread, so dependent stages that do real work
+ * should be async. Cancelling a future does not stop the task that would have completed it, which should check for that itself.
+ */
+public final class FutureTimeouts {
+
+    private final HashedWheelTimer timer;
+
+    public FutureTimeouts(HashedWheelTimer timer) {
+        this.timer = Objects.requireNonNull(timer, "timer");
+    }
+
+    /**
+     * Completes the future with a {@link TimeoutException}, if it is not completed within the timeout.
+     *
+     * @return the given future
+     */
+    public <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, Duration timeout) {
+        return orTimeout(future, Deadline.after(timeout));
+    }
+
+    /**
+     * Completes the future with a {@link TimeoutException}, if it is not completed by the deadline.
+     *
+     * @return the given future
+     */
+    public <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, Deadline deadline) {
+        if (future.isDone()) {
+            return future;
+        }
+        long remainingNanos = deadline.remaining(TimeUnit.NANOSECONDS);
+        if (remainingNanos <= 0) {
+            future.completeExceptionally(new TimeoutException("Deadline passed"));
+            return future;
+        }
+        HashedWheelTimer.Timeout timeout = timer.schedule(
+                () -> future.completeExceptionally(new TimeoutException("Timed out after " + remainingNanos / 1_000_000 + " ms")),
+                remainingNanos, TimeUnit.NANOSECONDS);
+        future.whenComplete((result, failure) -> timeout.cancel());
+        return future;
+    }
+
+    /**
+     * Completes the future with a {@link TimeoutException}, if it is not completed within the timeout of the stage, or by the deadline
+     * of the request, whichever comes first.
+     *
+     * @return the given future
+     */
+    public <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, Duration stageTimeout, Deadline deadline) {
+        return orTimeout(future, deadline.earliest(stageTimeout));
+    }
+
+    /**
+     * Completes the future with the value, if it is not completed by the deadline.
+     *
+     * @return the given future
+     */
+    public <T> CompletableFuture<T> completeOnTimeout(CompletableFuture<T> future, T value, Deadline deadline) {
+        if (future.isDone()) {
+            return future;
+        }
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> future.complete(value), deadline.remaining(TimeUnit.NANOSECONDS),
+                TimeUnit.NANOSECONDS);
+        future.whenComplete((result, failure) -> timeout.cancel());
+        return future;
+    }
+
+    /**
+     * The results of the futures, in order, when all have completed, or at the deadline, when the futures that have not completed are
+     * cancelled. Futures that failed, were cancelled or did not complete in time give the fallback value.
+     */
+    public <T> CompletableFuture<List<T>> allOf(List<? extends CompletableFuture<? extends T>> futures, Deadline deadline, T fallback) {
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            result.complete(Collections.emptyList());
+            return result;
+        }
+        AtomicBoolean settled = new AtomicBoolean();
+        Runnable finish = () -> {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            List<T> values = new ArrayList<>(futures.size());
+            for (CompletableFuture<? extends T> future : futures) {
+                values.add(future.isDone() && !future.isCompletedExceptionally() ? future.join() : fallback);
+            }
+            cancelAll(futures); // Before completing, so the late futures are cancelled when the results are seen
+            result.complete(values);
+        };
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (CompletableFuture<? extends T> future : futures) {
+            future.whenComplete((value, failure) -> {
+                if (remaining.decrementAndGet() == 0) {
+                    finish.run();
+                }
+            });
+        }
+        if (!result.isDone()) {
+            HashedWheelTimer.Timeout timeout = timer.schedule(finish, deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            result.whenComplete((values, failure) -> timeout.cancel());
+        }
+        return result;
+    }
+
+    /**
+     * The result of the first future that completes successfully, after which the other futures are cancelled. Fails with the last
+     * failure if all futures fail, or with a {@link TimeoutException} if none succeeds by the deadline, when all are cancelled.
+     */
+    public <T> CompletableFuture<T> anyOf(List<? extends CompletableFuture<? extends T>> futures, Deadline deadline) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one future");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean settled = new AtomicBoolean(); // Set by the first future to succeed, the last to fail, or the deadline
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<? extends T> future : futures) {
+            future.whenComplete((value, failure) -> {
+                if (failure == null) {
+                    if (settled.compareAndSet(false, true)) {
+                        cancelAll(futures);
+                        result.complete(value);
+                    }
+                } else if (failures.incrementAndGet() == futures.size() && settled.compareAndSet(false, true)) {
+                    result.completeExceptionally(failure);
+                }
+            });
+        }
+        if (!result.isDone()) {
+            HashedWheelTimer.Timeout timeout = timer.schedule(() -> {
+                if (settled.compareAndSet(false, true)) {
+                    cancelAll(futures);
+                    result.completeExceptionally(new TimeoutException("No future succeeded by the deadline"));
+                }
+            }, deadline.remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            result.whenComplete((value, failure) -> timeout.cancel());
+        }
+        return result;
+    }
+
+    private static void cancelAll(List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true); // Does nothing if it has completed
+        }
+    }
+}
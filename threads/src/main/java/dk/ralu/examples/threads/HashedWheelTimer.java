@@ -0,0 +1,284 @@
+package dk.ralu.examples.threads;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A timer for many short timeouts, e.g. one per request, that are usually cancelled before they expire, run by a single thread.
+ * <p>
+ * A {@link java.util.concurrent.ScheduledThreadPoolExecutor} keeps its tasks in a heap, so scheduling and cancelling costs O(log n)
+ * and a lock. Here the time is divided into ticks, and each timeout is put in the bucket of the wheel for its tick, so scheduling and
+ * cancelling costs O(1): a timeout is added to a lock free queue, which the timer thread moves to the wheel at the next tick, and a
+ * cancelled timeout is added to another queue, from which the timer thread removes it from its bucket at the next tick, so it can be
+ * garbage collected while it is young. Timeouts expire up to one tick late.
+ * <p>
+ * Expired tasks are run by the timer thread, so they must be short, e.g. completing a future, and should hand off any real work. What
+ * a task throws, including errors, is logged, and an interrupt of the timer thread by a task is cleared.
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * A scheduled task.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the task, unless it has expired.
+         *
+         * @return whether the task was cancelled by this call
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] wheel; // Only used by the timer thread
+    private final Queue<Entry> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingTimeouts = new AtomicInteger();
+    private final long startNanos;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * A timer with ticks of 10 ms, and a wheel of 512 buckets, i.e. about 5 seconds per turn.
+     */
+    public HashedWheelTimer(String name) {
+        this(name, Duration.ofMillis(10), 512);
+    }
+
+    /**
+     * A timer with the given tick and number of buckets, which is rounded up to a power of two. Timeouts longer than a turn of the
+     * wheel wait one or more turns in their bucket.
+     */
+    public HashedWheelTimer(String name, Duration tick, int buckets) {
+        Objects.requireNonNull(name, "name");
+        if (tick.toNanos() < TimeUnit.MILLISECONDS.toNanos(1)) {
+            throw new IllegalArgumentException("Tick must be at least 1 ms, but was: " + tick);
+        }
+        if (buckets < 1 || buckets > 1 << 20) {
+            throw new IllegalArgumentException("Buckets must be 1 to 2^20, but was: " + buckets);
+        }
+        int size = buckets == 1 ? 1 : Integer.highestOneBit(buckets - 1) << 1;
+        this.tickNanos = tick.toNanos();
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.startNanos = System.nanoTime();
+        this.thread = new NamedThreadFactory(name, true).newThread(this::run);
+        thread.start();
+    }
+
+    /**
+     * Schedules the task to run on the timer thread after the delay.
+     *
+     * @throws IllegalStateException if the timer is closed
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Objects.requireNonNull(task, "task");
+        if (closed) {
+            throw new IllegalStateException("Timer is closed");
+        }
+        Entry entry = new Entry(this, task, System.nanoTime() + unit.toNanos(Math.max(delay, 0)));
+        pendingTimeouts.incrementAndGet();
+        added.add(entry);
+        return entry;
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        return schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of timeouts that have neither expired nor been cancelled.
+     */
+    public int pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    public int buckets() {
+        return wheel.length;
+    }
+
+    /**
+     * Stops the timer thread. Pending timeouts never expire.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            // Clears an interrupt by a task, or a stage completed by it, which would make parkNanos return at once. close() sets closed
+            // before interrupting, so it is seen by the loop.
+            Thread.interrupted();
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue; // Woken early, spuriously or by close
+            }
+            removeCancelled();
+            transferAdded(tick);
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Entry entry;
+        while ((entry = cancelled.poll()) != null) {
+            if (entry.bucket != null) {
+                entry.bucket.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Moves the added timeouts to the buckets of the ticks they expire in, the first tick that ends after their deadline.
+     */
+    private void transferAdded(long tick) {
+        Entry entry;
+        while ((entry = added.poll()) != null) {
+            if (entry.state != PENDING) {
+                continue;
+            }
+            long expiryTick = Math.max(tick, Math.floorDiv(entry.deadlineNanos - startNanos + tickNanos - 1, tickNanos) - 1);
+            entry.remainingRounds = (expiryTick - tick) / wheel.length;
+            wheel[(int) (expiryTick & mask)].add(entry);
+        }
+    }
+
+    /**
+     * The timeouts of one bucket, in a doubly linked list through the timeouts, so a cancelled timeout can be removed without a search.
+     * Only used by the timer thread.
+     */
+    private static final class Bucket {
+
+        private Entry head;
+        private Entry tail;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = tail;
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        void remove(Entry entry) {
+            if (entry.prev == null) {
+                head = entry.next;
+            } else {
+                entry.prev.next = entry.next;
+            }
+            if (entry.next == null) {
+                tail = entry.prev;
+            } else {
+                entry.next.prev = entry.prev;
+            }
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        /**
+         * Expires the timeouts that are due in this turn of the wheel, and counts down the turns of the others.
+         */
+        void expire() {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.state != PENDING) {
+                    remove(entry); // Cancelled after the cancelled timeouts were removed
+                } else if (entry.remainingRounds <= 0) {
+                    remove(entry);
+                    entry.expire();
+                } else {
+                    entry.remainingRounds--;
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private static final class Entry implements Timeout {
+
+        private static final AtomicIntegerFieldUpdater<Entry> STATE = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private volatile int state = PENDING;
+        // Only used by the timer thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Entry prev;
+        private Entry next;
+
+        Entry(HashedWheelTimer timer, Runnable task, long deadlineNanos) {
+            this.timer = timer;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                timer.pendingTimeouts.decrementAndGet();
+                timer.cancelled.add(this);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        void expire() {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+            timer.pendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Timeout task failed", e);
+            } catch (Throwable e) {
+                LOGGER.error("Timeout task failed, the timer keeps running", e); // Rather than ending the timer thread
+            }
+        }
+    }
+}
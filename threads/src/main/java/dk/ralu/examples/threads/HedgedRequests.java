@@ -0,0 +1,247 @@
+package dk.ralu.examples.threads;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests, which cut the tail latency caused by stragglers, e.g. a server that pauses for a garbage collection: a request is
+ * sent again if it has not completed after the time most requests take, and the first result is used.
+ * <p>
+ * Unlike racing two calls with {@link CompletableFuture#applyToEither}, which doubles the load, the backup call is only started if the
+ * primary call has not completed after the hedge delay, a percentile of the latencies of recent primary calls, e.g. the 95th, so only
+ * about 5% of the requests are sent twice. The call that loses is cancelled.
+ * <p>
+ * The latencies are recorded in a {@link Histogram}, which is replaced when it has a window of latencies, e.g. 1,000, and the hedge
+ * delay is the percentile of the last full window. Until then it is the initial delay. A primary call that is cancelled because the
+ * backup won is recorded with the time it had taken, which is less than its latency, but still above the hedge delay. One that is
+ * cancelled for another reason, e.g. because the result was cancelled, is not recorded.
+ * <p>
+ * The extra load is limited by a budget: each request adds the budget percentage of a backup call to it, and a backup call is only
+ * started if there is a whole backup call in it, so when many requests are slow, e.g. because the server is overloaded, at most that
+ * percentage of them are sent twice. The budget of up to one window of requests can be saved for bursts of slow requests.
+ * <p>
+ * The backup calls are scheduled on a {@link HashedWheelTimer}, so its tick should be well below the hedge delay, and started by an
+ * executor, as the request may block, e.g. on a full queue, which would delay the other timeouts of the timer. A primary call that
+ * fails is not retried, and its failure is the result, unless the backup call has started, when the result fails only if both fail.
+ * A request that throws when starting the backup call counts as a failed backup call.
+ */
+public final class HedgedRequests {
+
+    public static final double DEFAULT_PERCENTILE = 95;
+    public static final double DEFAULT_BUDGET_PERCENT = 5;
+    public static final int DEFAULT_WINDOW = 1_000;
+
+    private static final long BACKUP_COST = 10_000; // The budget is counted in hundredths of a percent of a backup call
+
+    private final HashedWheelTimer timer;
+    private final Executor executor;
+    private final double percentile;
+    private final long budgetPerRequest;
+    private final long maxBudget;
+    private final int window;
+
+    private final AtomicReference<Histogram> latencies = new AtomicReference<>(new Histogram());
+    private final AtomicLong recorded = new AtomicLong();
+    private volatile long hedgeDelayNanos;
+    private final AtomicLong budget = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder backups = new LongAdder();
+    private final LongAdder backupsOverBudget = new LongAdder();
+
+    public HedgedRequests(HashedWheelTimer timer, Executor executor, Duration initialDelay) {
+        this(timer, executor, initialDelay, DEFAULT_PERCENTILE, DEFAULT_BUDGET_PERCENT, DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param timer schedules the backup calls
+     * @param executor starts the backup calls, so a request that blocks while starting a call does not hold up the timer
+     */
+    public HedgedRequests(
+            HashedWheelTimer timer, Executor executor, Duration initialDelay, double percentile, double budgetPercent, int window) {
+        if (initialDelay.isNegative()) {
+            throw new IllegalArgumentException("Initial delay must not be negative, but was: " + initialDelay);
+        }
+        if (!(percentile > 0 && percentile < 100)) {
+            throw new IllegalArgumentException("Percentile must be above 0 and below 100, but was: " + percentile);
+        }
+        if (!(budgetPercent >= 0 && budgetPercent <= 100)) {
+            throw new IllegalArgumentException("Budget must be 0 to 100 percent, but was: " + budgetPercent);
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("Window must be at least one latency, but was: " + window);
+        }
+        this.timer = Objects.requireNonNull(timer, "timer");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.hedgeDelayNanos = initialDelay.toNanos();
+        this.percentile = percentile;
+        this.budgetPerRequest = Math.round(budgetPercent * BACKUP_COST / 100);
+        this.maxBudget = Math.max(budgetPerRequest * window, BACKUP_COST);
+        this.window = window;
+    }
+
+    /**
+     * Calls the request, and calls it again if it has not completed after the hedge delay, and the budget allows it.
+     *
+     * @param request starts a call, e.g. sends a request to a server, and is called once or twice
+     * @return the result of the call that succeeds first, after the other call is cancelled. Cancelling it cancels the calls.
+     */
+    public <T> CompletableFuture<T> call(Supplier<? extends CompletableFuture<? extends T>> request) {
+        requests.increment();
+        budget.accumulateAndGet(budgetPerRequest, (saved, added) -> Math.min(saved + added, maxBudget));
+        return new Call<T>(request).start(hedgeDelayNanos);
+    }
+
+    /**
+     * The delay after which a backup call is started.
+     */
+    public Duration hedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * The number of backup calls that were started.
+     */
+    public long backups() {
+        return backups.sum();
+    }
+
+    /**
+     * The number of backup calls that were not started, because the budget was used.
+     */
+    public long backupsOverBudget() {
+        return backupsOverBudget.sum();
+    }
+
+    /**
+     * Records the latency of a primary call, and updates the hedge delay when the window is full.
+     */
+    void record(long latencyNanos) {
+        latencies.get().record(latencyNanos);
+        if (recorded.incrementAndGet() % window == 0) {
+            Histogram.Snapshot snapshot = latencies.getAndSet(new Histogram()).snapshot();
+            hedgeDelayNanos = snapshot.percentile(percentile);
+        }
+    }
+
+    private boolean withdrawBackup() {
+        long saved;
+        do {
+            saved = budget.get();
+            if (saved < BACKUP_COST) {
+                return false;
+            }
+        } while (!budget.compareAndSet(saved, saved - BACKUP_COST));
+        return true;
+    }
+
+    private final class Call<T> {
+
+        private final Supplier<? extends CompletableFuture<? extends T>> request;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicBoolean settled = new AtomicBoolean(); // Set by the first call to succeed, or the last to fail
+        private final long startNanos = System.nanoTime();
+        private CompletableFuture<? extends T> primary; // Guarded by this
+        private CompletableFuture<? extends T> backup; // Guarded by this
+        private int running; // Guarded by this
+        private volatile boolean backupWon;
+
+        Call(Supplier<? extends CompletableFuture<? extends T>> request) {
+            this.request = request;
+        }
+
+        CompletableFuture<T> start(long delayNanos) {
+            CompletableFuture<? extends T> primaryCall;
+            synchronized (this) {
+                running = 1;
+                primary = primaryCall = request.get();
+            }
+            primaryCall.whenComplete((value, failure) -> {
+                if (failure == null || failure instanceof CancellationException && backupWon) {
+                    record(System.nanoTime() - startNanos);
+                }
+                completed(value, failure, false);
+            });
+            if (!result.isDone()) {
+                HashedWheelTimer.Timeout timeout = timer.schedule(() -> executor.execute(this::startBackup), delayNanos,
+                        TimeUnit.NANOSECONDS);
+                result.whenComplete((value, failure) -> {
+                    timeout.cancel();
+                    cancelCalls(); // If the result was cancelled
+                });
+            }
+            return result;
+        }
+
+        private void startBackup() {
+            synchronized (this) {
+                if (running == 0 || settled.get()) {
+                    return;
+                }
+                if (!withdrawBackup()) {
+                    backupsOverBudget.increment();
+                    return;
+                }
+                running++;
+            }
+            backups.increment();
+            CompletableFuture<? extends T> backupCall;
+            try {
+                backupCall = request.get();
+            } catch (RuntimeException e) {
+                completed(null, e, true); // Like a backup call that failed, e.g. with a RejectedExecutionException
+                return;
+            }
+            synchronized (this) {
+                backup = backupCall;
+            }
+            if (settled.get()) {
+                backupCall.cancel(true); // The primary call completed while the backup call was started
+            }
+            backupCall.whenComplete((value, failure) -> completed(value, failure, true));
+        }
+
+        private void completed(T value, Throwable failure, boolean isBackup) {
+            if (failure == null) {
+                if (settled.compareAndSet(false, true)) {
+                    backupWon = isBackup;
+                    cancelCalls(); // Before completing, so the call that lost is cancelled when the result is seen
+                    result.complete(value);
+                }
+                return;
+            }
+            boolean last;
+            synchronized (this) {
+                last = --running == 0;
+            }
+            if (last && settled.compareAndSet(false, true)) {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        private void cancelCalls() {
+            CompletableFuture<? extends T> primaryCall;
+            CompletableFuture<? extends T> backupCall;
+            synchronized (this) {
+                primaryCall = primary;
+                backupCall = backup;
+            }
+            primaryCall.cancel(true); // Does nothing if it has completed
+            if (backupCall != null) {
+                backupCall.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dk.ralu.examples.threads;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, e.g. durations in nanoseconds or queue lengths, which many threads can record into without
+ * locking.
+ * <p>
+ * Each power of two is split into 8 buckets of equal width, and values below 8 have a bucket each, so a percentile is accurate to
+ * within 12.5%, whatever the range of the values, in a fixed number of counters. Recording a value increments a counter, a sum and
+ * perhaps the maximum.
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value, where negative values, e.g. from a clock that went backwards, are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(bucket(v));
+        count.increment();
+        sum.add(v);
+        if (v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The largest value in the bucket.
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowerBound = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+        return lowerBound + width - 1;
+    }
+
+    /**
+     * A copy of the counts. Values recorded while the copy is taken may be missing from some of its figures.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, count.sum(), sum.sum(), max.get());
+    }
+
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        /**
+         * The value that the given percentage of the values are less than or equal to, e.g. {@code percentile(99)}, rounded up to the
+         * end of its bucket, or 0 if there are no values.
+         */
+        public long percentile(double percentage) {
+            if (!(percentage >= 0 && percentage <= 100)) {
+                throw new IllegalArgumentException("Percentage must be 0 to 100, but was: " + percentage);
+            }
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentage / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + Math.round(mean()) + ", p50=" + percentile(50) + ", p99=" + percentile(99) + ", max="
+                    + max;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package dk.ralu.examples.threads;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ThreadPoolExecutor} with named threads that records what the pool is doing, so saturation can be seen before it shows up
+ * as latency.
+ * <p>
+ * For each task it records the queue depth when it is submitted, the number of active threads when it starts, the time it waits in the
+ * queue and the time it runs, in {@link Histogram}s, and it counts the tasks that are rejected. {@link #metrics()} returns a snapshot
+ * of the figures, which is cheap enough to take every few seconds, e.g. to log or export it.
+ * <p>
+ * Tasks are wrapped to record their times, so the tasks returned by {@link #shutdownNow()} and in {@link #getQueue()} are the wrappers,
+ * and cannot be removed from the queue with the tasks that were submitted.
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final RejectionCounter rejections;
+    private final AtomicInteger activeThreads = new AtomicInteger();
+    private final LongAdder completedTasks = new LongAdder();
+    private final Histogram queueDepths = new Histogram();
+    private final Histogram activeThreadCounts = new Histogram();
+    private final Histogram waitTimes = new Histogram();
+    private final Histogram runTimes = new Histogram();
+
+    public InstrumentedThreadPoolExecutor(
+            String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue) {
+        this(name, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, new AbortPolicy());
+    }
+
+    public InstrumentedThreadPoolExecutor(
+            String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue,
+            RejectedExecutionHandler handler) {
+        this(name, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, new RejectionCounter(handler));
+    }
+
+    private InstrumentedThreadPoolExecutor(
+            String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, BlockingQueue<Runnable> workQueue,
+            RejectionCounter rejections) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, new NamedThreadFactory(name), rejections);
+        this.name = name;
+        this.rejections = rejections;
+    }
+
+    /**
+     * A pool with a fixed number of threads and an unbounded queue, like {@link java.util.concurrent.Executors#newFixedThreadPool(int)}.
+     */
+    public static InstrumentedThreadPoolExecutor fixed(String name, int threads) {
+        return new InstrumentedThreadPoolExecutor(name, threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    /**
+     * A pool with a fixed number of threads, which rejects tasks when the queue is full.
+     */
+    public static InstrumentedThreadPoolExecutor bounded(String name, int threads, int queueCapacity) {
+        return new InstrumentedThreadPoolExecutor(name, threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        queueDepths.record(getQueue().size());
+        super.execute(new TimedTask(command, System.nanoTime()));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public PoolMetricsSnapshot metrics() {
+        return new PoolMetricsSnapshot(name, getPoolSize(), getCorePoolSize(), getMaximumPoolSize(), activeThreads.get(),
+                getQueue().size(), getQueue().remainingCapacity(), completedTasks.sum(), rejections.count.sum(),
+                queueDepths.snapshot(), activeThreadCounts.snapshot(), waitTimes.snapshot(), runTimes.snapshot());
+    }
+
+    @Override
+    public String toString() {
+        return metrics().toString();
+    }
+
+    private final class TimedTask implements Runnable {
+
+        private final Runnable task;
+        private final long submittedNanos;
+
+        TimedTask(Runnable task, long submittedNanos) {
+            this.task = task;
+            this.submittedNanos = submittedNanos;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            waitTimes.record(startNanos - submittedNanos);
+            activeThreadCounts.record(activeThreads.incrementAndGet());
+            try {
+                task.run();
+            } finally {
+                activeThreads.decrementAndGet();
+                runTimes.record(System.nanoTime() - startNanos);
+                completedTasks.increment();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+
+    /**
+     * Counts the rejected tasks, and passes them on to the handler of the pool.
+     */
+    private static final class RejectionCounter implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler handler;
+        private final LongAdder count = new LongAdder();
+
+        RejectionCounter(RejectedExecutionHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            count.increment();
+            handler.rejectedExecution(task, executor);
+        }
+    }
+}
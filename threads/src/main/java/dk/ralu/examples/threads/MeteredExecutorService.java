@@ -0,0 +1,123 @@
+package dk.ralu.examples.threads;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor, created by {@link ExecutorFactory}, that counts the tasks it runs.
+ * <p>
+ * The counts are kept by wrapping each task, so they are the same whatever executor runs the tasks, a pool or a thread per task.
+ */
+public final class MeteredExecutorService extends AbstractExecutorService {
+
+    private final String name;
+    private final ExecutorFactory.Mode mode;
+    private final ExecutorService delegate;
+    private final LongAdder submittedTasks = new LongAdder();
+    private final LongAdder completedTasks = new LongAdder();
+    private final LongAdder failedTasks = new LongAdder();
+    private final AtomicInteger runningTasks = new AtomicInteger();
+    private final AtomicInteger peakRunningTasks = new AtomicInteger();
+
+    MeteredExecutorService(String name, ExecutorFactory.Mode mode, ExecutorService delegate) {
+        this.name = name;
+        this.mode = mode;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Objects.requireNonNull(task, "task");
+        submittedTasks.increment();
+        delegate.execute(() -> {
+            peakRunningTasks.accumulateAndGet(runningTasks.incrementAndGet(), Math::max);
+            try {
+                task.run();
+                completedTasks.increment();
+            } catch (RuntimeException | Error e) {
+                failedTasks.increment();
+                throw e;
+            } finally {
+                runningTasks.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * The prefix of the names of the threads that run the tasks.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * The mode the tasks actually run in, which for {@link ExecutorFactory.Mode#VIRTUAL_THREAD_PER_TASK} is
+     * {@link ExecutorFactory.Mode#THREAD_PER_TASK} if virtual threads are not supported.
+     */
+    public ExecutorFactory.Mode mode() {
+        return mode;
+    }
+
+    public long submittedTasks() {
+        return submittedTasks.sum();
+    }
+
+    /**
+     * Tasks that returned normally. Tasks run by a {@link java.util.concurrent.CompletableFuture} catch their own exceptions, so a
+     * failed stage counts as completed here.
+     */
+    public long completedTasks() {
+        return completedTasks.sum();
+    }
+
+    public long failedTasks() {
+        return failedTasks.sum();
+    }
+
+    public int runningTasks() {
+        return runningTasks.get();
+    }
+
+    /**
+     * The largest number of tasks that have run at the same time.
+     */
+    public int peakRunningTasks() {
+        return peakRunningTasks.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "MeteredExecutorService(" + name + ", " + mode + ", submitted=" + submittedTasks() + ", completed=" + completedTasks()
+                + ", failed=" + failedTasks() + ", running=" + runningTasks() + ", peakRunning=" + peakRunningTasks() + ")";
+    }
+}
@@ -0,0 +1,45 @@
+package dk.ralu.examples.threads;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates threads named with a prefix followed by a number, e.g. {@code my-thread-pool-0}.
+ * <p>
+ * A pool may create threads from several threads at the same time, e.g. when tasks are submitted concurrently, so the number is
+ * taken from an {@link AtomicInteger}, and every thread gets a name of its own.
+ */
+public final class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final boolean daemon;
+    private final AtomicInteger nextThreadNumber = new AtomicInteger();
+
+    public NamedThreadFactory(String prefix) {
+        this(prefix, false);
+    }
+
+    /**
+     * Daemon threads do not keep the JVM running, so a pool that is not shut down does not prevent it from exiting.
+     */
+    public NamedThreadFactory(String prefix, boolean daemon) {
+        this.prefix = Objects.requireNonNull(prefix, "prefix");
+        this.daemon = daemon;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + nextThreadNumber.getAndIncrement());
+        thread.setDaemon(daemon);
+        return thread;
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    public int threadsCreated() {
+        return nextThreadNumber.get();
+    }
+}
@@ -0,0 +1,131 @@
+package dk.ralu.examples.threads;
+
+/**
+ * The figures of an {@link InstrumentedThreadPoolExecutor} at one point in time. The histograms hold the values since the pool was
+ * created, and times are in nanoseconds.
+ */
+public final class PoolMetricsSnapshot {
+
+    private final String name;
+    private final int poolSize;
+    private final int corePoolSize;
+    private final int maximumPoolSize;
+    private final int activeThreads;
+    private final int queueDepth;
+    private final int queueRemainingCapacity;
+    private final long completedTasks;
+    private final long rejectedTasks;
+    private final Histogram.Snapshot queueDepths;
+    private final Histogram.Snapshot activeThreadCounts;
+    private final Histogram.Snapshot waitTimes;
+    private final Histogram.Snapshot runTimes;
+
+    PoolMetricsSnapshot(String name, int poolSize, int corePoolSize, int maximumPoolSize, int activeThreads, int queueDepth,
+            int queueRemainingCapacity, long completedTasks, long rejectedTasks, Histogram.Snapshot queueDepths,
+            Histogram.Snapshot activeThreadCounts, Histogram.Snapshot waitTimes, Histogram.Snapshot runTimes) {
+        this.name = name;
+        this.poolSize = poolSize;
+        this.corePoolSize = corePoolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.activeThreads = activeThreads;
+        this.queueDepth = queueDepth;
+        this.queueRemainingCapacity = queueRemainingCapacity;
+        this.completedTasks = completedTasks;
+        this.rejectedTasks = rejectedTasks;
+        this.queueDepths = queueDepths;
+        this.activeThreadCounts = activeThreadCounts;
+        this.waitTimes = waitTimes;
+        this.runTimes = runTimes;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * The number of threads in the pool, busy or idle.
+     */
+    public int poolSize() {
+        return poolSize;
+    }
+
+    public int corePoolSize() {
+        return corePoolSize;
+    }
+
+    public int maximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * The number of threads running a task.
+     */
+    public int activeThreads() {
+        return activeThreads;
+    }
+
+    /**
+     * The number of tasks waiting in the queue.
+     */
+    public int queueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * The number of tasks that can be added to the queue before it is full, which is {@link Integer#MAX_VALUE} for an unbounded queue.
+     */
+    public int queueRemainingCapacity() {
+        return queueRemainingCapacity;
+    }
+
+    /**
+     * Whether all threads the pool can have are busy, and tasks are waiting, so the wait times will grow if tasks keep arriving faster
+     * than they complete.
+     */
+    public boolean isSaturated() {
+        return activeThreads >= maximumPoolSize && queueDepth > 0;
+    }
+
+    public long completedTasks() {
+        return completedTasks;
+    }
+
+    public long rejectedTasks() {
+        return rejectedTasks;
+    }
+
+    /**
+     * The queue depth seen by each task when it was submitted.
+     */
+    public Histogram.Snapshot queueDepths() {
+        return queueDepths;
+    }
+
+    /**
+     * The number of active threads, including its own, when each task started.
+     */
+    public Histogram.Snapshot activeThreadCounts() {
+        return activeThreadCounts;
+    }
+
+    /**
+     * The time from submitting each task until it started.
+     */
+    public Histogram.Snapshot waitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * The time each task ran.
+     */
+    public Histogram.Snapshot runTimes() {
+        return runTimes;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetricsSnapshot(" + name + ", poolSize=" + poolSize + ", activeThreads=" + activeThreads + ", queueDepth="
+                + queueDepth + ", completedTasks=" + completedTasks + ", rejectedTasks=" + rejectedTasks + ", saturated=" + isSaturated()
+                + ", waitTimes=[" + waitTimes + "], runTimes=[" + runTimes + "])";
+    }
+}
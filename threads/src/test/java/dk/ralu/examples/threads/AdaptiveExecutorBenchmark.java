@@ -0,0 +1,105 @@
+package dk.ralu.examples.threads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link AdaptiveExecutor} with fixed pools of one thread per CPU, 5 threads (the size used in {@code CompletableFutureTest})
+ * and 100 threads, running 1,000 tasks, where every other task uses the CPU for about 0.2 ms, and the others sleep 2 ms to simulate
+ * I/O.
+ * <p>
+ * The score is the time per task, i.e. the inverse of the throughput. The adaptive pool keeps its size between invocations, so it has
+ * adapted to the tasks during the warmup. It is not faster than a fixed pool that is large enough, e.g. 108 vs 104 us per task for
+ * the pool of 100 threads on one CPU, but gets close with the few threads it needs (about 16), where the pools that are too small
+ * are two to ten times slower.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class AdaptiveExecutorBenchmark {
+
+    private static final int TASKS = 1_000;
+    private static final long CPU_TOKENS = 100_000;
+    private static final int IO_MILLIS = 2;
+
+    @Param({"ADAPTIVE", "FIXED_CPUS", "FIXED_5", "FIXED_100"})
+    private String pool;
+
+    private ThreadPoolExecutor executor;
+
+    @Setup
+    public void createPool() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        switch (pool) {
+            case "ADAPTIVE":
+                executor = new AdaptiveExecutor("adaptive-", 1, 200);
+                break;
+            case "FIXED_CPUS":
+                executor = InstrumentedThreadPoolExecutor.fixed("fixed-", cpus);
+                break;
+            case "FIXED_5":
+                executor = InstrumentedThreadPoolExecutor.fixed("fixed-", 5);
+                break;
+            default:
+                executor = InstrumentedThreadPoolExecutor.fixed("fixed-", 100);
+        }
+    }
+
+    @TearDown
+    public void shutdownPool() {
+        System.out.println(executor);
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void mixedTasks() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            boolean cpuBound = i % 2 == 0;
+            executor.execute(() -> {
+                if (cpuBound) {
+                    Blackhole.consumeCPU(CPU_TOKENS); // A fixed amount of work, however often the thread is preempted
+                } else {
+                    sleep(IO_MILLIS);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AdaptiveExecutorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
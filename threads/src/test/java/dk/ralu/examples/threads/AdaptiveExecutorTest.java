@@ -0,0 +1,89 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class AdaptiveExecutorTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveExecutorTest.class);
+
+    /**
+     * Tasks that mostly sleep use little CPU, so the pool grows until they run concurrently: 500 tasks of 10 ms take much less than the
+     * 5 seconds they would take on a single thread.
+     */
+    @Test
+    void growsForBlockingTasks() throws Exception {
+        AdaptiveExecutor executor = new AdaptiveExecutor("adaptive-", 1, 50, 1, 0.9, Duration.ofMillis(100));
+        try {
+            long startTime = System.currentTimeMillis();
+            runAll(executor, 500, () -> sleep(10));
+            long timeToRun = System.currentTimeMillis() - startTime;
+            LOGGER.info("{} ran the tasks in {} ms", executor, timeToRun);
+
+            assertTrue(executor.getCorePoolSize() > 10, executor.toString());
+            assertTrue(executor.waitToComputeRatio() > 10, executor.toString());
+            assertTrue(timeToRun < 3_000, "Took " + timeToRun + " ms");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tasks that only use the CPU keep one CPU busy with one thread, so the pool does not grow.
+     */
+    @Test
+    void staysAtCpuCountForCpuBoundTasks() throws Exception {
+        AdaptiveExecutor executor = new AdaptiveExecutor("adaptive-", 1, 50, 1, 0.9, Duration.ofMillis(100));
+        try {
+            runAll(executor, 500, () -> spin(TimeUnit.MILLISECONDS.toNanos(2)));
+            LOGGER.info("{}", executor);
+
+            assertTrue(executor.getCorePoolSize() <= 2, executor.toString());
+            assertTrue(executor.getLargestPoolSize() <= 2, executor.toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveExecutor("adaptive-", 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveExecutor("adaptive-", 5, 4));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveExecutor("adaptive-", 1, 4, 1, 1.5, Duration.ofMillis(20)));
+    }
+
+    private static void runAll(AdaptiveExecutor executor, int count, Runnable task) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executor.submit(task));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+    private static long spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        long hash = 0;
+        while (System.nanoTime() < end) {
+            hash = hash * 31 + 17;
+        }
+        return hash;
+    }
+}
@@ -8,7 +8,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -26,18 +25,7 @@ class CompletableFutureTest {
     /**
      * Subtypes of Executor can be used with CompletableFuture, so let's create one backed by a thread pool with 5 threads in it.
      */
-    private ExecutorService threadPool = Executors.newFixedThreadPool(5, new ThreadFactory() {
-
-        private int nextThreadNumber = 0;
-
-        @Override
-        public Thread newThread(Runnable runnable) {
-            Thread thread = new Thread(runnable);
-            thread.setName(MY_THREAD_POOL_THREAD_NAME_PREFIX + nextThreadNumber++);
-            return thread;
-
-        }
-    });
+    private ExecutorService threadPool = Executors.newFixedThreadPool(5, new NamedThreadFactory(MY_THREAD_POOL_THREAD_NAME_PREFIX));
 
     /**
      * A Runnable can be executed asynchronously using the built-in ForkJoinPool.commonPool().
@@ -0,0 +1,136 @@
+package dk.ralu.examples.threads;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the modes of {@link ExecutorFactory} running 10,000 concurrent pipelines, each a {@code supplyAsync} and a
+ * {@code thenApplyAsync} step that sleep 10 ms to simulate I/O, followed by a bit of CPU work.
+ * <p>
+ * The score is the time per pipeline, i.e. the inverse of the throughput, and the latencies of the pipelines, from submitting to
+ * completing, are reported as the {@code p50Millis} and {@code p99Millis} counters. The pool of 200 platform threads runs 200 steps at a
+ * time, so pipelines wait in its queue, while the modes with a thread per task start all of them at once. On Java versions without
+ * virtual threads, the virtual thread mode runs with platform threads, like the thread per task mode.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExecutorFactoryBenchmark {
+
+    private static final int PIPELINES = 10_000;
+    private static final int IO_MILLIS = 10;
+    private static final int POOL_THREADS = 200;
+
+    @Param({"PLATFORM_POOL", "THREAD_PER_TASK", "VIRTUAL_THREAD_PER_TASK"})
+    private ExecutorFactory.Mode mode;
+
+    private MeteredExecutorService executor;
+
+    @Setup
+    public void createExecutor() {
+        executor = ExecutorFactory.create(mode, "pipeline-", POOL_THREADS);
+    }
+
+    @TearDown
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The latencies of the pipelines of the current iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latencies {
+
+        public double p50Millis;
+        public double p99Millis;
+
+        private long[] nanos = new long[PIPELINES];
+        private int count;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            count = 0;
+        }
+
+        void record(long[] pipelineNanos) {
+            if (nanos.length < count + pipelineNanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + pipelineNanos.length));
+            }
+            System.arraycopy(pipelineNanos, 0, nanos, count, pipelineNanos.length);
+            count += pipelineNanos.length;
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            p50Millis = sorted[count / 2] / 1e6;
+            p99Millis = sorted[(int) (count * 0.99)] / 1e6;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINES)
+    public long pipelines(Latencies latencies) {
+        long[] startNanos = new long[PIPELINES];
+        long[] latencyNanos = new long[PIPELINES];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[PIPELINES];
+        for (int i = 0; i < PIPELINES; i++) {
+            int request = i;
+            startNanos[i] = System.nanoTime();
+            futures[i] = CompletableFuture
+                    .supplyAsync(() -> {
+                        sleep(IO_MILLIS);
+                        return (long) request;
+                    }, executor)
+                    .thenApplyAsync(response -> {
+                        sleep(IO_MILLIS);
+                        return response * 31;
+                    }, executor)
+                    .thenApply(response -> {
+                        long hash = response;
+                        for (int j = 0; j < 100; j++) {
+                            hash = hash * 6364136223846793005L + 1442695040888963407L;
+                        }
+                        latencyNanos[request] = System.nanoTime() - startNanos[request];
+                        return hash;
+                    });
+        }
+        CompletableFuture.allOf(futures).join();
+        latencies.record(latencyNanos);
+        return latencyNanos[PIPELINES - 1];
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExecutorFactoryBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class ExecutorFactoryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorFactoryTest.class);
+
+    /**
+     * A pool of platform threads runs as many blocking steps at a time as it has threads, and names its threads.
+     */
+    @Test
+    void platformPoolLimitsConcurrency() throws Exception {
+        MeteredExecutorService executor = ExecutorFactory.platformPool("io-pool-", 5);
+        try {
+            Set<String> threadNames = runBlockingPipelines(executor, 20);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS)); // The counts are updated after the futures are completed
+
+            assertEquals(5, threadNames.size());
+            assertTrue(threadNames.stream().allMatch(name -> name.startsWith("io-pool-")), threadNames.toString());
+            assertEquals(40, executor.submittedTasks());
+            assertEquals(40, executor.completedTasks());
+            assertEquals(0, executor.runningTasks());
+            assertEquals(5, executor.peakRunningTasks());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * With a (virtual) thread per task, all blocking steps can run at the same time, so 200 pipelines of two 100 ms steps take about
+     * 200 ms, rather than the 8 seconds they would take on a pool of 5 threads.
+     */
+    @Test
+    void threadPerTaskRunsAllBlockingStepsConcurrently() throws Exception {
+        for (ExecutorFactory.Mode mode : new ExecutorFactory.Mode[]{ExecutorFactory.Mode.THREAD_PER_TASK,
+                ExecutorFactory.Mode.VIRTUAL_THREAD_PER_TASK}) {
+            MeteredExecutorService executor = ExecutorFactory.create(mode, "io-task-", 0);
+            try {
+                long startTime = System.currentTimeMillis();
+                Set<String> threadNames = runBlockingPipelines(executor, 200);
+                long timeToRun = System.currentTimeMillis() - startTime;
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+                LOGGER.info("{} ran 200 pipelines in {} ms", executor, timeToRun);
+
+                assertTrue(timeToRun < 2_000, "Took " + timeToRun + " ms");
+                assertTrue(threadNames.stream().allMatch(name -> name.startsWith("io-task-")), threadNames.toString());
+                assertEquals(400, executor.completedTasks());
+                assertTrue(executor.peakRunningTasks() > 5, "Peak was " + executor.peakRunningTasks());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void virtualThreadModeFallsBackToPlatformThreads() {
+        MeteredExecutorService executor = ExecutorFactory.virtualThreadPerTask("io-task-");
+        executor.shutdown();
+
+        assertEquals(ExecutorFactory.virtualThreadsSupported() ? ExecutorFactory.Mode.VIRTUAL_THREAD_PER_TASK
+                             : ExecutorFactory.Mode.THREAD_PER_TASK, executor.mode());
+        assertEquals(Runtime.version().feature() >= 21, ExecutorFactory.virtualThreadsSupported());
+    }
+
+    /**
+     * Runs pipelines of two blocking steps, and returns the names of the threads that ran the steps.
+     */
+    private static Set<String> runBlockingPipelines(MeteredExecutorService executor, int count) throws Exception {
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int request = i;
+            futures.add(CompletableFuture
+                                .supplyAsync(() -> {
+                                    threadNames.add(Thread.currentThread().getName());
+                                    sleep(100);
+                                    return request;
+                                }, executor)
+                                .thenApplyAsync(response -> {
+                                    threadNames.add(Thread.currentThread().getName());
+                                    sleep(100);
+                                    return response + 1;
+                                }, executor));
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(i + 1, futures.get(i).get());
+        }
+        return threadNames;
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignore) {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FutureTimeoutsTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("timer-", Duration.ofMillis(5), 64);
+    private final FutureTimeouts timeouts = new FutureTimeouts(timer);
+    private final ExecutorService threadPool = Executors.newCachedThreadPool(new NamedThreadFactory("my-thread-pool-"));
+
+    @AfterEach
+    void shutdown() {
+        timer.close();
+        threadPool.shutdownNow();
+    }
+
+    /**
+     * Each stage has a timeout of 100 ms, but the request has a deadline of 150 ms, so the second stage only gets the 50 ms that are
+     * left after the first.
+     */
+    @Test
+    void stagesShareTheDeadlineOfTheRequest() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(150));
+        long startTime = System.currentTimeMillis();
+
+        CompletableFuture<String> result = timeouts
+                .orTimeout(supplyAfter(90, "Hello"), Duration.ofMillis(100), deadline)
+                .thenCompose(greeting -> timeouts.orTimeout(supplyAfter(90, greeting + " world"), Duration.ofMillis(100), deadline));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+        long timeToRun = System.currentTimeMillis() - startTime;
+        assertTrue(failure.getCause() instanceof TimeoutException, failure.toString());
+        assertTrue(timeToRun >= 150 && timeToRun < 170 + 100, "Took " + timeToRun + " ms");
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    void allOfGivesPartialResultsAtTheDeadline() throws Exception {
+        CompletableFuture<String> slow = supplyAfter(1_000, "slow");
+        List<CompletableFuture<String>> futures = Arrays.asList(
+                supplyAfter(10, "fast"),
+                slow,
+                CompletableFuture.failedFuture(new IllegalStateException("Failed")));
+
+        List<String> results = timeouts.allOf(futures, Deadline.after(Duration.ofMillis(100)), "fallback").get();
+
+        assertEquals(Arrays.asList("fast", "fallback", "fallback"), results);
+        assertTrue(slow.isCancelled());
+        assertEquals(Arrays.asList("a", "b"),
+                timeouts.allOf(Arrays.asList(supplyAfter(10, "a"), supplyAfter(20, "b")), Deadline.after(Duration.ofSeconds(1)), "-")
+                        .get());
+    }
+
+    @Test
+    void anyOfCancelsTheLosers() throws Exception {
+        CompletableFuture<String> failing = CompletableFuture.failedFuture(new IllegalStateException("Failed"));
+        CompletableFuture<String> fast = supplyAfter(20, "fast");
+        CompletableFuture<String> slow = supplyAfter(1_000, "slow");
+
+        assertEquals("fast", timeouts.anyOf(Arrays.asList(failing, slow, fast), Deadline.after(Duration.ofSeconds(1))).get());
+        assertTrue(slow.isCancelled());
+
+        CompletableFuture<String> tooSlow = supplyAfter(1_000, "slow");
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> timeouts.anyOf(Arrays.asList(tooSlow, failing), Deadline.after(Duration.ofMillis(50))).get());
+        assertTrue(failure.getCause() instanceof TimeoutException, failure.toString());
+        assertTrue(tooSlow.isCancelled());
+
+        failure = assertThrows(ExecutionException.class,
+                () -> timeouts.anyOf(Arrays.asList(failing, failing), Deadline.after(Duration.ofSeconds(1))).get());
+        assertTrue(failure.getCause() instanceof IllegalStateException, failure.toString());
+    }
+
+    private CompletableFuture<String> supplyAfter(int millis, String value) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException ignore) {
+            }
+            return value;
+        }, threadPool);
+    }
+}
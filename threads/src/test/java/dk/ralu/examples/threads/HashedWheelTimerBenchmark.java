@@ -0,0 +1,108 @@
+package dk.ralu.examples.threads;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of a timeout that is cancelled because the future completes in time, the common case, with 100,000 outstanding
+ * futures: each invocation gives 100,000 futures a timeout of one second, and then completes all of them.
+ * <p>
+ * The timeouts are scheduled on a {@link HashedWheelTimer}, on a {@link ScheduledThreadPoolExecutor} that removes cancelled tasks from
+ * its heap, or with {@link CompletableFuture#orTimeout}, which uses a shared scheduler that keeps cancelled tasks until they are due.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE. It runs with the GC profiler, so the allocated bytes per operation
+ * ({@code gc.alloc.rate.norm}) are reported along with the time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class HashedWheelTimerBenchmark {
+
+    private static final int FUTURES = 100_000;
+    private static final long TIMEOUT_MILLIS = 1_000;
+    private static final Duration TIMEOUT = Duration.ofMillis(TIMEOUT_MILLIS);
+
+    @Param({"WHEEL", "SCHEDULED_EXECUTOR", "OR_TIMEOUT"})
+    private String timer;
+
+    private HashedWheelTimer wheelTimer;
+    private FutureTimeouts timeouts;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Setup
+    public void createTimers() {
+        wheelTimer = new HashedWheelTimer("wheel-timer-");
+        timeouts = new FutureTimeouts(wheelTimer);
+        scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("scheduler-", true));
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @TearDown
+    public void closeTimers() {
+        wheelTimer.close();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FUTURES)
+    public int outstandingFutures() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(FUTURES);
+        for (int i = 0; i < FUTURES; i++) {
+            futures.add(withTimeout(new CompletableFuture<>()));
+        }
+        int completed = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            if (future.complete(completed)) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    private CompletableFuture<Integer> withTimeout(CompletableFuture<Integer> future) {
+        switch (timer) {
+            case "WHEEL":
+                return timeouts.orTimeout(future, TIMEOUT);
+            case "SCHEDULED_EXECUTOR":
+                ScheduledFuture<?> timeout = scheduler.schedule(() -> future.completeExceptionally(new TimeoutException()),
+                        TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                future.whenComplete((result, failure) -> timeout.cancel(false));
+                return future;
+            default:
+                return future.orTimeout(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                           .include(HashedWheelTimerBenchmark.class.getSimpleName())
+                           .addProfiler(GCProfiler.class)
+                           .build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void expiresAfterTheDelayWithinOneTick() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer("timer-", Duration.ofMillis(10), 8)) {
+            for (long delayMillis : new long[]{0, 25, 200}) { // 200 ms is more than two turns of the wheel
+                CountDownLatch expired = new CountDownLatch(1);
+                long startNanos = System.nanoTime();
+                HashedWheelTimer.Timeout timeout = timer.schedule(expired::countDown, delayMillis, TimeUnit.MILLISECONDS);
+
+                assertTrue(expired.await(1, TimeUnit.SECONDS));
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                assertTrue(elapsedMillis >= delayMillis, "Expired after " + elapsedMillis + " ms");
+                assertTrue(elapsedMillis < delayMillis + 100, "Expired after " + elapsedMillis + " ms");
+                assertTrue(timeout.isExpired());
+                assertFalse(timeout.cancel());
+            }
+        }
+    }
+
+    @Test
+    void cancelledTimeoutsDoNotExpire() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer("timer-", Duration.ofMillis(5), 16)) {
+            AtomicInteger expiredCount = new AtomicInteger();
+            List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                timeouts.add(timer.schedule(expiredCount::incrementAndGet, 200 + i % 50, TimeUnit.MILLISECONDS));
+            }
+            assertEquals(10_000, timer.pendingTimeouts());
+            for (int i = 0; i < timeouts.size(); i += 2) {
+                assertTrue(timeouts.get(i).cancel());
+            }
+            assertEquals(5_000, timer.pendingTimeouts());
+
+            Thread.sleep(500);
+
+            assertEquals(5_000, expiredCount.get());
+            assertEquals(0, timer.pendingTimeouts());
+            assertTrue(timeouts.get(0).isCancelled() && timeouts.get(1).isExpired());
+        }
+    }
+
+    /**
+     * A task that throws an error, or interrupts the timer thread, e.g. a dependent stage catching an {@link InterruptedException}, does
+     * not stop the timer.
+     */
+    @Test
+    void tasksThatFailOrInterruptDoNotStopTheTimer() throws Exception {
+        try (HashedWheelTimer timer = new HashedWheelTimer("timer-", Duration.ofMillis(5), 16)) {
+            timer.schedule(() -> {
+                throw new AssertionError("Failed");
+            }, 0, TimeUnit.MILLISECONDS);
+            timer.schedule(() -> Thread.currentThread().interrupt(), 10, TimeUnit.MILLISECONDS);
+            CountDownLatch expired = new CountDownLatch(1);
+            AtomicBoolean interrupted = new AtomicBoolean(true);
+            timer.schedule(() -> {
+                interrupted.set(Thread.currentThread().isInterrupted());
+                expired.countDown();
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(expired.await(1, TimeUnit.SECONDS));
+            assertFalse(interrupted.get());
+            assertEquals(0, timer.pendingTimeouts());
+        }
+    }
+
+    @Test
+    void closedTimerRejectsTimeouts() {
+        HashedWheelTimer timer = new HashedWheelTimer("timer-");
+        timer.close();
+
+        assertThrows(IllegalStateException.class, () -> timer.schedule(() -> {
+        }, Duration.ofMillis(1)));
+        assertEquals(512, timer.buckets());
+        try (HashedWheelTimer smallTimer = new HashedWheelTimer("timer-", Duration.ofMillis(10), 3)) {
+            assertEquals(4, smallTimer.buckets()); // Rounded up to a power of two
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package dk.ralu.examples.threads;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the latencies of 1,000 concurrent requests to a simulated server, with and without hedging, where a call takes 5 to 15 ms,
+ * except that 3% of the calls are stragglers, which take 200 ms.
+ * <p>
+ * Without hedging, the p99 is a straggler. With hedging at the p95 latency of the primary calls, with a budget of 10%, a straggler gets
+ * a backup call after about 15 ms, which is unlikely to be a straggler too. The latencies of the requests are reported as the
+ * {@code p50Millis} and {@code p99Millis} counters, and the share of requests that got a backup call as {@code backupPercent}.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class HedgedRequestsBenchmark {
+
+    private static final int REQUESTS = 1_000;
+    private static final double STRAGGLER_PERCENT = 3;
+    private static final int STRAGGLER_MILLIS = 200;
+
+    @Param({"false", "true"})
+    private boolean hedged;
+
+    private ScheduledThreadPoolExecutor server;
+    private HashedWheelTimer timer;
+    private ExecutorService backupStarter;
+    private HedgedRequests hedgedRequests;
+
+    @Setup
+    public void createServer() {
+        server = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("server-", true));
+        server.setRemoveOnCancelPolicy(true);
+        timer = new HashedWheelTimer("timer-", Duration.ofMillis(1), 512);
+        backupStarter = Executors.newSingleThreadExecutor(new NamedThreadFactory("backup-starter-", true));
+        hedgedRequests = new HedgedRequests(timer, backupStarter, Duration.ofMillis(20), 95, 10, 1_000);
+    }
+
+    @TearDown
+    public void shutdownServer() {
+        server.shutdownNow();
+        timer.close();
+        backupStarter.shutdownNow();
+    }
+
+    /**
+     * The latencies of the requests of the current iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latencies {
+
+        public double p50Millis;
+        public double p99Millis;
+        public double backupPercent;
+
+        private Histogram histogram;
+        private long requests;
+        private long backups;
+
+        @Setup(Level.Iteration)
+        public void clear(HedgedRequestsBenchmark benchmark) {
+            histogram = new Histogram();
+            requests = benchmark.hedgedRequests.requests();
+            backups = benchmark.hedgedRequests.backups();
+        }
+
+        void update(HedgedRequests hedgedRequests) {
+            Histogram.Snapshot snapshot = histogram.snapshot();
+            p50Millis = snapshot.percentile(50) / 1e6;
+            p99Millis = snapshot.percentile(99) / 1e6;
+            long hedgedCount = hedgedRequests.requests() - requests;
+            backupPercent = hedgedCount == 0 ? 0 : 100.0 * (hedgedRequests.backups() - backups) / hedgedCount;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public Object requests(Latencies latencies) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            long startNanos = System.nanoTime();
+            CompletableFuture<Integer> response = hedged ? hedgedRequests.call(this::callServer) : callServer();
+            futures[i] = response.whenComplete((value, failure) -> latencies.histogram.record(System.nanoTime() - startNanos));
+        }
+        CompletableFuture.allOf(futures).join();
+        latencies.update(hedgedRequests);
+        return futures[REQUESTS - 1].join();
+    }
+
+    private CompletableFuture<Integer> callServer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int latencyMillis = random.nextDouble() * 100 < STRAGGLER_PERCENT ? STRAGGLER_MILLIS : random.nextInt(5, 16);
+        CompletableFuture<Integer> response = new CompletableFuture<>();
+        ScheduledFuture<?> reply = server.schedule(() -> response.complete(latencyMillis), latencyMillis, TimeUnit.MILLISECONDS);
+        response.whenComplete((value, failure) -> reply.cancel(false)); // Frees the server, if the call is cancelled
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HedgedRequestsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class HedgedRequestsTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("timer-", Duration.ofMillis(5), 64);
+    private final ExecutorService threadPool = Executors.newCachedThreadPool(new NamedThreadFactory("my-thread-pool-"));
+
+    @AfterEach
+    void shutdown() {
+        timer.close();
+        threadPool.shutdownNow();
+    }
+
+    @Test
+    void backupCallWinsWhenThePrimaryCallIsSlow() throws Exception {
+        HedgedRequests hedgedRequests = new HedgedRequests(timer, threadPool, Duration.ofMillis(20), 95, 100, 1_000);
+        CompletableFuture<String> primary = new CompletableFuture<>(); // Never completes
+        AtomicInteger calls = new AtomicInteger();
+
+        long startTime = System.currentTimeMillis();
+        String result = hedgedRequests.<String>call(
+                () -> calls.incrementAndGet() == 1 ? primary : CompletableFuture.completedFuture("backup")).get();
+        long timeToRun = System.currentTimeMillis() - startTime;
+
+        assertEquals("backup", result);
+        assertTrue(primary.isCancelled());
+        assertTrue(timeToRun >= 20 && timeToRun < 20 + 100, "Took " + timeToRun + " ms");
+        assertEquals(1, hedgedRequests.backups());
+    }
+
+    @Test
+    void noBackupCallWhenThePrimaryCallCompletesOrFails() throws Exception {
+        HedgedRequests hedgedRequests = new HedgedRequests(timer, threadPool, Duration.ofMillis(20), 95, 100, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("primary", hedgedRequests.call(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> "primary");
+        }).get());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> hedgedRequests.call(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("Failed"));
+        }).get());
+        Thread.sleep(50); // Past the hedge delay
+
+        assertTrue(failure.getCause() instanceof IllegalStateException, failure.toString());
+        assertEquals(2, calls.get());
+        assertEquals(0, hedgedRequests.backups());
+        assertEquals(2, hedgedRequests.requests());
+    }
+
+    /**
+     * A backup call that cannot be started, e.g. because its executor is full, counts as a failed backup call, so the result still
+     * completes with the primary call.
+     */
+    @Test
+    void backupCallThatThrowsWhenStarted() throws Exception {
+        HedgedRequests hedgedRequests = new HedgedRequests(timer, threadPool, Duration.ofMillis(10), 95, 100, 1_000);
+        List<CompletableFuture<String>> primaries = new ArrayList<>();
+        Supplier<CompletableFuture<String>> request = () -> {
+            if (primaries.size() == 2) {
+                throw new RejectedExecutionException("Full");
+            }
+            CompletableFuture<String> primary = new CompletableFuture<>();
+            primaries.add(primary);
+            return primary;
+        };
+        CompletableFuture<String> failing = hedgedRequests.call(request);
+        CompletableFuture<String> succeeding = hedgedRequests.call(request);
+        Thread.sleep(50); // Past the hedge delay
+
+        primaries.get(0).completeExceptionally(new IllegalStateException("Failed"));
+        primaries.get(1).complete("primary");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> failing.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException, failure.toString());
+        assertEquals("primary", succeeding.get(1, TimeUnit.SECONDS));
+        assertEquals(2, hedgedRequests.backups());
+    }
+
+    /**
+     * With a budget of 10%, at most 10 of 100 slow requests get a backup call.
+     */
+    @Test
+    void backupCallsAreLimitedByTheBudget() throws Exception {
+        HedgedRequests hedgedRequests = new HedgedRequests(timer, threadPool, Duration.ofMillis(10), 95, 10, 1_000);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(hedgedRequests.call(CompletableFuture::new)); // Never complete
+        }
+        Thread.sleep(100);
+
+        assertTrue(hedgedRequests.backups() >= 9 && hedgedRequests.backups() <= 10, "Backups: " + hedgedRequests.backups());
+        assertEquals(100, hedgedRequests.backups() + hedgedRequests.backupsOverBudget());
+        results.forEach(result -> result.cancel(true));
+    }
+
+    @Test
+    void hedgeDelayIsThePercentileOfTheLastWindow() {
+        HedgedRequests hedgedRequests = new HedgedRequests(timer, threadPool, Duration.ofMillis(50), 95, 5, 100);
+        for (int i = 1; i <= 99; i++) {
+            hedgedRequests.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(Duration.ofMillis(50), hedgedRequests.hedgeDelay()); // Until the window is full
+
+        hedgedRequests.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+        long delayMillis = hedgedRequests.hedgeDelay().toMillis();
+        assertTrue(delayMillis >= 95 && delayMillis <= 95 * 1.125, "Delay: " + delayMillis + " ms");
+
+        // A primary call cancelled with the result, e.g. by FutureTimeouts.anyOf, is not recorded
+        HedgedRequests oneLatencyWindow = new HedgedRequests(timer, threadPool, Duration.ofMillis(50), 95, 5, 1);
+        oneLatencyWindow.call(CompletableFuture::new).cancel(true);
+        assertEquals(Duration.ofMillis(50), oneLatencyWindow.hedgeDelay());
+    }
+}
@@ -0,0 +1,46 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+    @Test
+    void bucketsCoverAllValues() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucket(value);
+            assertTrue(Histogram.upperBound(bucket) >= value, "Value " + value);
+            assertTrue(bucket == 0 || Histogram.upperBound(bucket - 1) < value, "Value " + value);
+        }
+    }
+
+    /**
+     * Percentiles are rounded up to the end of their bucket, so they are at most 12.5% above the exact percentile.
+     */
+    @Test
+    void percentilesAreWithinPrecision() {
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20); // Spread over many powers of two
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(values.length, snapshot.count());
+        assertEquals(values[values.length - 1], snapshot.max());
+        assertEquals(Arrays.stream(values).average().orElse(0), snapshot.mean(), 1e-6 * snapshot.mean());
+        for (double percentage : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(values.length * percentage / 100) - 1];
+            long estimate = snapshot.percentile(percentage);
+            assertTrue(estimate >= exact && estimate <= exact * 1.125 + 1, "p" + percentage + ": " + estimate + " vs " + exact);
+        }
+        assertEquals(0, new Histogram().snapshot().percentile(99));
+    }
+}
@@ -0,0 +1,88 @@
+package dk.ralu.examples.threads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the overhead of the metrics of {@link InstrumentedThreadPoolExecutor} compared to a plain {@link ThreadPoolExecutor},
+ * submitting 10,000 tiny tasks, where the overhead is the largest part of the time per task.
+ * <p>
+ * Run the main method with the test classpath, e.g. from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+@State(Scope.Benchmark)
+public class InstrumentedThreadPoolExecutorBenchmark {
+
+    private static final int TASKS = 10_000;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private ThreadPoolExecutor plainPool;
+    private InstrumentedThreadPoolExecutor instrumentedPool;
+    private final LongAdder work = new LongAdder();
+
+    @Setup
+    public void createPools() {
+        plainPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("plain-"));
+        instrumentedPool = InstrumentedThreadPoolExecutor.fixed("instrumented-", threads);
+    }
+
+    @TearDown
+    public void shutdownPools() {
+        plainPool.shutdownNow();
+        instrumentedPool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public long plain() throws InterruptedException {
+        return runTasks(plainPool);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public long instrumented() throws InterruptedException {
+        return runTasks(instrumentedPool);
+    }
+
+    private long runTasks(ThreadPoolExecutor pool) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            pool.execute(() -> {
+                work.increment();
+                done.countDown();
+            });
+        }
+        done.await();
+        return work.sum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InstrumentedThreadPoolExecutorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package dk.ralu.examples.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class InstrumentedThreadPoolExecutorTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstrumentedThreadPoolExecutorTest.class);
+
+    /**
+     * Threads created concurrently, e.g. by tasks submitted from many threads at once, all get a name of their own.
+     */
+    @Test
+    void threadFactoryGivesUniqueNamesWhenUsedConcurrently() throws Exception {
+        NamedThreadFactory threadFactory = new NamedThreadFactory("my-thread-pool-");
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                List<String> names = new ArrayList<>();
+                for (int j = 0; j < 1_000; j++) {
+                    names.add(threadFactory.newThread(() -> {
+                    }).getName());
+                }
+                return names;
+            }, runnable -> new Thread(runnable).start()));
+        }
+        start.countDown();
+        Set<String> names = new HashSet<>();
+        for (CompletableFuture<List<String>> future : futures) {
+            names.addAll(future.get());
+        }
+
+        assertEquals(8_000, names.size());
+        assertEquals(8_000, threadFactory.threadsCreated());
+        assertTrue(names.contains("my-thread-pool-0") && names.contains("my-thread-pool-7999"));
+    }
+
+    @Test
+    void recordsWaitAndRunTimesOfSaturatedPool() throws Exception {
+        InstrumentedThreadPoolExecutor pool = InstrumentedThreadPoolExecutor.fixed("saturated-", 2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 6; i++) {
+                pool.execute(() -> await(release));
+            }
+            Thread.sleep(50); // The first two tasks are running, and the rest are waiting
+
+            PoolMetricsSnapshot saturated = pool.metrics();
+            LOGGER.info("{}", saturated);
+            assertEquals(2, saturated.activeThreads());
+            assertEquals(4, saturated.queueDepth());
+            assertTrue(saturated.isSaturated());
+            assertEquals(3, saturated.queueDepths().max()); // The sixth task saw three tasks in the queue
+
+            release.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+
+            PoolMetricsSnapshot done = pool.metrics();
+            LOGGER.info("{}", done);
+            assertEquals(0, done.activeThreads());
+            assertFalse(done.isSaturated());
+            assertEquals(6, done.completedTasks());
+            assertEquals(6, done.runTimes().count());
+            assertEquals(2, done.activeThreadCounts().max());
+            assertTrue(done.waitTimes().max() >= TimeUnit.MILLISECONDS.toNanos(50), done.waitTimes().toString());
+            assertTrue(done.runTimes().max() >= TimeUnit.MILLISECONDS.toNanos(50), done.runTimes().toString());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void countsRejectedTasks() {
+        InstrumentedThreadPoolExecutor pool = InstrumentedThreadPoolExecutor.bounded("bounded-", 1, 2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            int rejected = 0;
+            for (int i = 0; i < 5; i++) {
+                try {
+                    pool.execute(() -> await(release));
+                } catch (RejectedExecutionException e) {
+                    rejected++;
+                }
+            }
+            PoolMetricsSnapshot metrics = pool.metrics();
+            release.countDown();
+
+            assertEquals(2, rejected);
+            assertEquals(2, metrics.rejectedTasks());
+            assertEquals(0, metrics.queueRemainingCapacity());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ignore) {
+        }
+    }
+}